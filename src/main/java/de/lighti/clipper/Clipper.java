@@ -51,4 +51,12 @@ public interface Clipper {
     boolean execute( ClipType clipType, PolyTree polytree );
 
     public boolean execute( ClipType clipType, PolyTree polytree, PolyFillType subjFillType, PolyFillType clipFillType );
+
+    /**
+     * Coverage-depth mode: instead of building output polygons, integrates in
+     * a single sweep the area covered by 1..maxDepth subject paths, inside and
+     * outside the clip paths. Subject depth is the absolute winding count, so
+     * subject paths are expected to share the same orientation.
+     */
+    boolean executeCoverageDepth( CoverageDepth result, PolyFillType clipFillType );
 }
@@ -0,0 +1,54 @@
+package de.lighti.clipper;
+
+/**
+ * Result of {@link Clipper#executeCoverageDepth(CoverageDepth, Clipper.PolyFillType)}:
+ * the area covered by at least 1, 2, ... maxDepth subject paths, split
+ * in the part that lies inside the clip paths and the part outside of them.
+ *
+ * <p/>Areas are expressed in squared path units.
+ */
+public class CoverageDepth {
+    private final double[] inside;
+
+    private final double[] outside;
+
+    public CoverageDepth( int maxDepth ) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException( "Coverage depth must be at least 1" );
+        }
+        inside = new double[maxDepth];
+        outside = new double[maxDepth];
+    }
+
+    void add( int depth, boolean insideClip, double area ) {
+        final double[] areas = insideClip ? inside : outside;
+        for (int i = 0; i < Math.min( depth, areas.length ); i++) {
+            areas[i] += area;
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < inside.length; i++) {
+            inside[i] = 0;
+            outside[i] = 0;
+        }
+    }
+
+    public int getMaxDepth() {
+        return inside.length;
+    }
+
+    /**
+     * @return area covered by at least <code>depth</code> subject paths, inside the clip paths
+     */
+    public double getInsideArea( int depth ) {
+        return inside[depth - 1];
+    }
+
+    /**
+     * @return area covered by at least <code>depth</code> subject paths, outside the clip paths
+     */
+    public double getOutsideArea( int depth ) {
+        return outside[depth - 1];
+    }
+}
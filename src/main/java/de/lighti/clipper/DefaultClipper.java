@@ -2539,5 +2539,208 @@ public class DefaultClipper extends ClipperBase {
         }
     }
 
-} //end Clipper
+    //------------------------------------------------------------------------------
+    // Coverage-depth mode
+    //------------------------------------------------------------------------------
+
+    /**
+     * Non horizontal edge, as seen by the coverage-depth sweep. Y grows from
+     * top to bot, like in the rest of the clipper.
+     */
+    private static class DepthEdge {
+        final double botX;
+        final double botY;
+        final double topY;
+        final double dxdy;
+        final int windDelta;
+        final boolean subject;
+        double x;
+
+        DepthEdge( Edge e, int windDelta ) {
+            botX = e.getBot().getX();
+            botY = e.getBot().getY();
+            topY = e.getTop().getY();
+            dxdy = (double) (e.getTop().getX() - e.getBot().getX()) / (e.getTop().getY() - e.getBot().getY());
+            this.windDelta = windDelta;
+            subject = e.polyTyp == PolyType.SUBJECT;
+        }
+
+        double xAt( double y ) {
+            return botX + dxdy * (y - botY);
+        }
+    }
+
+    @Override
+    public boolean executeCoverageDepth( CoverageDepth result, PolyFillType clipFillType ) {
+        synchronized (this) {
+            result.clear();
+            final List<DepthEdge> edges = collectDepthEdges();
+            if (edges.isEmpty()) {
+                return false;
+            }
+            Collections.sort( edges, new Comparator<DepthEdge>() {
+                @Override
+                public int compare( DepthEdge e1, DepthEdge e2 ) {
+                    return Double.compare( e1.topY, e2.topY );
+                }
+            } );
+
+            final double[] scanbeams = depthScanbeams( edges );
+            final List<DepthEdge> active = new ArrayList<DepthEdge>();
+            final List<Double> splits = new ArrayList<Double>();
+            int next = 0;
+            for (int i = 0; i + 1 < scanbeams.length; i++) {
+                final double topY = scanbeams[i], botY = scanbeams[i + 1];
+
+                for (int j = active.size() - 1; j >= 0; j--) {
+                    if (active.get( j ).botY <= topY) {
+                        active.remove( j );
+                    }
+                }
+                while (next < edges.size() && edges.get( next ).topY <= topY) {
+                    active.add( edges.get( next++ ) );
+                }
+                if (active.size() < 2) {
+                    continue;
+                }
+
+                //Edges keep their order between intersections, so the scanbeam is
+                //split at every intersection and each part is integrated separately.
+                buildDepthSplits( active, topY, botY, splits );
+                for (int j = 0; j + 1 < splits.size(); j++) {
+                    integrateDepth( active, splits.get( j ), splits.get( j + 1 ), clipFillType, result );
+                }
+            }
+            return true;
+        }
+    }
+
+    private List<DepthEdge> collectDepthEdges() {
+        final List<DepthEdge> result = new ArrayList<DepthEdge>();
+        for (LocalMinima lm = minimaList; lm != null; lm = lm.next) {
+            for (final Edge bound : new Edge[] { lm.leftBound, lm.rightBound }) {
+                //all edges of a bound share its winding direction; open paths have none.
+                if (bound == null || bound.windDelta == 0) {
+                    continue;
+                }
+                for (Edge e = bound; e != null; e = e.nextInLML) {
+                    if (!e.isHorizontal()) {
+                        result.add( new DepthEdge( e, bound.windDelta ) );
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static double[] depthScanbeams( List<DepthEdge> edges ) {
+        final double[] ys = new double[2 * edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            ys[2 * i] = edges.get( i ).topY;
+            ys[2 * i + 1] = edges.get( i ).botY;
+        }
+        java.util.Arrays.sort( ys );
+        int count = 0;
+        for (int i = 0; i < ys.length; i++) {
+            if (count == 0 || ys[i] != ys[count - 1]) {
+                ys[count++] = ys[i];
+            }
+        }
+        return java.util.Arrays.copyOf( ys, count );
+    }
+
+    /**
+     * Orders active edges by x at topY, then bubbles them into their order at
+     * botY. Every swap is an intersection between topY and botY, like in
+     * {@link #buildIntersectList(long)}.
+     */
+    private static void buildDepthSplits( List<DepthEdge> active, double topY, double botY, List<Double> splits ) {
+        splits.clear();
+        splits.add( topY );
+
+        sortDepthEdges( active, topY );
+        final DepthEdge[] sel = active.toArray( new DepthEdge[active.size()] );
+        for (final DepthEdge e : sel) {
+            e.x = e.xAt( botY );
+        }
+        for (int i = 1; i < sel.length; i++) {
+            final DepthEdge e = sel[i];
+            int j = i - 1;
+            while (j >= 0 && sel[j].x > e.x) {
+                final DepthEdge f = sel[j];
+                final double y = (e.botX - f.botX - e.dxdy * e.botY + f.dxdy * f.botY) / (f.dxdy - e.dxdy);
+                if (y > topY && y < botY) {
+                    splits.add( y );
+                }
+                sel[j + 1] = f;
+                j--;
+            }
+            sel[j + 1] = e;
+        }
+
+        Collections.sort( splits );
+        splits.add( botY );
+    }
+
+    /**
+     * Within a part of a scanbeam with no intersections the covered width is
+     * linear in y, so sampling it half way is exact.
+     */
+    private static void integrateDepth( List<DepthEdge> active, double topY, double botY,
+                    PolyFillType clipFillType, CoverageDepth result ) {
+        final double height = botY - topY;
+        if (height <= 0) {
+            return;
+        }
+        sortDepthEdges( active, topY + height / 2 );
+
+        int subjWind = 0, clipWind = 0;
+        for (int i = 0; i + 1 < active.size(); i++) {
+            final DepthEdge e = active.get( i );
+            if (e.subject) {
+                subjWind += e.windDelta;
+            }
+            else {
+                clipWind += e.windDelta;
+            }
+            final double width = active.get( i + 1 ).x - e.x;
+            if (subjWind != 0 && width > 0) {
+                result.add( Math.abs( subjWind ), isFilled( clipWind, clipFillType ), width * height );
+            }
+        }
+    }
+
+    /**
+     * Insertion sort by x at given y: active edges are almost always in order
+     * already, so this is linear in the number of edges plus swaps.
+     */
+    private static void sortDepthEdges( List<DepthEdge> active, double y ) {
+        for (final DepthEdge e : active) {
+            e.x = e.xAt( y );
+        }
+        for (int i = 1; i < active.size(); i++) {
+            final DepthEdge e = active.get( i );
+            int j = i - 1;
+            while (j >= 0 && active.get( j ).x > e.x) {
+                active.set( j + 1, active.get( j ) );
+                j--;
+            }
+            active.set( j + 1, e );
+        }
+    }
 
+    private static boolean isFilled( int windCnt, PolyFillType fillType ) {
+        switch (fillType) {
+            case EVEN_ODD:
+                return (windCnt & 1) != 0;
+            case POSITIVE:
+                return windCnt > 0;
+            case NEGATIVE:
+                return windCnt < 0;
+            case NON_ZERO:
+            default:
+                return windCnt != 0;
+        }
+    }
+
+} //end Clipper
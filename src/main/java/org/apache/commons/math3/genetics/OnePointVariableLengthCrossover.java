@@ -7,6 +7,7 @@ import org.apache.commons.math3.random.RandomGenerator;
 import org.house.sprinklers.GeneticAlgorithmProperties;
 import org.house.sprinklers.metrics.MetricsConstants;
 import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.PackedSprinklers;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,12 +36,16 @@ public class OnePointVariableLengthCrossover<T> implements CrossoverPolicy {
 
     private RecorderService recorderService;
 
+    private RandomGenerator rnd;
+
     public OnePointVariableLengthCrossover(GeneticAlgorithmProperties.CrossoverProperties crossoverProperties,
                                            GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties,
-                                           RecorderService recorderService) {
+                                           RecorderService recorderService,
+                                           RandomGenerator rnd) {
         this.crossoverProperties = crossoverProperties;
         this.chromosomeProperties = chromosomeProperties;
         this.recorderService = recorderService;
+        this.rnd = rnd;
     }
 
     @SuppressWarnings("unchecked")
@@ -66,8 +71,6 @@ public class OnePointVariableLengthCrossover<T> implements CrossoverPolicy {
         // Now that we're sure a crossover is performed, increment counter
         recorderService.increment(MetricsConstants.COUNTER_GA_CROSSOVERS);
 
-        final RandomGenerator rnd = GeneticAlgorithm.getRandomGenerator();
-
         /*
         final int crossoverIndexParent1 = rnd.nextInt(lengthParent1),
                   crossoverIndexParent2 = rnd.nextInt(lengthParent2);
@@ -101,19 +104,28 @@ public class OnePointVariableLengthCrossover<T> implements CrossoverPolicy {
         final List<T> parent1Rep = first.getRepresentation();
         final List<T> parent2Rep = second.getRepresentation();
         // and of the children
-        final List<T> child1Rep = new ArrayList<T>(minLengthParents);
-        final List<T> child2Rep = new ArrayList<T>(minLengthParents);
-
-        // copy the first part
-        child1Rep.addAll(parent1Rep.subList(0, crossoverIndexParent1));
-        child1Rep.addAll(parent2Rep.subList(crossoverIndexParent2, lengthParent2));
-
-        child2Rep.addAll(parent2Rep.subList(0, crossoverIndexParent2));
-        child2Rep.addAll(parent1Rep.subList(crossoverIndexParent1, lengthParent1));
+        final List<T> child1Rep = splice(parent1Rep, crossoverIndexParent1, parent2Rep, crossoverIndexParent2);
+        final List<T> child2Rep = splice(parent2Rep, crossoverIndexParent2, parent1Rep, crossoverIndexParent1);
 
         // Both children need to have valid chromosomes (length)
 
         return new ChromosomePair(first.newFixedLengthChromosome(child1Rep),
                 second.newFixedLengthChromosome(child2Rep));
     }
+
+    /**
+     * First part of <code>head</code>, up to <code>headIndex</code>, then
+     * second part of <code>tail</code>, from <code>tailIndex</code>.
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> splice(final List<T> head, final int headIndex, final List<T> tail, final int tailIndex) {
+        if (head instanceof PackedSprinklers && tail instanceof PackedSprinklers) {
+            // Copies the doubles, no sprinkler is built
+            return (List<T>) PackedSprinklers.splice((PackedSprinklers) head, headIndex, (PackedSprinklers) tail, tailIndex);
+        }
+        final List<T> child = new ArrayList<T>(headIndex + tail.size() - tailIndex);
+        child.addAll(head.subList(0, headIndex));
+        child.addAll(tail.subList(tailIndex, tail.size()));
+        return child;
+    }
 }
@@ -2,7 +2,6 @@ package org.apache.commons.math3.genetics;
 
 import org.apache.commons.math3.exception.MathIllegalArgumentException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
-import org.apache.commons.math3.random.JDKRandomGenerator;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.house.sprinklers.GeneticAlgorithmProperties;
 import org.house.sprinklers.genetics.GeneGeneratorConfiguration;
@@ -26,8 +25,6 @@ import java.util.stream.IntStream;
  */
 public class RandomGeneMutation<T> implements MutationPolicy {
 
-    private static RandomGenerator randomGenerator = new JDKRandomGenerator();
-
     private Function<T, T> geneGenerator;
 
     private GeneGeneratorConfiguration config;
@@ -36,14 +33,18 @@ public class RandomGeneMutation<T> implements MutationPolicy {
 
     private RecorderService recorderService;
 
+    private RandomGenerator randomGenerator;
+
     public RandomGeneMutation(Function<T, T> geneGenerator,
                               GeneGeneratorConfiguration config,
                               GeneticAlgorithmProperties.ChromosomeProperties chromosomeConfig,
-                              RecorderService recorderService) {
+                              RecorderService recorderService,
+                              RandomGenerator randomGenerator) {
         this.geneGenerator = geneGenerator;
         this.config = config;
         this.chromosomeConfig = chromosomeConfig;
         this.recorderService = recorderService;
+        this.randomGenerator = randomGenerator;
     }
 
     @SuppressWarnings("unchecked")
@@ -110,7 +111,7 @@ public class RandomGeneMutation<T> implements MutationPolicy {
     /**
      * Generates an array of unique indices.
      */
-    private static Integer[] generateUniqueIndices(int size, int count) {
+    private Integer[] generateUniqueIndices(int size, int count) {
         List<Integer> integers = IntStream.range(0, size).collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
         while (integers.size() > count) {
             integers.remove(randomGenerator.nextInt(integers.size()));
@@ -4,18 +4,29 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 @Configuration
 @ConfigurationProperties(prefix = "executors")
 @Data
 public class ExecutorProperties {
     private int nThreads;
+    /* Threads scoring and breeding each generation, 0 for one per core. */
+    private int generationParallelism;
 
     @Bean
+    @Primary
     ExecutorService executor() {
         return Executors.newFixedThreadPool(getNThreads());
     }
+
+    @Bean
+    ForkJoinPool generationPool() {
+        return new ForkJoinPool(generationParallelism > 0 ?
+                generationParallelism : Runtime.getRuntime().availableProcessors());
+    }
 }
@@ -0,0 +1,85 @@
+package org.house.sprinklers;
+
+import lombok.Data;
+import org.house.sprinklers.fitness.CoverageMode;
+import org.house.sprinklers.fitness.FitnessEngine;
+import org.house.sprinklers.fitness.GeometryMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import javax.validation.constraints.NotNull;
+
+@Configuration
+@ConfigurationProperties(prefix = "fitness")
+@Data
+public class FitnessProperties {
+
+    @NotNull
+    private FitnessEngine engine = FitnessEngine.CLIPPER;
+
+    @NotNull
+    private CoverageMode coverageMode = CoverageMode.PAIRWISE;
+
+    @NotNull
+    private GeometryMode geometryMode = GeometryMode.POLYGON;
+
+    @NotNull
+    private CacheProperties inputCache;
+    @NotNull
+    private CacheProperties clipCache;
+    @NotNull
+    private PairCacheProperties overlapCache;
+
+    @NotNull
+    private RasterProperties raster;
+    @NotNull
+    private QmcProperties qmc;
+    @NotNull
+    private MultiFidelityProperties multiFidelity;
+
+    @Data
+    public static class CacheProperties {
+        private long maximumSize;
+    }
+
+    /**
+     * Pair caches hold O(n&sup2;) entries per chromosome, so they are sized
+     * in generations worth of pairs rather than in entries.
+     */
+    @Data
+    public static class PairCacheProperties {
+        private int generations;
+        private int concurrencyLevel;
+    }
+
+    @Data
+    public static class RasterProperties {
+        private double cellSize;
+        /* Must cover the longest sprinkler range, or outside areas are cut short. */
+        private double margin;
+        @NotNull
+        private CacheProperties maskCache;
+    }
+
+    @Data
+    public static class QmcProperties {
+        private int minSamples;
+        private int maxSamples;
+        private int replicas;
+        private double confidence;
+        private double fitnessTolerance;
+        private double margin;
+    }
+
+    /**
+     * Screens offspring with a cheap engine, re-scoring only the best of each
+     * generation with the main one.
+     */
+    @Data
+    public static class MultiFidelityProperties {
+        private boolean enabled;
+        @NotNull
+        private FitnessEngine screenEngine = FitnessEngine.RASTER;
+        private int rescoreTopK;
+    }
+}
@@ -1,7 +1,11 @@
 package org.house.sprinklers;
 
 import lombok.Data;
+import org.house.sprinklers.genetics.EvolutionMode;
 import org.house.sprinklers.genetics.GeneGeneratorConfiguration;
+import org.house.sprinklers.genetics.ListenerOverflowPolicy;
+import org.house.sprinklers.genetics.MigrationTopology;
+import org.house.sprinklers.genetics.PopulationStorage;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,7 +17,11 @@ import javax.validation.constraints.NotNull;
 public class GeneticAlgorithmProperties {
 
     private int generations;
+    private long seed;
+    @NotNull
+    private EvolutionMode mode = EvolutionMode.GENERATIONAL;
     private int tournamentArity;
+    private double tournamentProbability = 1;
     private double crossoverRate;
     private double mutationRate;
     @NotNull
@@ -25,6 +33,16 @@ public class GeneticAlgorithmProperties {
     private PopulationProperties population;
     @NotNull
     private GeneGeneratorConfiguration mutation;
+    @NotNull
+    private IslandProperties islands;
+    @NotNull
+    private StoppingProperties stopping;
+    @NotNull
+    private ListenerProperties listener;
+    @NotNull
+    private CheckpointProperties checkpoint;
+    @NotNull
+    private MemeticProperties memetic;
 
     @Data
     public static class CrossoverProperties {
@@ -35,6 +53,11 @@ public class GeneticAlgorithmProperties {
     public static class PopulationProperties {
         private int initialSize;
         private int maximumSize;
+        /* Share of the initial population seeded with structured layouts. */
+        private double seededFraction;
+        /* Where generational single population runs keep their chromosomes. */
+        @NotNull
+        private PopulationStorage storage = PopulationStorage.OBJECTS;
     }
 
     @Data
@@ -42,4 +65,79 @@ public class GeneticAlgorithmProperties {
         private int minLength;
         private int maxLength;
     }
+
+    /**
+     * Early stopping, on top of the generation count; 0 disables a condition.
+     */
+    @Data
+    public static class StoppingProperties {
+        /* Generations without improvement of the best fitness. */
+        private int stagnantGenerations;
+        private double minimumDiversity;
+        private double targetFitness;
+        private long maxSeconds;
+        /* Fitness computations, exact or screened. */
+        private long maxEvaluations;
+    }
+
+    /**
+     * Generations waiting for the population listener, see {@link org.house.sprinklers.genetics.AsyncPopulationListener}.
+     */
+    @Data
+    public static class ListenerProperties {
+        private int capacity;
+        @NotNull
+        private ListenerOverflowPolicy overflow = ListenerOverflowPolicy.COALESCE;
+    }
+
+    /**
+     * Checkpoints of single population runs, see {@link org.house.sprinklers.checkpoint.CheckpointStore}.
+     */
+    @Data
+    public static class CheckpointProperties {
+        @NotNull
+        private String file;
+        /* 0 disables checkpoints. */
+        private long intervalSeconds;
+        /* Continue from the checkpoint file, if any. */
+        private boolean resume;
+    }
+
+    /**
+     * Local search of the fittest chromosomes, see {@link org.house.sprinklers.genetics.MemeticRefinement}.
+     */
+    @Data
+    public static class MemeticProperties {
+        /* Generations between refinements, 0 disables them. */
+        private int interval;
+        private int topK;
+        private int evaluationsPerGene;
+        /* Initial simplex size: position and range, then angles (radians). */
+        private double step;
+        private double angleStep;
+    }
+
+    @Data
+    public static class IslandProperties {
+        /* 1 evolves a single population, without migration. */
+        private int count;
+        @NotNull
+        private MigrationTopology topology = MigrationTopology.RING;
+        private int migrationInterval;
+        private int migrants;
+        @NotNull
+        private RemoteProperties remote;
+    }
+
+    /**
+     * Islands running in separate processes, see {@link org.house.sprinklers.cluster.MigrationCoordinator}.
+     */
+    @Data
+    public static class RemoteProperties {
+        private String coordinatorHost;
+        /* 0 keeps all islands in this process. */
+        private int coordinatorPort;
+        /* Island run by this worker process. */
+        private int island;
+    }
 }
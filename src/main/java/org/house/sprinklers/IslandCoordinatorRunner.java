@@ -0,0 +1,52 @@
+package org.house.sprinklers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.house.sprinklers.cluster.Migrant;
+import org.house.sprinklers.cluster.MigrationCoordinator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+import java.io.IOException;
+
+/**
+ * Coordinator of a multi-process island model. Start it, then one
+ * {@link IslandWorkerRunner} per island, e.g. on localhost:
+ * <pre>
+ *     java -DgeneticAlgorithm.islands.count=4 \
+ *          -DgeneticAlgorithm.islands.remote.coordinatorPort=7070 org.house.sprinklers.IslandCoordinatorRunner
+ *     java -DgeneticAlgorithm.islands.remote.coordinatorPort=7070 \
+ *          -DgeneticAlgorithm.islands.remote.island=0 org.house.sprinklers.IslandWorkerRunner
+ *     ... islands 1 to 3
+ * </pre>
+ */
+@Slf4j
+public class IslandCoordinatorRunner {
+
+    public static void main(String[] args) throws IOException {
+        final GeneticAlgorithmProperties.IslandProperties islands;
+        try (ConfigurableApplicationContext appCtx = new AnnotationConfigApplicationContext(CoordinatorConfiguration.class)) {
+            islands = appCtx.getBean(GeneticAlgorithmProperties.class).getIslands();
+        }
+
+        final Migrant best = new MigrationCoordinator(
+                islands.getRemote().getCoordinatorPort(),
+                islands.getCount(),
+                islands.getTopology()).run();
+
+        log.info("Best chromosome of {} islands: {}", islands.getCount(), best);
+    }
+
+    /**
+     * The coordinator only relays migrants: it binds the island properties,
+     * without the terrain, engines and pools of {@link SprinklerConfiguration}.
+     * Not a component, so it is never scanned into a worker context.
+     */
+    @EnableConfigurationProperties
+    @Import(GeneticAlgorithmProperties.class)
+    @PropertySource("classpath:ga.properties")
+    static class CoordinatorConfiguration {
+    }
+}
@@ -0,0 +1,49 @@
+package org.house.sprinklers;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.cluster.SocketMigrationChannel;
+import org.house.sprinklers.genetics.AsyncPopulationListener;
+import org.house.sprinklers.genetics.IslandModel;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+
+/**
+ * Headless worker of a multi-process island model, see
+ * {@link IslandCoordinatorRunner}.
+ */
+@Slf4j
+public class IslandWorkerRunner {
+
+    public static void main(String[] args) throws IOException {
+        try (ConfigurableApplicationContext appCtx = new AnnotationConfigApplicationContext(SprinklerConfiguration.class)) {
+            final GeneticAlgorithmProperties properties = appCtx.getBean(GeneticAlgorithmProperties.class);
+            final RecorderService recorderService = appCtx.getBean(RecorderService.class);
+
+            final long start = System.currentTimeMillis();
+            final IslandModel islandModel = appCtx.getBean(IslandModel.class);
+            final Population finalPopulation;
+            // Pending migrants and metrics are flushed before the context goes away
+            try (SocketMigrationChannel channel = appCtx.getBean(SocketMigrationChannel.class);
+                 AsyncPopulationListener listener = appCtx.getBean(AsyncPopulationListener.class)) {
+                finalPopulation = islandModel.evolve();
+            }
+            final long end = System.currentTimeMillis();
+
+            log.info("Island {} done after {} generations in {} ms: {}",
+                    properties.getIslands().getRemote().getIsland(),
+                    islandModel.getGenerationsEvolved(),
+                    end - start,
+                    finalPopulation.getFittestChromosome());
+            log.info("Migrants sent = {} / dropped = {} / received = {} / accepted = {}",
+                    recorderService.getMetricValue(MetricsConstants.COUNTER_ISLAND_MIGRANTS_SENT, 0L),
+                    recorderService.getMetricValue(MetricsConstants.COUNTER_ISLAND_MIGRANTS_DROPPED, 0L),
+                    recorderService.getMetricValue(MetricsConstants.COUNTER_ISLAND_MIGRANTS_RECEIVED, 0L),
+                    recorderService.getMetricValue(MetricsConstants.COUNTER_ISLAND_MIGRANTS_ACCEPTED, 0L));
+        }
+    }
+}
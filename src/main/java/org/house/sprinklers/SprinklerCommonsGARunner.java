@@ -1,9 +1,11 @@
 package org.house.sprinklers;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.math3.genetics.FixedGenerationCount;
 import org.apache.commons.math3.genetics.GeneticAlgorithm;
 import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+import org.house.sprinklers.genetics.AsyncPopulationListener;
+import org.house.sprinklers.genetics.IslandModel;
 import org.house.sprinklers.genetics.SprinklersChromosome;
 import org.house.sprinklers.metrics.PopulationAndValue;
 import org.house.sprinklers.metrics.InMemorySprinklerMetricsExtractor;
@@ -14,6 +16,7 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +28,11 @@ public class SprinklerCommonsGARunner {
         // UI stuff
         System.setProperty("org.lwjgl.librarypath", "/Users/alexdobjanschi/workspace/sprinkler-ga-generator/target/natives");
 
+        // Continue from the checkpoint of an interrupted run
+        if (Arrays.asList(args).contains("--resume")) {
+            System.setProperty("geneticAlgorithm.checkpoint.resume", "true");
+        }
+
         // Read a couple of Beans
         ApplicationContext appCtx = new AnnotationConfigApplicationContext(SprinklerConfiguration.class);
 
@@ -37,25 +45,34 @@ public class SprinklerCommonsGARunner {
 
         final RecorderService recorderService = appCtx.getBean(RecorderService.class);
 
-        final GeneticAlgorithm ga = appCtx.getBean(GeneticAlgorithm.class);
-
-        final Population initial = appCtx.getBean(Population.class);
-
         final GeneticAlgorithmProperties properties = appCtx.getBean(GeneticAlgorithmProperties.class);
-        final int numGenerations = properties.getGenerations();
 
         final long start = System.currentTimeMillis();
 
         // run the algorithm
-        // stopping condition
-        final Population finalPopulation = ga.evolve(initial, new FixedGenerationCount(numGenerations));
+        final Population finalPopulation;
+        final long generationsEvolved;
+        if (properties.getIslands().getCount() > 1) {
+            final IslandModel islandModel = appCtx.getBean(IslandModel.class);
+            finalPopulation = islandModel.evolve();
+            generationsEvolved = islandModel.getGenerationsEvolved();
+        } else {
+            final GeneticAlgorithm ga = appCtx.getBean(GeneticAlgorithm.class);
+            final Population initial = appCtx.getBean(Population.class);
+            // stopping condition, generation count or earlier
+            finalPopulation = ga.evolve(initial, appCtx.getBean(StoppingCondition.class));
+            generationsEvolved = recorderService.getMetricValue(MetricsConstants.COUNTER_GA_GENERATIONS, 0L);
+        }
 
         // best chromosome from the final population
         final SprinklersChromosome fittestChromosome = (SprinklersChromosome) finalPopulation.getFittestChromosome();
 
         final long end = System.currentTimeMillis();
 
-        log.info("Best chromosome after {} generations, computed in {} ms: {}", numGenerations, end - start, fittestChromosome);
+        log.info("Best chromosome after {} generations, computed in {} ms: {}", generationsEvolved, end - start, fittestChromosome);
+
+        // metrics of the last generations may still be pending
+        appCtx.getBean(AsyncPopulationListener.class).close();
 
         // Display statistics
         final String separator = "----------------------------";
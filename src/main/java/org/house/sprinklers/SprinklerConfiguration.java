@@ -1,64 +1,179 @@
 package org.house.sprinklers;
 
 import com.google.common.collect.ImmutableSet;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.math3.genetics.Chromosome;
 import org.apache.commons.math3.genetics.CrossoverPolicy;
-import org.apache.commons.math3.genetics.ElitisticListPopulation;
+import org.apache.commons.math3.genetics.FixedElapsedTime;
+import org.apache.commons.math3.genetics.FixedGenerationCount;
 import org.apache.commons.math3.genetics.GeneticAlgorithm;
 import org.apache.commons.math3.genetics.MutationPolicy;
 import org.apache.commons.math3.genetics.OnePointVariableLengthCrossover;
 import org.apache.commons.math3.genetics.Population;
 import org.apache.commons.math3.genetics.RandomGeneMutation;
-import org.house.sprinklers.fitness.PolygonIntersectionCalculatorSync;
-import org.house.sprinklers.genetics.SmallChangeGeneGenerator;
-import org.apache.commons.math3.genetics.TournamentSelection;
-import org.apache.commons.math3.random.JDKRandomGenerator;
-import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.genetics.StoppingCondition;
+import org.house.sprinklers.checkpoint.Checkpoint;
+import org.house.sprinklers.checkpoint.CheckpointStore;
+import org.house.sprinklers.checkpoint.CheckpointWriter;
+import org.house.sprinklers.cluster.SocketMigrationChannel;
+import org.house.sprinklers.fitness.AnalyticSprinklerGeometry;
+import org.house.sprinklers.fitness.ClippedSprinkler;
+import org.house.sprinklers.fitness.ClipperFitnessInputCalculator;
+import org.house.sprinklers.fitness.CoverageMode;
 import org.house.sprinklers.fitness.FitnessCalculator;
+import org.house.sprinklers.fitness.FitnessEngine;
+import org.house.sprinklers.fitness.FitnessInput;
 import org.house.sprinklers.fitness.FitnessInputCalculator;
+import org.house.sprinklers.fitness.GeometryMode;
+import org.house.sprinklers.fitness.MeteredCache;
+import org.house.sprinklers.fitness.PolygonIntersectionCalculatorSync;
+import org.house.sprinklers.fitness.PolygonSprinklerGeometry;
+import org.house.sprinklers.fitness.QuasiMonteCarloFitnessInputCalculator;
+import org.house.sprinklers.fitness.RasterFitnessInputCalculator;
 import org.house.sprinklers.fitness.SimpleFitnessCalculator;
+import org.house.sprinklers.fitness.SprinklerGeometry;
+import org.house.sprinklers.fitness.SprinklerOverlap;
+import org.house.sprinklers.fitness.SprinklerPair;
+import org.house.sprinklers.genetics.AnyStoppingCondition;
+import org.house.sprinklers.genetics.ArenaPopulation;
+import org.house.sprinklers.genetics.AsyncPopulationListener;
 import org.house.sprinklers.genetics.DefaultPopulationListener;
+import org.house.sprinklers.genetics.DiversityCondition;
+import org.house.sprinklers.genetics.EvaluationBudgetCondition;
+import org.house.sprinklers.genetics.EvaluationPolicy;
+import org.house.sprinklers.genetics.EvolutionMode;
+import org.house.sprinklers.genetics.HeapPopulation;
+import org.house.sprinklers.genetics.IndexTournamentSelection;
+import org.house.sprinklers.genetics.IslandModel;
 import org.house.sprinklers.genetics.ListeningGeneticAlgorithm;
+import org.house.sprinklers.genetics.LocalMigrationChannel;
+import org.house.sprinklers.genetics.MemeticRefinement;
+import org.house.sprinklers.genetics.MultiFidelityEvaluationPolicy;
+import org.house.sprinklers.genetics.ParallelEvaluationPolicy;
 import org.house.sprinklers.genetics.PopulationListener;
+import org.house.sprinklers.genetics.PopulationStorage;
+import org.house.sprinklers.genetics.Resumable;
+import org.house.sprinklers.genetics.SmallChangeGeneGenerator;
 import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.genetics.StagnationCondition;
+import org.house.sprinklers.genetics.SteadyStateGeneticAlgorithm;
+import org.house.sprinklers.genetics.TargetFitnessCondition;
 import org.house.sprinklers.metrics.InMemoryRecorderService;
+import org.house.sprinklers.metrics.MetricsConstants;
 import org.house.sprinklers.metrics.RecorderService;
 import org.house.sprinklers.population.CommonSenseSprinklerValidator;
 import org.house.sprinklers.population.CompositeSprinklerValidator;
+import org.house.sprinklers.population.InitialPopulationBuilder;
+import org.house.sprinklers.population.SprinklerSeeds;
 import org.house.sprinklers.population.SprinklerValidator;
 import org.house.sprinklers.population.TerrainSprinklerValidator;
+import org.house.sprinklers.random.RandomStreams;
+import org.house.sprinklers.random.TaskRandomGenerator;
 import org.house.sprinklers.sprinkler_system.Sprinkler;
 import org.house.sprinklers.sprinkler_system.terrain.Terrain;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.Scope;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+@Slf4j
 @Configuration
 @ComponentScan
 @EnableConfigurationProperties
 @PropertySource("classpath:ga.properties")
 public class SprinklerConfiguration {
 
-    private static RandomGenerator randomGenerator = new JDKRandomGenerator();
-
     @Autowired
     private GeneticAlgorithmProperties geneticAlgorithmProperties;
     @Autowired
+    private FitnessProperties fitnessProperties;
+    @Autowired
     private Terrain terrain;
     @Autowired
     private ExecutorService executorService;
+    @Autowired
+    private ForkJoinPool generationPool;
+
+    /* Read once, see resumedCheckpoint(). */
+    private Optional<Checkpoint> resumedCheckpoint;
+
+    @Bean
+    RandomStreams randomStreams() {
+        // The seed of the checkpointed run wins, it is all its random streams depend on
+        return new RandomStreams(resumedCheckpoint()
+                .map(Checkpoint::getSeed)
+                .orElse(geneticAlgorithmProperties.getSeed()));
+    }
+
+    @Bean
+    CheckpointStore checkpointStore() {
+        return new CheckpointStore(Paths.get(geneticAlgorithmProperties.getCheckpoint().getFile()));
+    }
+
+    /**
+     * Only single population runs in this process are checkpointed.
+     */
+    private boolean checkpointing() {
+        final GeneticAlgorithmProperties.IslandProperties islands = geneticAlgorithmProperties.getIslands();
+        return islands.getCount() <= 1 && islands.getRemote().getCoordinatorPort() == 0;
+    }
+
+    private synchronized Optional<Checkpoint> resumedCheckpoint() {
+        if (resumedCheckpoint == null) {
+            if (!geneticAlgorithmProperties.getCheckpoint().isResume() || !checkpointing()) {
+                resumedCheckpoint = Optional.empty();
+            } else {
+                try {
+                    resumedCheckpoint = checkpointStore().read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (resumedCheckpoint.isPresent()) {
+                    log.info("Resuming after generation {} from {}",
+                            resumedCheckpoint.get().getGeneration(), checkpointStore().getFile());
+                } else {
+                    log.info("No checkpoint at {}, starting a new run", checkpointStore().getFile());
+                }
+            }
+        }
+        return resumedCheckpoint;
+    }
+
+    /**
+     * Operators get a counting view of it; the commons-math generator (used
+     * by selection) is one more view.
+     */
+    @Bean
+    TaskRandomGenerator randomGenerator() {
+        final TaskRandomGenerator randomGenerator = new TaskRandomGenerator(randomStreams(), recorderService());
+        GeneticAlgorithm.setRandomGenerator(
+                randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_SELECTION));
+        return randomGenerator;
+    }
 
     @Bean
     RecorderService recorderService() {
-        return new InMemoryRecorderService();
+        final RecorderService recorderService = new InMemoryRecorderService();
+        resumedCheckpoint().ifPresent(checkpoint -> checkpoint.restoreMetrics(recorderService));
+        return recorderService;
     }
 
     @Bean
@@ -66,9 +181,136 @@ public class SprinklerConfiguration {
         return new PolygonIntersectionCalculatorSync(executorService, recorderService());
     }
 
+    @Bean
+    SprinklerGeometry sprinklerGeometry() {
+        final SprinklerGeometry polygonGeometry = new PolygonSprinklerGeometry(polygonIntersectionCalculator());
+        if (fitnessProperties.getGeometryMode() == GeometryMode.ANALYTIC) {
+            return new AnalyticSprinklerGeometry(polygonGeometry, recorderService());
+        }
+        return polygonGeometry;
+    }
+
+    @Bean
+    MeteredCache<Sprinkler, ClippedSprinkler> clipCache() {
+        return new MeteredCache<>(
+                fitnessProperties.getClipCache().getMaximumSize(),
+                recorderService(),
+                MetricsConstants.COUNTER_CLIP_CACHE_HITS,
+                MetricsConstants.COUNTER_CLIP_CACHE_MISSES,
+                MetricsConstants.COUNTER_CLIP_CACHE_EVICTIONS);
+    }
+
+    @Bean
+    MeteredCache<SprinklerPair, SprinklerOverlap> overlapCache() {
+        // Every chromosome contributes maxLength * (maxLength - 1) / 2 pairs
+        final FitnessProperties.PairCacheProperties props = fitnessProperties.getOverlapCache();
+        final long maxLength = geneticAlgorithmProperties.getChromosome().getMaxLength();
+        final long pairsPerGeneration = geneticAlgorithmProperties.getPopulation().getMaximumSize() *
+                maxLength * (maxLength - 1) / 2;
+        return new MeteredCache<>(
+                props.getGenerations() * pairsPerGeneration,
+                props.getConcurrencyLevel(),
+                recorderService(),
+                MetricsConstants.COUNTER_OVERLAP_CACHE_HITS,
+                MetricsConstants.COUNTER_OVERLAP_CACHE_MISSES,
+                MetricsConstants.COUNTER_OVERLAP_CACHE_EVICTIONS);
+    }
+
+    @Bean
+    MeteredCache<Sprinkler, RasterFitnessInputCalculator.SectorMask> rasterMaskCache() {
+        return new MeteredCache<>(
+                fitnessProperties.getRaster().getMaskCache().getMaximumSize(),
+                recorderService(),
+                MetricsConstants.COUNTER_RASTER_MASK_CACHE_HITS,
+                MetricsConstants.COUNTER_RASTER_MASK_CACHE_MISSES,
+                MetricsConstants.COUNTER_RASTER_MASK_CACHE_EVICTIONS);
+    }
+
     @Bean
     FitnessInputCalculator fitnessInputCalculator() {
-        return new FitnessInputCalculator(polygonIntersectionCalculator(), recorderService());
+        return fitnessInputCalculator(fitnessProperties.getEngine());
+    }
+
+    /**
+     * Cheap calculator for provisional scores, only handed to chromosomes
+     * when multi-fidelity evaluation is enabled. Selection ranks screened and
+     * exact values against each other, so both engines must measure the
+     * same areas.
+     */
+    @Bean
+    FitnessInputCalculator screenFitnessInputCalculator() {
+        final FitnessEngine screenEngine = fitnessProperties.getMultiFidelity().getScreenEngine();
+        final CoverageMode coverageMode = fitnessProperties.getCoverageMode();
+        if (fitnessProperties.getMultiFidelity().isEnabled()
+                && screenEngine.coverageMode(coverageMode) != fitnessProperties.getEngine().coverageMode(coverageMode)) {
+            throw new IllegalStateException(String.format(
+                    "Screen engine %s does not measure the same areas as %s in %s mode, use fitness.coverageMode=SWEEP",
+                    screenEngine, fitnessProperties.getEngine(), coverageMode));
+        }
+        return fitnessInputCalculator(screenEngine);
+    }
+
+    @Bean
+    EvaluationPolicy evaluationPolicy() {
+        final FitnessProperties.MultiFidelityProperties props = fitnessProperties.getMultiFidelity();
+        final EvaluationPolicy policy = props.isEnabled() ?
+                new MultiFidelityEvaluationPolicy(props.getRescoreTopK(), recorderService()) :
+                EvaluationPolicy.LAZY;
+        if (generationPool.getParallelism() == 1) {
+            return policy;
+        }
+        return new ParallelEvaluationPolicy(generationPool, policy, recorderService());
+    }
+
+    @Bean
+    MemeticRefinement memeticRefinement() {
+        final GeneticAlgorithmProperties.MemeticProperties props = geneticAlgorithmProperties.getMemetic();
+        return new MemeticRefinement(
+                props.getInterval(),
+                props.getTopK(),
+                props.getEvaluationsPerGene(),
+                props.getStep(),
+                props.getAngleStep(),
+                recorderService());
+    }
+
+    private FitnessInputCalculator fitnessInputCalculator(final FitnessEngine engine) {
+        if (engine == FitnessEngine.RASTER) {
+            return new RasterFitnessInputCalculator(
+                    fitnessProperties.getRaster().getCellSize(),
+                    fitnessProperties.getRaster().getMargin(),
+                    rasterMaskCache(),
+                    recorderService());
+        }
+        if (engine == FitnessEngine.QMC) {
+            final FitnessProperties.QmcProperties qmc = fitnessProperties.getQmc();
+            return new QuasiMonteCarloFitnessInputCalculator(
+                    qmc.getMinSamples(),
+                    qmc.getMaxSamples(),
+                    qmc.getReplicas(),
+                    qmc.getConfidence(),
+                    qmc.getFitnessTolerance(),
+                    qmc.getMargin(),
+                    fitnessCalculator(),
+                    recorderService());
+        }
+        return new ClipperFitnessInputCalculator(
+                polygonIntersectionCalculator(),
+                sprinklerGeometry(),
+                clipCache(),
+                overlapCache(),
+                fitnessProperties.getCoverageMode(),
+                recorderService());
+    }
+
+    @Bean
+    MeteredCache<List<Sprinkler>, FitnessInput> fitnessInputCache() {
+        return new MeteredCache<>(
+                fitnessProperties.getInputCache().getMaximumSize(),
+                recorderService(),
+                MetricsConstants.COUNTER_FITNESS_INPUT_CACHE_HITS,
+                MetricsConstants.COUNTER_FITNESS_INPUT_CACHE_MISSES,
+                MetricsConstants.COUNTER_FITNESS_INPUT_CACHE_EVICTIONS);
     }
 
     @Bean
@@ -90,13 +332,53 @@ public class SprinklerConfiguration {
     }
 
     @Bean
-    PopulationListener populationListener() {
-        return new DefaultPopulationListener(recorderService(), gameRenderer());
+    AsyncPopulationListener populationListener() {
+        final GeneticAlgorithmProperties.ListenerProperties props = geneticAlgorithmProperties.getListener();
+        final PopulationListener defaultListener = new DefaultPopulationListener(recorderService(), gameRenderer());
+        PopulationListener delegate = defaultListener;
+        if (writingCheckpoints()) {
+            // After the default listener, so checkpoints include the metrics of their generation
+            final CheckpointWriter checkpointWriter = checkpointWriter();
+            delegate = (population, generation, durationInMillis) -> {
+                defaultListener.onPopulation(population, generation, durationInMillis);
+                checkpointWriter.onPopulation(population, generation, durationInMillis);
+            };
+        }
+        return new AsyncPopulationListener(
+                delegate,
+                props.getCapacity(),
+                props.getOverflow(),
+                recorderService());
+    }
+
+    private boolean writingCheckpoints() {
+        return geneticAlgorithmProperties.getCheckpoint().getIntervalSeconds() > 0 && checkpointing();
+    }
+
+    @Bean
+    CheckpointWriter checkpointWriter() {
+        return new CheckpointWriter(
+                checkpointStore(),
+                randomStreams().getSeed(),
+                TimeUnit.SECONDS.toMillis(geneticAlgorithmProperties.getCheckpoint().getIntervalSeconds()),
+                Arrays.asList(
+                        MetricsConstants.METRIC_GA_GENERATION_FITNESS,
+                        MetricsConstants.METRIC_GA_GENERATION_DIVERSITY,
+                        MetricsConstants.METRIC_GA_GENERATION_COVERED_AREA),
+                Arrays.asList(
+                        MetricsConstants.COUNTER_GA_INDIVIDUALS,
+                        MetricsConstants.COUNTER_CHECKPOINT_WRITES,
+                        MetricsConstants.COUNTER_CHECKPOINT_ERRORS),
+                recorderService());
     }
 
     @Bean
     Function<Sprinkler, Sprinkler> geneGenerator() {
-        return new SmallChangeGeneGenerator(sprinklerValidator(), geneticAlgorithmProperties.getMutation(), recorderService());
+        return new SmallChangeGeneGenerator(
+                sprinklerValidator(),
+                geneticAlgorithmProperties.getMutation(),
+                recorderService(),
+                randomGenerator().forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_GENE_GENERATOR));
     }
 
     @Bean
@@ -105,7 +387,8 @@ public class SprinklerConfiguration {
                 geneGenerator(),
                 geneticAlgorithmProperties.getMutation(),
                 geneticAlgorithmProperties.getChromosome(),
-                recorderService());
+                recorderService(),
+                randomGenerator().forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_MUTATION));
     }
 
     @Bean
@@ -113,51 +396,242 @@ public class SprinklerConfiguration {
         return new OnePointVariableLengthCrossover<>(
                 geneticAlgorithmProperties.getCrossover(),
                 geneticAlgorithmProperties.getChromosome(),
-                recorderService());
+                recorderService(),
+                randomGenerator().forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_CROSSOVER));
     }
 
-    @SuppressWarnings("unchecked")
     @Bean
     GeneticAlgorithm geneticAlgorithm() {
+        PopulationListener populationListener = populationListener();
+        if (writingCheckpoints()) {
+            // Population and counters are captured before the generation is handed to the listener thread
+            final PopulationListener capture = checkpointWriter().capture();
+            final PopulationListener asyncListener = populationListener;
+            populationListener = (population, generation, durationInMillis) -> {
+                capture.onPopulation(population, generation, durationInMillis);
+                asyncListener.onPopulation(population, generation, durationInMillis);
+            };
+        }
+        final GeneticAlgorithm geneticAlgorithm = geneticAlgorithm(randomStreams(), populationListener);
+        resumedCheckpoint().ifPresent(checkpoint -> ((Resumable) geneticAlgorithm).resumeAt(checkpoint.getGeneration() + 1));
+        return geneticAlgorithm;
+    }
+
+    /**
+     * Island 0 is {@link #geneticAlgorithm()}, the others draw from streams
+     * derived from the run seed and are not reported to the population
+     * listener (metrics and rendering follow island 0).
+     *
+     * <p/>With a coordinator port, this process only runs the island given
+     * by <code>geneticAlgorithm.islands.remote.island</code>.
+     */
+    @Bean
+    @Lazy
+    IslandModel islandModel() {
+        final GeneticAlgorithmProperties.IslandProperties props = geneticAlgorithmProperties.getIslands();
+        final GeneticAlgorithmProperties.RemoteProperties remote = props.getRemote();
+        if (remote.getCoordinatorPort() > 0) {
+            final int island = remote.getIsland();
+            return new IslandModel(
+                    Collections.singletonList(island == 0 ? geneticAlgorithm() :
+                            geneticAlgorithm(islandStreams(island), populationListener())),
+                    local -> islandPopulation(island),
+                    this::stoppingCondition,
+                    socketMigrationChannel(),
+                    props.getMigrationInterval(),
+                    props.getMigrants(),
+                    recorderService());
+        }
+
+        final List<GeneticAlgorithm> algorithms = new ArrayList<>(props.getCount());
+        algorithms.add(geneticAlgorithm());
+        for (int i = 1; i < props.getCount(); i++) {
+            algorithms.add(geneticAlgorithm(islandStreams(i), (p, g, d) -> {}));
+        }
+        return new IslandModel(
+                algorithms,
+                this::islandPopulation,
+                this::stoppingCondition,
+                new LocalMigrationChannel(props.getCount(), props.getTopology()),
+                props.getMigrationInterval(),
+                props.getMigrants(),
+                recorderService());
+    }
+
+    /**
+     * Connection of this worker process to the coordinator, closed with the
+     * context.
+     */
+    @Bean
+    @Lazy
+    SocketMigrationChannel socketMigrationChannel() {
+        final GeneticAlgorithmProperties.RemoteProperties remote = geneticAlgorithmProperties.getIslands().getRemote();
+        return new SocketMigrationChannel(
+                remote.getCoordinatorHost(),
+                remote.getCoordinatorPort(),
+                remote.getIsland(),
+                chromosomeFactory(),
+                recorderService());
+    }
+
+    private RandomStreams islandStreams(final int island) {
+        return island == 0 ? randomStreams() : randomStreams().derive(island);
+    }
+
+    /**
+     * Drawn from the island streams, so it does not depend on the thread
+     * (or process) creating it.
+     */
+    private HeapPopulation islandPopulation(final int island) {
+        return initialPopulation(islandStreams(island));
+    }
+
+    @Bean
+    IndexTournamentSelection selectionPolicy() {
+        return new IndexTournamentSelection(
+                geneticAlgorithmProperties.getTournamentArity(),
+                geneticAlgorithmProperties.getTournamentProbability());
+    }
+
+    @SuppressWarnings("unchecked")
+    private GeneticAlgorithm geneticAlgorithm(final RandomStreams randomStreams,
+                                              final PopulationListener populationListener) {
+        if (geneticAlgorithmProperties.getMode() == EvolutionMode.STEADY_STATE) {
+            return new SteadyStateGeneticAlgorithm(
+                    crossover(),
+                    geneticAlgorithmProperties.getCrossoverRate(),
+                    mutation(),
+                    geneticAlgorithmProperties.getMutationRate(),
+                    selectionPolicy(),
+                    recorderService(),
+                    populationListener,
+                    evaluationPolicy(),
+                    memeticRefinement(),
+                    randomGenerator(),
+                    randomStreams,
+                    generationPool);
+        }
         return new ListeningGeneticAlgorithm(
                 crossover(),
                 geneticAlgorithmProperties.getCrossoverRate(),
                 mutation(),
                 geneticAlgorithmProperties.getMutationRate(),
-                new TournamentSelection(geneticAlgorithmProperties.getTournamentArity()),
+                selectionPolicy(),
                 recorderService(),
-                populationListener());
+                populationListener,
+                evaluationPolicy(),
+                memeticRefinement(),
+                randomGenerator(),
+                randomStreams,
+                generationPool);
+    }
+
+    /**
+     * Stateful, a new one for every run or island.
+     */
+    @Bean
+    @Scope(BeanDefinition.SCOPE_PROTOTYPE)
+    StoppingCondition stoppingCondition() {
+        final GeneticAlgorithmProperties.StoppingProperties props = geneticAlgorithmProperties.getStopping();
+        final List<StoppingCondition> conditions = new ArrayList<>();
+        // A resumed run only breeds the generations left
+        final int bred = resumedCheckpoint().map(checkpoint -> checkpoint.getGeneration() + 1).orElse(0);
+        conditions.add(new FixedGenerationCount(Math.max(1, geneticAlgorithmProperties.getGenerations() - bred)));
+        if (props.getStagnantGenerations() > 0) {
+            conditions.add(new StagnationCondition(props.getStagnantGenerations()));
+        }
+        if (props.getMinimumDiversity() > 0) {
+            conditions.add(new DiversityCondition(props.getMinimumDiversity()));
+        }
+        if (props.getTargetFitness() > 0) {
+            conditions.add(new TargetFitnessCondition(props.getTargetFitness()));
+        }
+        if (props.getMaxSeconds() > 0) {
+            conditions.add(new FixedElapsedTime(props.getMaxSeconds(), TimeUnit.SECONDS));
+        }
+        if (props.getMaxEvaluations() > 0) {
+            conditions.add(new EvaluationBudgetCondition(recorderService(),
+                    MetricsConstants.COUNTER_FITNESS_EVALUATIONS, props.getMaxEvaluations()));
+        }
+        return new AnyStoppingCondition(conditions);
     }
 
     @Bean
     Population initialPopulation() {
-        final Chromosome[] chromosomes = new Chromosome[geneticAlgorithmProperties.getPopulation().getInitialSize()];
-        Arrays.setAll(chromosomes, i -> randomChromosome(sprinklerValidator(), geneGenerator(), fitnessCalculator(), fitnessInputCalculator(), terrain));
-        return new ElitisticListPopulation(
-                Arrays.asList(chromosomes),
+        final Optional<Checkpoint> checkpoint = resumedCheckpoint();
+        if (checkpoint.isPresent()) {
+            return population(
+                    checkpoint.get().restoreChromosomes(chromosomeFactory()),
+                    checkpoint.get().getPopulationLimit(),
+                    checkpoint.get().getElitismRate());
+        }
+        final GeneticAlgorithmProperties.PopulationProperties properties = geneticAlgorithmProperties.getPopulation();
+        return population(
+                initialPopulationBuilder().build(randomStreams(), properties.getInitialSize()),
+                properties.getMaximumSize(),
+                geneticAlgorithmProperties.getElitismRate());
+    }
+
+    /**
+     * Off-heap storage only applies to generational runs of a single population.
+     */
+    private Population population(final List<Chromosome> chromosomes, final int populationLimit, final double elitismRate) {
+        final PopulationStorage storage = geneticAlgorithmProperties.getPopulation().getStorage();
+        if (storage == PopulationStorage.OBJECTS || geneticAlgorithmProperties.getMode() != EvolutionMode.GENERATIONAL) {
+            return new HeapPopulation(chromosomes, populationLimit, elitismRate);
+        }
+        final GeneticAlgorithmProperties.ChromosomeProperties chromosome = geneticAlgorithmProperties.getChromosome();
+        return new ArenaPopulation(chromosomes, populationLimit, elitismRate, storage,
+                (chromosome.getMinLength() + chromosome.getMaxLength() + 1) / 2);
+    }
+
+    @Bean
+    SprinklerSeeds sprinklerSeeds() {
+        return new SprinklerSeeds(terrain, sprinklerValidator());
+    }
+
+    @Bean
+    InitialPopulationBuilder initialPopulationBuilder() {
+        return new InitialPopulationBuilder(
+                chromosomeFactory(),
+                geneGenerator(),
+                sprinklerSeeds(),
+                geneticAlgorithmProperties.getChromosome(),
+                geneticAlgorithmProperties.getPopulation().getSeededFraction(),
+                randomGenerator(),
+                randomGenerator().forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_INITIAL_POPULATION),
+                generationPool);
+    }
+
+    private HeapPopulation initialPopulation(final RandomStreams randomStreams) {
+        return new HeapPopulation(
+                initialPopulationBuilder().build(randomStreams, geneticAlgorithmProperties.getPopulation().getInitialSize()),
                 geneticAlgorithmProperties.getPopulation().getMaximumSize(),
                 geneticAlgorithmProperties.getElitismRate());
     }
 
-    private SprinklersChromosome randomChromosome(final SprinklerValidator validator,
-                                                         final Function<Sprinkler, Sprinkler> geneGenerator,
-                                                         final FitnessCalculator fitnessCalculator,
-                                                         final FitnessInputCalculator fitnessInputCalculator,
-                                                         final Terrain terrain) {
-        return new SprinklersChromosome(
-                randomSprinklers(geneGenerator),
-                validator,
+    /**
+     * Collaborators are resolved once, on the calling thread: the initial
+     * population is built on pool threads while the context is still being
+     * created, and bean methods called from there would wait for it forever.
+     */
+    private Function<List<Sprinkler>, Chromosome> chromosomeFactory() {
+        final SprinklerValidator sprinklerValidator = sprinklerValidator();
+        final FitnessCalculator fitnessCalculator = fitnessCalculator();
+        final FitnessInputCalculator fitnessInputCalculator = fitnessInputCalculator();
+        final FitnessInputCalculator screenInputCalculator =
+                fitnessProperties.getMultiFidelity().isEnabled() ? screenFitnessInputCalculator() : null;
+        final MeteredCache<List<Sprinkler>, FitnessInput> fitnessInputCache = fitnessInputCache();
+        final RecorderService recorderService = recorderService();
+        return sprinklers -> new SprinklersChromosome(
+                sprinklers,
+                sprinklerValidator,
                 fitnessCalculator,
                 fitnessInputCalculator,
+                screenInputCalculator,
+                fitnessInputCache,
                 terrain,
-                geneticAlgorithmProperties.getChromosome());
-    }
-
-    private List<Sprinkler> randomSprinklers(Function<Sprinkler, Sprinkler> geneGenerator) {
-        // Random count of sprinklers
-        final GeneticAlgorithmProperties.ChromosomeProperties props = geneticAlgorithmProperties.getChromosome();
-        final Sprinkler[] sprinklers = new Sprinkler[props.getMinLength() + randomGenerator.nextInt(props.getMaxLength() - props.getMinLength())];
-        Arrays.setAll(sprinklers, i -> geneGenerator.apply(null));
-        return Arrays.asList(sprinklers);
+                geneticAlgorithmProperties.getChromosome(),
+                recorderService);
     }
 }
@@ -0,0 +1,60 @@
+package org.house.sprinklers.checkpoint;
+
+import lombok.Value;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.house.sprinklers.genetics.MultiFidelityChromosome;
+import org.house.sprinklers.metrics.PopulationAndValue;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * State of a run after a generation. Random generators need no state of
+ * their own: every draw comes from a stream derived from the run seed and
+ * the generation (see {@link org.house.sprinklers.random.RandomStreams}).
+ */
+@Value
+public class Checkpoint {
+    long seed;
+    /* Last generation bred. */
+    int generation;
+    int populationLimit;
+    double elitismRate;
+    /* Representation of every chromosome; fitness is computed again on resume. */
+    List<List<Sprinkler>> chromosomes;
+    /* Chromosomes whose fitness was provisional, the others are scored exactly on resume. */
+    BitSet provisional;
+    Map<String, Long> counters;
+    Map<String, List<PopulationAndValue>> histograms;
+
+    /**
+     * Builds the chromosomes of this checkpoint with given factory. Those
+     * scored exactly before the checkpoint are scored exactly again, a
+     * screen estimate would change the run.
+     */
+    public List<Chromosome> restoreChromosomes(final Function<List<Sprinkler>, Chromosome> factory) {
+        final List<Chromosome> restored = new ArrayList<>(chromosomes.size());
+        for (List<Sprinkler> sprinklers : chromosomes) {
+            final Chromosome chromosome = factory.apply(sprinklers);
+            if (!provisional.get(restored.size()) && chromosome instanceof MultiFidelityChromosome) {
+                chromosome.getFitness();
+                ((MultiFidelityChromosome) chromosome).rescore();
+            }
+            restored.add(chromosome);
+        }
+        return restored;
+    }
+
+    /**
+     * Adds the counters and histograms of this checkpoint to given recorder.
+     */
+    public void restoreMetrics(final RecorderService recorderService) {
+        counters.forEach(recorderService::increment);
+        histograms.forEach((name, values) -> values.forEach(value -> recorderService.submit(name, value)));
+    }
+}
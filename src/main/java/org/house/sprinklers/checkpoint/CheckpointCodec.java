@@ -0,0 +1,151 @@
+package org.house.sprinklers.checkpoint;
+
+import org.house.sprinklers.metrics.PopulationAndValue;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.awt.geom.Point2D;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of a {@link Checkpoint}:
+ * <pre>
+ *     int    magic, int version
+ *     long   seed
+ *     int    generation, int population limit
+ *     double elitism rate
+ *     int    chromosome count
+ *     per chromosome:
+ *         boolean provisional (since version 2)
+ *         int gene count
+ *         per gene: double x, y, range, startAngle, endAngle
+ *     int    counter count
+ *     per counter: UTF name, long value
+ *     int    histogram count
+ *     per histogram:
+ *         UTF name, int value count
+ *         per value: int population index, double value
+ * </pre>
+ * Version 1 checkpoints, without provisional flags, resume every chromosome
+ * as a new one.
+ */
+public final class CheckpointCodec {
+
+    private static final int MAGIC = 0x53474350;
+
+    private static final int VERSION = 2;
+
+    /* Last version without provisional flags. */
+    private static final int VERSION_WITHOUT_FLAGS = 1;
+
+    private static final int DOUBLES_PER_GENE = 5;
+
+    /* Rejects corrupted files before allocating for them. */
+    private static final int MAX_COUNT = 1 << 24;
+
+    private CheckpointCodec() {
+    }
+
+    public static void write(final DataOutput out, final Checkpoint checkpoint) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(checkpoint.getSeed());
+        out.writeInt(checkpoint.getGeneration());
+        out.writeInt(checkpoint.getPopulationLimit());
+        out.writeDouble(checkpoint.getElitismRate());
+
+        out.writeInt(checkpoint.getChromosomes().size());
+        for (int i = 0; i < checkpoint.getChromosomes().size(); i++) {
+            final List<Sprinkler> chromosome = checkpoint.getChromosomes().get(i);
+            out.writeBoolean(checkpoint.getProvisional().get(i));
+            out.writeInt(chromosome.size());
+            for (Sprinkler gene : chromosome) {
+                out.writeDouble(gene.getPosition().getX());
+                out.writeDouble(gene.getPosition().getY());
+                out.writeDouble(gene.getRange());
+                out.writeDouble(gene.getStartAngle());
+                out.writeDouble(gene.getEndAngle());
+            }
+        }
+
+        out.writeInt(checkpoint.getCounters().size());
+        for (Map.Entry<String, Long> counter : checkpoint.getCounters().entrySet()) {
+            out.writeUTF(counter.getKey());
+            out.writeLong(counter.getValue());
+        }
+
+        out.writeInt(checkpoint.getHistograms().size());
+        for (Map.Entry<String, List<PopulationAndValue>> histogram : checkpoint.getHistograms().entrySet()) {
+            out.writeUTF(histogram.getKey());
+            out.writeInt(histogram.getValue().size());
+            for (PopulationAndValue value : histogram.getValue()) {
+                out.writeInt(value.getPopulationIndex());
+                out.writeDouble(value.getValue());
+            }
+        }
+    }
+
+    public static Checkpoint read(final DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a checkpoint");
+        }
+        final int version = in.readInt();
+        if (version != VERSION && version != VERSION_WITHOUT_FLAGS) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+        final long seed = in.readLong();
+        final int generation = in.readInt();
+        final int populationLimit = in.readInt();
+        final double elitismRate = in.readDouble();
+
+        final int count = checkCount(in.readInt());
+        final List<List<Sprinkler>> chromosomes = new ArrayList<>(count);
+        final BitSet provisional = new BitSet(count);
+        final double[] gene = new double[DOUBLES_PER_GENE];
+        for (int i = 0; i < count; i++) {
+            provisional.set(i, version == VERSION_WITHOUT_FLAGS || in.readBoolean());
+            final int genes = checkCount(in.readInt());
+            final List<Sprinkler> sprinklers = new ArrayList<>(genes);
+            for (int j = 0; j < genes; j++) {
+                for (int k = 0; k < DOUBLES_PER_GENE; k++) {
+                    gene[k] = in.readDouble();
+                }
+                sprinklers.add(new Sprinkler(new Point2D.Double(gene[0], gene[1]), gene[2], gene[3], gene[4]));
+            }
+            chromosomes.add(sprinklers);
+        }
+
+        final int counterCount = checkCount(in.readInt());
+        final Map<String, Long> counters = new LinkedHashMap<>();
+        for (int i = 0; i < counterCount; i++) {
+            counters.put(in.readUTF(), in.readLong());
+        }
+
+        final int histogramCount = checkCount(in.readInt());
+        final Map<String, List<PopulationAndValue>> histograms = new LinkedHashMap<>();
+        for (int i = 0; i < histogramCount; i++) {
+            final String name = in.readUTF();
+            final int values = checkCount(in.readInt());
+            final List<PopulationAndValue> histogram = new ArrayList<>(values);
+            for (int j = 0; j < values; j++) {
+                histogram.add(new PopulationAndValue(in.readInt(), in.readDouble()));
+            }
+            histograms.put(name, histogram);
+        }
+
+        return new Checkpoint(seed, generation, populationLimit, elitismRate, chromosomes, provisional, counters, histograms);
+    }
+
+    private static int checkCount(final int count) throws IOException {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package org.house.sprinklers.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Latest checkpoint of a run, in a single file.
+ *
+ * <p/>A checkpoint is written to a temporary file, synced to disk, then
+ * renamed over the previous one, so a crash at any point leaves either the
+ * previous or the new checkpoint. A CRC32 trailer catches corrupted files.
+ */
+public class CheckpointStore {
+
+    private final Path file;
+
+    public CheckpointStore(final Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Size of the checkpoint written, in bytes.
+     */
+    public long write(final Checkpoint checkpoint) throws IOException {
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (final FileOutputStream stream = new FileOutputStream(temporary.toFile())) {
+            final CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(stream), new CRC32());
+            final DataOutputStream out = new DataOutputStream(checked);
+            CheckpointCodec.write(out, checkpoint);
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(file);
+    }
+
+    /**
+     * @return The latest checkpoint, if any was written.
+     */
+    public Optional<Checkpoint> read() throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (final FileInputStream stream = new FileInputStream(file.toFile())) {
+            final CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(stream), new CRC32());
+            final DataInputStream in = new DataInputStream(checked);
+            final Checkpoint checkpoint = CheckpointCodec.read(in);
+            final long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new IOException("Corrupted checkpoint " + file);
+            }
+            return Optional.of(checkpoint);
+        }
+    }
+}
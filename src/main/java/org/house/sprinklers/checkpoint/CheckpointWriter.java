@@ -0,0 +1,184 @@
+package org.house.sprinklers.checkpoint;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.ElitisticListPopulation;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.genetics.ArenaPopulation;
+import org.house.sprinklers.genetics.PopulationListener;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.metrics.Metric;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.PopulationAndValue;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Writes a checkpoint of the population at most every
+ * <code>intervalMillis</code>, along with all counters and the given
+ * histograms.
+ *
+ * <p/>A checkpoint is taken in two steps, so writing never holds up
+ * evolution and the population matches its counters:
+ * <ul>
+ *     <li>{@link #capture()} runs on the evolving thread as each generation
+ *     is published. When a checkpoint is due, it records the chromosomes,
+ *     their provisional flags and the counters.</li>
+ *     <li>This writer runs behind an {@link org.house.sprinklers.genetics.AsyncPopulationListener},
+ *     after the listeners recording metrics. It adds the histograms (complete
+ *     up to the captured generation) and the counters those listeners keep,
+ *     then writes the file. Captured generations the asynchronous listener
+ *     drops are not written.</li>
+ * </ul>
+ * Write times go to {@link MetricsConstants#METRIC_CHECKPOINT_WRITE}.
+ */
+@Slf4j
+public class CheckpointWriter implements PopulationListener {
+
+    private final CheckpointStore store;
+
+    private final long seed;
+
+    private final long intervalMillis;
+
+    private final List<String> histograms;
+
+    /* Counters kept by listeners, read when the checkpoint is written. */
+    private final List<String> listenerCounters;
+
+    private final RecorderService recorderService;
+
+    /* Checkpoints captured on the evolving thread, waiting for their histograms. */
+    private final ConcurrentNavigableMap<Integer, Checkpoint> captured = new ConcurrentSkipListMap<>();
+
+    private long lastCapture = System.currentTimeMillis();
+
+    public CheckpointWriter(final CheckpointStore store,
+                            final long seed,
+                            final long intervalMillis,
+                            final List<String> histograms,
+                            final List<String> listenerCounters,
+                            final RecorderService recorderService) {
+        this.store = store;
+        this.seed = seed;
+        this.intervalMillis = intervalMillis;
+        this.histograms = histograms;
+        this.listenerCounters = listenerCounters;
+        this.recorderService = recorderService;
+    }
+
+    /**
+     * @return Listener to call on the evolving thread, before the generation
+     * is handed to the asynchronous listener.
+     */
+    public PopulationListener capture() {
+        return (population, generation, durationInMillis) -> {
+            final long now = System.currentTimeMillis();
+            if (now - lastCapture >= intervalMillis) {
+                lastCapture = now;
+                captured.put(generation, capture(population, generation));
+            }
+        };
+    }
+
+    @Override
+    public void onPopulation(final Population current, final int generation, final long durationInMillis) {
+        final Checkpoint checkpoint = captured.remove(generation);
+        // Captured generations the asynchronous listener dropped
+        captured.headMap(generation).clear();
+        if (checkpoint == null) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final long bytes = store.write(complete(checkpoint));
+            final double millis = (System.nanoTime() - start) / 1e6;
+            recorderService.submit(MetricsConstants.METRIC_CHECKPOINT_WRITE, new PopulationAndValue(generation, millis));
+            recorderService.increment(MetricsConstants.COUNTER_CHECKPOINT_WRITES);
+            log.info("Checkpoint of generation {} written in {} ms ({} bytes)", generation, millis, bytes);
+        } catch (IOException e) {
+            recorderService.increment(MetricsConstants.COUNTER_CHECKPOINT_ERRORS);
+            log.warn("Unable to write checkpoint of generation {} to {}", generation, store.getFile(), e);
+        }
+    }
+
+    private Checkpoint capture(final Population population, final int generation) {
+        final List<List<Sprinkler>> chromosomes = new ArrayList<>(population.getPopulationSize());
+        final BitSet provisional = new BitSet(population.getPopulationSize());
+        for (Chromosome chromosome : population) {
+            provisional.set(chromosomes.size(), ((SprinklersChromosome) chromosome).isProvisional());
+            chromosomes.add(((SprinklersChromosome) chromosome).getRepresentation());
+        }
+
+        final Map<String, Long> counters = new LinkedHashMap<>();
+        for (Metric<Long> metric : recorderService.<Long>filterMetrics("")) {
+            counters.put(metric.getName(), metric.getValue());
+        }
+
+        return new Checkpoint(
+                seed,
+                generation,
+                population.getPopulationLimit(),
+                elitismRate(population),
+                chromosomes,
+                provisional,
+                counters,
+                Collections.emptyMap());
+    }
+
+    /**
+     * Adds the histograms and listener counters, which listeners have
+     * updated up to the captured generation by now.
+     */
+    private Checkpoint complete(final Checkpoint checkpoint) {
+        final Map<String, Long> counters = new LinkedHashMap<>(checkpoint.getCounters());
+        for (String counter : listenerCounters) {
+            counters.remove(counter);
+            final long value = recorderService.getMetricValue(counter, 0L);
+            if (value != 0) {
+                counters.put(counter, value);
+            }
+        }
+
+        final Map<String, List<PopulationAndValue>> values = new LinkedHashMap<>();
+        for (String histogram : histograms) {
+            final List<PopulationAndValue> histogramValues = recorderService.getMetricValues(histogram);
+            if (histogramValues != null) {
+                synchronized (histogramValues) {
+                    values.put(histogram, new ArrayList<>(histogramValues));
+                }
+            }
+        }
+
+        return new Checkpoint(
+                checkpoint.getSeed(),
+                checkpoint.getGeneration(),
+                checkpoint.getPopulationLimit(),
+                checkpoint.getElitismRate(),
+                checkpoint.getChromosomes(),
+                checkpoint.getProvisional(),
+                counters,
+                values);
+    }
+
+    private static double elitismRate(final Population population) {
+        if (population instanceof ElitisticListPopulation) {
+            return ((ElitisticListPopulation) population).getElitismRate();
+        }
+        if (population instanceof ArenaPopulation) {
+            return ((ArenaPopulation) population).getElitismRate();
+        }
+        return 0;
+    }
+}
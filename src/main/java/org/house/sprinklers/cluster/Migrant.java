@@ -0,0 +1,16 @@
+package org.house.sprinklers.cluster;
+
+import lombok.Value;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.util.List;
+
+/**
+ * Chromosome as it travels between processes: its genes and the fitness
+ * its island computed for it.
+ */
+@Value
+public class Migrant {
+    double fitness;
+    List<Sprinkler> genes;
+}
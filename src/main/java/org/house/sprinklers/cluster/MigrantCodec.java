@@ -0,0 +1,101 @@
+package org.house.sprinklers.cluster;
+
+import lombok.Value;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.awt.geom.Point2D;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary frames exchanged between island workers and the
+ * {@link MigrationCoordinator}. Every frame is
+ * <pre>
+ *     byte  type (HELLO, MIGRANTS or DONE)
+ *     int   island
+ *     int   migrant count (0 for HELLO)
+ *     per migrant:
+ *         double fitness
+ *         int    gene count
+ *         per gene: double x, y, range, startAngle, endAngle
+ * </pre>
+ */
+public final class MigrantCodec {
+
+    /* Worker introduces itself, sent once right after connecting. */
+    public static final byte HELLO = 1;
+    /* Best chromosomes of an island, relayed to its targets. */
+    public static final byte MIGRANTS = 2;
+    /* Fittest chromosome of an island that is done evolving. */
+    public static final byte DONE = 3;
+
+    private static final int DOUBLES_PER_GENE = 5;
+
+    /* Rejects corrupted frames before allocating for them. */
+    private static final int MAX_COUNT = 1 << 16;
+
+    private MigrantCodec() {
+    }
+
+    /**
+     * Decoded frame.
+     */
+    @Value
+    public static class Frame {
+        byte type;
+        int island;
+        List<Migrant> migrants;
+    }
+
+    public static void write(final DataOutput out, final byte type, final int island, final List<Migrant> migrants)
+            throws IOException {
+        out.writeByte(type);
+        out.writeInt(island);
+        out.writeInt(migrants.size());
+        for (Migrant migrant : migrants) {
+            out.writeDouble(migrant.getFitness());
+            out.writeInt(migrant.getGenes().size());
+            for (Sprinkler gene : migrant.getGenes()) {
+                out.writeDouble(gene.getPosition().getX());
+                out.writeDouble(gene.getPosition().getY());
+                out.writeDouble(gene.getRange());
+                out.writeDouble(gene.getStartAngle());
+                out.writeDouble(gene.getEndAngle());
+            }
+        }
+    }
+
+    public static Frame read(final DataInput in) throws IOException {
+        final byte type = in.readByte();
+        if (type != HELLO && type != MIGRANTS && type != DONE) {
+            throw new IOException("Unknown frame type " + type);
+        }
+        final int island = in.readInt();
+        final int count = checkCount(in.readInt());
+        final List<Migrant> migrants = new ArrayList<>(count);
+        final double[] gene = new double[DOUBLES_PER_GENE];
+        for (int i = 0; i < count; i++) {
+            final double fitness = in.readDouble();
+            final int genes = checkCount(in.readInt());
+            final List<Sprinkler> sprinklers = new ArrayList<>(genes);
+            for (int j = 0; j < genes; j++) {
+                for (int k = 0; k < DOUBLES_PER_GENE; k++) {
+                    gene[k] = in.readDouble();
+                }
+                sprinklers.add(new Sprinkler(new Point2D.Double(gene[0], gene[1]), gene[2], gene[3], gene[4]));
+            }
+            migrants.add(new Migrant(fitness, sprinklers));
+        }
+        return new Frame(type, island, migrants);
+    }
+
+    private static int checkCount(final int count) throws IOException {
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+}
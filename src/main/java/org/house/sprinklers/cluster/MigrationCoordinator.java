@@ -0,0 +1,142 @@
+package org.house.sprinklers.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.house.sprinklers.genetics.MigrationTopology;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hub of a multi-process island model: waits for one worker per island,
+ * relays the migrants of each island to its {@link MigrationTopology}
+ * targets, until every island is done, and keeps the fittest of the
+ * chromosomes the islands report when done.
+ *
+ * <p/>Migrants are relayed as they are: their fitness may be a screen
+ * estimate, so they never count as the best chromosome.
+ */
+@Slf4j
+public class MigrationCoordinator {
+
+    private final int port;
+
+    private final int islands;
+
+    private final MigrationTopology topology;
+
+    private final AtomicReference<Migrant> best = new AtomicReference<>();
+
+    public MigrationCoordinator(final int port, final int islands, final MigrationTopology topology) {
+        this.port = port;
+        this.islands = islands;
+        this.topology = topology;
+    }
+
+    /**
+     * @return Fittest chromosome reported by an island when done, or null if none was.
+     */
+    public Migrant run() throws IOException {
+        final Worker[] workers = new Worker[islands];
+        try (ServerSocket server = new ServerSocket(port)) {
+            log.info("Waiting for {} islands on port {}", islands, server.getLocalPort());
+            for (int connected = 0; connected < islands; connected++) {
+                final Worker worker = new Worker(server.accept());
+                final MigrantCodec.Frame hello = MigrantCodec.read(worker.in);
+                if (hello.getType() != MigrantCodec.HELLO || hello.getIsland() < 0 || hello.getIsland() >= islands
+                        || workers[hello.getIsland()] != null) {
+                    worker.socket.close();
+                    throw new IOException("Unexpected greeting from " + worker.socket.getRemoteSocketAddress());
+                }
+                workers[hello.getIsland()] = worker;
+                log.info("Island {} connected from {}", hello.getIsland(), worker.socket.getRemoteSocketAddress());
+            }
+        }
+
+        final ExecutorService readers = Executors.newFixedThreadPool(islands);
+        try {
+            final List<Future<?>> done = new ArrayList<>(islands);
+            for (int island = 0; island < islands; island++) {
+                final int source = island;
+                done.add(readers.submit(() -> relay(source, workers)));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while relaying migrants", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to relay migrants", e.getCause());
+        } finally {
+            readers.shutdownNow();
+            for (Worker worker : workers) {
+                worker.socket.close();
+            }
+        }
+        return best.get();
+    }
+
+    private Void relay(final int island, final Worker[] workers) throws IOException {
+        while (true) {
+            final MigrantCodec.Frame frame;
+            try {
+                frame = MigrantCodec.read(workers[island].in);
+            } catch (EOFException e) {
+                log.warn("Island {} disconnected before it was done", island);
+                return null;
+            }
+            if (frame.getType() == MigrantCodec.DONE) {
+                frame.getMigrants().forEach(m -> offer(island, m));
+                log.info("Island {} done", island);
+                return null;
+            }
+            for (int target : topology.targets(island, islands)) {
+                workers[target].send(frame);
+            }
+        }
+    }
+
+    private void offer(final int island, final Migrant migrant) {
+        final Migrant previous = best.getAndAccumulate(migrant,
+                (current, candidate) -> current == null || candidate.getFitness() > current.getFitness() ? candidate : current);
+        if (previous == null || migrant.getFitness() > previous.getFitness()) {
+            log.info("Island {} improved best fitness to {}", island, migrant.getFitness());
+        }
+    }
+
+    private static final class Worker {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        Worker(final Socket socket) throws IOException {
+            this.socket = socket;
+            this.socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void send(final MigrantCodec.Frame frame) {
+            try {
+                MigrantCodec.write(out, frame.getType(), frame.getIsland(), frame.getMigrants());
+                out.flush();
+            } catch (IOException e) {
+                // Target already done: its migrants are simply dropped
+                log.debug("Dropping migrants for {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        }
+    }
+}
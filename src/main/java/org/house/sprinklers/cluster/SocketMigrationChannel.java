@@ -0,0 +1,228 @@
+package org.house.sprinklers.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.InvalidRepresentationException;
+import org.house.sprinklers.genetics.MigrationChannel;
+import org.house.sprinklers.genetics.MultiFidelityChromosome;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Migration channel of an island running in its own process: migrants are
+ * sent to the {@link MigrationCoordinator}, which relays them to the target
+ * islands. Received migrants are re-created locally with given factory and
+ * re-scored by this island.
+ *
+ * <p/>Frames are written by a dedicated thread, so emigrating never waits
+ * for the network. When the coordinator falls behind and the outbox is full,
+ * the oldest pending migrants are dropped for the new ones.
+ *
+ * <p/>The island index passed to the channel methods is ignored, a worker
+ * process runs a single island.
+ */
+@Slf4j
+public class SocketMigrationChannel implements MigrationChannel, Closeable {
+
+    private static final int CONNECT_ATTEMPTS = 100;
+
+    private static final long CONNECT_BACKOFF_MILLIS = 100;
+
+    /* Pending frames; islands migrate every few generations, so this only fills up when the coordinator stalls. */
+    private static final int OUTBOX_CAPACITY = 16;
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /* Stops the writer once the frames queued before it are sent. */
+    private static final MigrantCodec.Frame CLOSE = new MigrantCodec.Frame((byte) 0, -1, Collections.emptyList());
+
+    private final int island;
+
+    private final Function<List<Sprinkler>, Chromosome> factory;
+
+    private final RecorderService recorderService;
+
+    private final Socket socket;
+
+    private final DataOutputStream out;
+
+    private final Queue<Migrant> inbox = new ConcurrentLinkedQueue<>();
+
+    private final BlockingQueue<MigrantCodec.Frame> outbox = new ArrayBlockingQueue<>(OUTBOX_CAPACITY);
+
+    private final Thread writer;
+
+    /**
+     * Connects to the coordinator, retrying while it is not listening yet.
+     */
+    public SocketMigrationChannel(final String host,
+                                  final int port,
+                                  final int island,
+                                  final Function<List<Sprinkler>, Chromosome> factory,
+                                  final RecorderService recorderService) {
+        this.island = island;
+        this.factory = factory;
+        this.recorderService = recorderService;
+        try {
+            this.socket = connect(host, port);
+            this.socket.setTcpNoDelay(true);
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            MigrantCodec.write(out, MigrantCodec.HELLO, island, Collections.emptyList());
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to reach coordinator " + host + ":" + port, e);
+        }
+
+        final Thread reader = new Thread(this::receive, "migrants-island-" + island);
+        reader.setDaemon(true);
+        reader.start();
+
+        writer = new Thread(this::send, "migrants-out-island-" + island);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static Socket connect(final String host, final int port) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException e) {
+                if (attempt >= CONNECT_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(CONNECT_BACKOFF_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues migrants for the writer thread, dropping the oldest pending ones
+     * if the outbox is full.
+     */
+    @Override
+    public void emigrate(final int ignored, final List<Chromosome> migrants) {
+        enqueue(new MigrantCodec.Frame(MigrantCodec.MIGRANTS, island,
+                migrants.stream().map(SocketMigrationChannel::toMigrant).collect(Collectors.toList())));
+    }
+
+    @Override
+    public List<Chromosome> immigrate(final int ignored) {
+        final List<Chromosome> received = new ArrayList<>();
+        for (Migrant migrant; (migrant = inbox.poll()) != null; ) {
+            try {
+                received.add(factory.apply(migrant.getGenes()));
+            } catch (InvalidRepresentationException e) {
+                // Genes valid on another island are valid here, unless configurations differ
+                recorderService.increment(MetricsConstants.COUNTER_ISLAND_MIGRANTS_REJECTED);
+            }
+        }
+        return received;
+    }
+
+    /**
+     * Queued after the pending migrants; it is the last frame, so it is never
+     * dropped. The fittest chromosome is scored exactly first, the coordinator
+     * ranks islands by it.
+     */
+    @Override
+    public void complete(final int ignored, final Chromosome fittest) {
+        if (fittest instanceof MultiFidelityChromosome) {
+            ((MultiFidelityChromosome) fittest).scoreExactly();
+        }
+        enqueue(new MigrantCodec.Frame(MigrantCodec.DONE, island, Collections.singletonList(toMigrant(fittest))));
+    }
+
+    /**
+     * Sends the frames queued so far (waiting a few seconds at most), then
+     * closes the connection.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (outbox.offer(CLOSE, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                writer.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            socket.close();
+            writer.interrupt();
+        }
+    }
+
+    private void enqueue(final MigrantCodec.Frame frame) {
+        while (!outbox.offer(frame)) {
+            final MigrantCodec.Frame dropped = outbox.poll();
+            if (dropped != null) {
+                // Losing migrants only costs diversity, keep evolving
+                recorderService.increment(MetricsConstants.COUNTER_ISLAND_MIGRANTS_DROPPED, dropped.getMigrants().size());
+            }
+        }
+    }
+
+    private void send() {
+        try {
+            for (MigrantCodec.Frame frame; (frame = outbox.take()) != CLOSE; ) {
+                try {
+                    MigrantCodec.write(out, frame.getType(), island, frame.getMigrants());
+                    out.flush();
+                } catch (IOException e) {
+                    if (socket.isClosed()) {
+                        return;
+                    }
+                    log.warn("Island {} could not send migrants: {}", island, e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            log.debug("Island {} stopped sending migrants", island);
+        }
+    }
+
+    private void receive() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                final List<Migrant> migrants = MigrantCodec.read(in).getMigrants();
+                inbox.addAll(migrants);
+                recorderService.increment(MetricsConstants.COUNTER_ISLAND_MIGRANTS_RECEIVED, migrants.size());
+            }
+        } catch (EOFException e) {
+            log.debug("Coordinator closed connection of island {}", island);
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                log.warn("Island {} stopped receiving migrants: {}", island, e.getMessage());
+            }
+        }
+    }
+
+    private static Migrant toMigrant(final Chromosome chromosome) {
+        return new Migrant(chromosome.getFitness(), ((SprinklersChromosome) chromosome).getRepresentation());
+    }
+}
@@ -0,0 +1,77 @@
+package org.house.sprinklers.fitness;
+
+import org.house.sprinklers.math.Sector;
+import org.house.sprinklers.math.SectorGeometry;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+/**
+ * Computes sprinkler areas in closed form from their circular sectors,
+ * without polygonizing arcs or running Clipper. Only convex terrains are
+ * supported; any other terrain goes through the fallback geometry.
+ *
+ * <p/>Areas are exact, so they come out slightly larger than the polygon
+ * fans of {@link PolygonSprinklerGeometry}.
+ */
+public class AnalyticSprinklerGeometry implements SprinklerGeometry {
+
+    private SprinklerGeometry fallback;
+
+    private RecorderService recorderService;
+
+    /* Last terrain seen, with its convexity. */
+    private volatile TerrainShape shape;
+
+    public AnalyticSprinklerGeometry(final SprinklerGeometry fallback, final RecorderService recorderService) {
+        this.fallback = fallback;
+        this.recorderService = recorderService;
+    }
+
+    @Override
+    public ClippedSprinkler clip(final Sprinkler sprinkler, final Terrain terrain) throws InterruptedException {
+        if (!isConvex(terrain)) {
+            recorderService.increment(MetricsConstants.COUNTER_ANALYTIC_GEOMETRY_FALLBACKS);
+            return fallback.clip(sprinkler, terrain);
+        }
+        final Sector sector = sector(sprinkler);
+        return new ClippedSprinkler(terrain, null,
+                SectorGeometry.intersectionArea(sector, terrain.getPolygonPoints()),
+                SectorGeometry.area(sector));
+    }
+
+    @Override
+    public double overlapArea(final Sprinkler a, final ClippedSprinkler clippedA,
+                              final Sprinkler b, final ClippedSprinkler clippedB,
+                              final Terrain terrain) throws InterruptedException {
+        if (!isConvex(terrain)) {
+            return fallback.overlapArea(a, clippedA, b, clippedB, terrain);
+        }
+        return SectorGeometry.intersectionArea(sector(a), sector(b), terrain.getPolygonPoints());
+    }
+
+    private boolean isConvex(final Terrain terrain) {
+        TerrainShape current = shape;
+        if (current == null || current.terrain != terrain) {
+            current = new TerrainShape(terrain, SectorGeometry.isConvex(terrain.getPolygonPoints()));
+            shape = current;
+        }
+        return current.convex;
+    }
+
+    private static Sector sector(final Sprinkler sprinkler) {
+        return new Sector(sprinkler.getPosition().getX(), sprinkler.getPosition().getY(),
+                sprinkler.getRange(), sprinkler.getStartAngle(), sprinkler.getEndAngle());
+    }
+
+    private static final class TerrainShape {
+        private final Terrain terrain;
+        private final boolean convex;
+
+        private TerrainShape(final Terrain terrain, final boolean convex) {
+            this.terrain = terrain;
+            this.convex = convex;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.house.sprinklers.fitness;
+
+import lombok.Data;
+import org.house.sprinklers.math.Polygon;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+/**
+ * Result of clipping a single sprinkler against a terrain, kept
+ * across generations so that a gene is clipped only once.
+ */
+@Data
+public class ClippedSprinkler {
+
+    /* Terrain the sprinkler was clipped against. */
+    private final Terrain terrain;
+
+    /* Part of the sprinkler area that falls inside the terrain, null if
+       computed analytically. */
+    private final Polygon polygon;
+
+    private final double clippedArea;
+
+    /* Total area of the sprinkler, inside or outside the terrain. */
+    private final double area;
+}
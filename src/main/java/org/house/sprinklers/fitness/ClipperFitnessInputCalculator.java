@@ -0,0 +1,289 @@
+package org.house.sprinklers.fitness;
+
+import de.lighti.clipper.CoverageDepth;
+import lombok.extern.slf4j.Slf4j;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Exact fitness input from polygon clipping, either pairwise through a
+ * {@link SprinklerGeometry} or with a single coverage-depth sweep.
+ */
+@Slf4j
+public class ClipperFitnessInputCalculator implements FitnessInputCalculator {
+
+    private RecorderService recorderService;
+
+    private PolygonIntersectionCalculatorSync polygonIntersectionCalculator;
+
+    /* Per-sprinkler and pairwise areas of the PAIRWISE mode. */
+    private SprinklerGeometry geometry;
+
+    /* Genes survive many generations, their clip against terrain is shared. */
+    private MeteredCache<Sprinkler, ClippedSprinkler> clipCache;
+
+    /* Same gene pairs show up again in siblings and descendants. */
+    private MeteredCache<SprinklerPair, SprinklerOverlap> overlapCache;
+
+    private CoverageMode coverageMode;
+
+    public ClipperFitnessInputCalculator(final PolygonIntersectionCalculatorSync polygonIntersectionCalculator,
+                                         final SprinklerGeometry geometry,
+                                         final MeteredCache<Sprinkler, ClippedSprinkler> clipCache,
+                                         final MeteredCache<SprinklerPair, SprinklerOverlap> overlapCache,
+                                         final CoverageMode coverageMode,
+                                         final RecorderService recorderService) {
+        this.recorderService = recorderService;
+        this.polygonIntersectionCalculator = polygonIntersectionCalculator;
+        this.geometry = geometry;
+        this.clipCache = clipCache;
+        this.overlapCache = overlapCache;
+        this.coverageMode = coverageMode;
+    }
+
+    /**
+     * Computes fitness input, reusing per-gene areas and pairwise overlaps
+     * from a reference chromosome (usually the parent) for every gene they
+     * have in common. Only rows and columns of new genes are computed.
+     *
+     * <p/>In {@link CoverageMode#SWEEP} mode the reference is ignored: all
+     * sprinklers are swept at once.
+     *
+     * @param reference Contributions of a previously evaluated chromosome,
+     *                  may be <code>null</code>.
+     */
+    @Override
+    public FitnessInput computeFitnessInput(final List<Sprinkler> sprinklers,
+                                            final Terrain terrain,
+                                            final GeneContributions reference) throws InterruptedException {
+        if (coverageMode == CoverageMode.SWEEP) {
+            try {
+                return computeFitnessInputBySweep(sprinklers, terrain);
+            } catch (Exception e) {
+                log.debug("Coverage sweep failed, falling back to pairwise", e);
+                recorderService.increment(MetricsConstants.COUNTER_SPRINKLER_TERRAIN_ERRORS_COMPUTATION);
+            }
+        }
+
+        final Instant start = Instant.now();
+
+        double terrainArea = terrain.getArea(), covered = 0.0, overlap = 0.0, outside = 0.0;
+        log.debug("Running sprinklers for terrain with total size {}", terrainArea);
+
+        final int n = sprinklers.size();
+        final int[] referenceIndices = referenceIndices(sprinklers, terrain, reference);
+        final ClippedSprinkler[] clipped = new ClippedSprinkler[n];
+        final double[] clippedAreas = new double[n];
+        final double[] areas = new double[n];
+        final double[] overlaps = new double[GeneContributions.pairCount(n)];
+        double[] contribution = new double[n];
+        long reusedGenes = 0, reusedPairs = 0;
+        final long[] culledPairs = new long[SprinklerBroadPhase.Result.values().length];
+
+        for (int i = 0; i < n; i++) {
+
+            final Instant sprinklerStart = Instant.now();
+
+            final int ri = referenceIndices[i];
+            if (ri >= 0) {
+                clippedAreas[i] = reference.getClippedArea(ri);
+                areas[i] = reference.getArea(ri);
+                reusedGenes++;
+            } else {
+                clipped[i] = clip(sprinklers.get(i), terrain);
+                clippedAreas[i] = clipped[i].getClippedArea();
+                areas[i] = clipped[i].getArea();
+            }
+            log.debug("Intersection {} with terrain: {}", i, clippedAreas[i]);
+            contribution[i] = clippedAreas[i];
+
+            outside += areas[i];
+
+            double c = 0.0;
+            for (int j = 0; j < i; j++) {
+                final int rj = referenceIndices[j];
+                final double pairOverlap;
+                if (ri >= 0 && rj >= 0 && ri != rj) {
+                    // Both genes were already paired in the reference chromosome.
+                    pairOverlap = reference.getOverlap(ri, rj);
+                    reusedPairs++;
+                } else if (!isCandidatePair(sprinklers.get(i), sprinklers.get(j), culledPairs)) {
+                    pairOverlap = 0;
+                } else {
+                    // Intersection between sprinklers (i, j)
+                    pairOverlap = overlapArea(sprinklers.get(i), clipped(sprinklers, terrain, clipped, i),
+                            sprinklers.get(j), clipped(sprinklers, terrain, clipped, j), terrain);
+                }
+                overlaps[GeneContributions.pairIndex(i, j)] = pairOverlap;
+                // TODO The problem in line below is that contributed area ends up
+                // with eronous data if sprinklers overlap too much.
+                c += pairOverlap;
+            }
+
+            contribution[i] = Math.max(0, contribution[i] - c);
+            log.debug("Contribution {}: {}", i, contribution[i]);
+
+            covered += contribution[i];
+            overlap += c;
+
+            final Instant sprinklerEnd = Instant.now();
+
+            recorderService.submit(MetricsConstants.METRIC_SPRINKLER_TERRAIN_INTERSECTION,
+                    Duration.between(sprinklerStart, sprinklerEnd).getNano());
+            recorderService.increment(MetricsConstants.COUNTER_SPRINKLER_TERRAIN_INTERSECTIONS);
+        }
+
+        recordBroadPhase(culledPairs);
+        if (reference != null) {
+            recorderService.increment(MetricsConstants.COUNTER_FITNESS_DELTA_REUSED_GENES, reusedGenes);
+            recorderService.increment(MetricsConstants.COUNTER_FITNESS_DELTA_REUSED_PAIRS, reusedPairs);
+        }
+
+        outside = Math.max(0, outside - covered);
+
+        Instant end = Instant.now();
+
+        if (log.isInfoEnabled()) {
+            log.info("Sprinkler system run -- terrain={}, covered={}, overlap={}, outside={}, nanos={}",
+                    terrainArea, covered, overlap, outside, Duration.between(start, end).getNano());
+        } else if (log.isDebugEnabled()) {
+            log.debug("Sprinkler system run --");
+            log.debug("Total terrain area = {}", terrainArea);
+            log.debug("Covered area       = {} ({}%)", covered, String.format("%.2f", 100.0 * covered / terrainArea));
+            log.debug("Overlap area       = {} ({}%)", overlap, String.format("%.2f", 100.0 * overlap / terrainArea));
+            log.debug("System run time    = {} nanos", Duration.between(start, end).getNano());
+        }
+
+        return FitnessInput.builder()
+                .numSprinklers(sprinklers.size())
+                .terrainArea(terrainArea)
+                .coveredArea(covered)
+                .outsideArea(outside)
+                .overlapArea(overlap)
+                .contributions(new GeneContributions(terrain, sprinklers, clippedAreas, areas, overlaps))
+                .build();
+    }
+
+    /**
+     * Exact covered, overlap and outside areas from a single coverage-depth
+     * sweep of all sprinklers against the terrain.
+     */
+    private FitnessInput computeFitnessInputBySweep(final List<Sprinkler> sprinklers, final Terrain terrain) {
+        final Instant start = Instant.now();
+
+        final CoverageDepth depth = polygonIntersectionCalculator.coverageDepth(sprinklers, terrain, 2);
+        final double covered = PolygonIntersectionCalculatorSync.toPolygonArea(depth.getInsideArea(1)),
+                     overlap = PolygonIntersectionCalculatorSync.toPolygonArea(depth.getInsideArea(2)),
+                     outside = PolygonIntersectionCalculatorSync.toPolygonArea(depth.getOutsideArea(1));
+
+        recorderService.submit(MetricsConstants.METRIC_COVERAGE_SWEEP,
+                Duration.between(start, Instant.now()).getNano());
+        recorderService.increment(MetricsConstants.COUNTER_COVERAGE_SWEEPS);
+
+        log.debug("Coverage sweep -- terrain={}, covered={}, overlap={}, outside={}",
+                terrain.getArea(), covered, overlap, outside);
+
+        return FitnessInput.builder()
+                .numSprinklers(sprinklers.size())
+                .terrainArea(terrain.getArea())
+                .coveredArea(covered)
+                .outsideArea(outside)
+                .overlapArea(overlap)
+                .build();
+    }
+
+    /**
+     * @return for every gene, its index in the reference chromosome or -1
+     * if it has to be computed.
+     */
+    private int[] referenceIndices(final List<Sprinkler> sprinklers,
+                                   final Terrain terrain,
+                                   final GeneContributions reference) {
+        final int[] indices = new int[sprinklers.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = reference != null && reference.getTerrain() == terrain ?
+                    reference.indexOf(sprinklers.get(i)) : -1;
+        }
+        return indices;
+    }
+
+    /**
+     * Runs the broad-phase tests for a pair of sprinklers, counting the
+     * outcome in given array (indexed by result ordinal).
+     */
+    private boolean isCandidatePair(final Sprinkler a, final Sprinkler b, final long[] results) {
+        final SprinklerBroadPhase.Result result = SprinklerBroadPhase.test(a, b);
+        results[result.ordinal()]++;
+        return result == SprinklerBroadPhase.Result.CANDIDATE;
+    }
+
+    private void recordBroadPhase(final long[] results) {
+        long pairs = 0;
+        for (long count : results) {
+            pairs += count;
+        }
+        if (pairs == 0) {
+            return;
+        }
+        recorderService.increment(MetricsConstants.COUNTER_BROAD_PHASE_PAIRS, pairs);
+        recorderService.increment(MetricsConstants.COUNTER_BROAD_PHASE_CULLED_CIRCLE,
+                results[SprinklerBroadPhase.Result.CULLED_CIRCLE.ordinal()]);
+        recorderService.increment(MetricsConstants.COUNTER_BROAD_PHASE_CULLED_BOX,
+                results[SprinklerBroadPhase.Result.CULLED_BOX.ordinal()]);
+        recorderService.increment(MetricsConstants.COUNTER_BROAD_PHASE_CULLED_SECTOR,
+                results[SprinklerBroadPhase.Result.CULLED_SECTOR.ordinal()]);
+    }
+
+    /**
+     * Genes reused from a reference chromosome are only clipped if one
+     * of their pairs needs to be computed.
+     */
+    private ClippedSprinkler clipped(final List<Sprinkler> sprinklers,
+                                     final Terrain terrain,
+                                     final ClippedSprinkler[] clipped,
+                                     final int i)
+        throws InterruptedException {
+        if (clipped[i] == null) {
+            clipped[i] = clip(sprinklers.get(i), terrain);
+        }
+        return clipped[i];
+    }
+
+    /**
+     * Clips given sprinkler against terrain, reusing a previous result for
+     * the same gene value when available. Cached entries are only reused
+     * for the terrain they were computed against.
+     */
+    private ClippedSprinkler clip(final Sprinkler sprinkler, final Terrain terrain)
+        throws InterruptedException {
+        ClippedSprinkler clipped = clipCache.getIfPresent(sprinkler);
+        if (clipped == null || clipped.getTerrain() != terrain) {
+            clipped = geometry.clip(sprinkler, terrain);
+            clipCache.put(sprinkler, clipped);
+        }
+        return clipped;
+    }
+
+    /**
+     * Area where two clipped sprinklers overlap, reusing a previous result
+     * for the same (unordered) pair of genes when available.
+     */
+    private double overlapArea(final Sprinkler a, final ClippedSprinkler clippedA,
+                               final Sprinkler b, final ClippedSprinkler clippedB,
+                               final Terrain terrain)
+        throws InterruptedException {
+        final SprinklerPair pair = new SprinklerPair(a, b);
+        SprinklerOverlap overlap = overlapCache.getIfPresent(pair);
+        if (overlap == null || overlap.getTerrain() != terrain) {
+            overlap = new SprinklerOverlap(terrain, geometry.overlapArea(a, clippedA, b, clippedB, terrain));
+            overlapCache.put(pair, overlap);
+        }
+        return overlap.getArea();
+    }
+}
@@ -0,0 +1,17 @@
+package org.house.sprinklers.fitness;
+
+/**
+ * How {@link ClipperFitnessInputCalculator} derives covered and overlap areas.
+ */
+public enum CoverageMode {
+    /**
+     * Sums per-sprinkler areas and pairwise overlaps; supports caching and
+     * incremental evaluation, but over-counts when 3+ sprinklers overlap.
+     */
+    PAIRWISE,
+    /**
+     * Single coverage-depth sweep over all sprinklers and the terrain;
+     * exact covered (depth &ge; 1) and overlap (depth &ge; 2) areas.
+     */
+    SWEEP
+}
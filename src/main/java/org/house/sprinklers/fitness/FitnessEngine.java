@@ -0,0 +1,30 @@
+package org.house.sprinklers.fitness;
+
+/**
+ * Which {@link FitnessInputCalculator} evaluates chromosomes.
+ */
+public enum FitnessEngine {
+    /**
+     * {@link ClipperFitnessInputCalculator}: exact areas from polygon clipping.
+     */
+    CLIPPER,
+    /**
+     * {@link RasterFitnessInputCalculator}: areas counted on a grid of cells.
+     */
+    RASTER,
+    /**
+     * {@link QuasiMonteCarloFitnessInputCalculator}: areas estimated from
+     * low-discrepancy samples, with confidence intervals.
+     */
+    QMC;
+
+    /**
+     * How the areas this engine reports are defined: grid and sample engines
+     * measure the union of sprinklers, like a {@link CoverageMode#SWEEP}.
+     *
+     * @param clipperMode Coverage mode of the {@link #CLIPPER} engine.
+     */
+    public CoverageMode coverageMode(final CoverageMode clipperMode) {
+        return this == CLIPPER ? clipperMode : CoverageMode.SWEEP;
+    }
+}
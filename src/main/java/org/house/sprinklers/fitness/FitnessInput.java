@@ -2,9 +2,13 @@ package org.house.sprinklers.fitness;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Data
 @Builder
+@EqualsAndHashCode(exclude = {"contributions", "estimate"})
+@ToString(exclude = "contributions")
 public class FitnessInput {
 
     private int numSprinklers;
@@ -17,4 +21,10 @@ public class FitnessInput {
     private double overlapArea;
 
     private double outsideArea;
+
+    /* Per-gene breakdown, used for incremental evaluation of children. May be null. */
+    private GeneContributions contributions;
+
+    /* Confidence intervals if the areas were estimated, null if exact. */
+    private FitnessInputEstimate estimate;
 }
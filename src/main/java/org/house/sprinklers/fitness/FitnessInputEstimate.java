@@ -0,0 +1,24 @@
+package org.house.sprinklers.fitness;
+
+import lombok.Data;
+
+/**
+ * Confidence intervals of an estimated {@link FitnessInput}, as half-widths
+ * around the reported areas and the fitness they yield.
+ */
+@Data
+public class FitnessInputEstimate {
+
+    /* Sample points per replica the estimate was computed from. */
+    private final int samples;
+
+    private final double confidence;
+
+    private final double coveredAreaHalfWidth;
+
+    private final double overlapAreaHalfWidth;
+
+    private final double outsideAreaHalfWidth;
+
+    private final double fitnessHalfWidth;
+}
@@ -0,0 +1,83 @@
+package org.house.sprinklers.fitness;
+
+import org.house.sprinklers.sprinkler_system.PackedSprinklers;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+import java.util.List;
+
+/**
+ * Per-gene areas and pairwise overlaps of an evaluated chromosome.
+ *
+ * <p/>Children that share genes with an evaluated chromosome (which is
+ * what mutation and crossover produce) reuse these values and only
+ * recompute the rows and columns of the genes that changed.
+ *
+ * <p/>Instances are immutable once built, so they can be shared by
+ * children evaluated concurrently. Genes are kept packed, they live as
+ * long as the chromosome.
+ */
+public class GeneContributions {
+
+    private final Terrain terrain;
+
+    private final PackedSprinklers genes;
+
+    private final double[] clippedAreas;
+
+    private final double[] areas;
+
+    /* Lower triangle of the overlap matrix, see pairIndex */
+    private final double[] overlaps;
+
+    public GeneContributions(final Terrain terrain,
+                             final List<Sprinkler> genes,
+                             final double[] clippedAreas,
+                             final double[] areas,
+                             final double[] overlaps) {
+        this.terrain = terrain;
+        this.genes = PackedSprinklers.of(genes);
+        this.clippedAreas = clippedAreas;
+        this.areas = areas;
+        this.overlaps = overlaps;
+    }
+
+    /**
+     * Position of (i, j), j &lt; i, in a packed lower triangular matrix.
+     */
+    public static int pairIndex(int i, int j) {
+        return i * (i - 1) / 2 + j;
+    }
+
+    public static int pairCount(int genes) {
+        return genes * (genes - 1) / 2;
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    public int size() {
+        return genes.size();
+    }
+
+    /**
+     * @return index of given gene, or -1 if this chromosome does not contain it.
+     */
+    public int indexOf(final Sprinkler gene) {
+        // A handful of genes, a scan beats hashing them
+        return genes.indexOf(gene);
+    }
+
+    public double getClippedArea(int i) {
+        return clippedAreas[i];
+    }
+
+    public double getArea(int i) {
+        return areas[i];
+    }
+
+    public double getOverlap(int i, int j) {
+        return i > j ? overlaps[pairIndex(i, j)] : overlaps[pairIndex(j, i)];
+    }
+}
@@ -0,0 +1,16 @@
+package org.house.sprinklers.fitness;
+
+/**
+ * Which {@link SprinklerGeometry} computes pairwise areas.
+ */
+public enum GeometryMode {
+    /**
+     * Polygonized sprinklers clipped with Clipper; any terrain.
+     */
+    POLYGON,
+    /**
+     * Closed form sector areas; convex terrains only, others fall back
+     * to {@link #POLYGON}.
+     */
+    ANALYTIC
+}
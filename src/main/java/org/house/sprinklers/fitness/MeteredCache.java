@@ -0,0 +1,81 @@
+package org.house.sprinklers.fitness;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import org.house.sprinklers.metrics.RecorderService;
+
+/**
+ * Bounded, thread-safe cache that reports hits, misses and evictions
+ * as counters to a {@link RecorderService}.
+ *
+ * <p/>Entries are evicted in (approximately) least-recently-used order
+ * once {@code maximumSize} is reached. A maximum size of zero disables
+ * caching entirely: lookups always miss and nothing is stored.
+ *
+ * <p/>The underlying cache is striped in {@code concurrencyLevel} segments,
+ * each with its own lock, so concurrent evaluators rarely contend.
+ */
+public class MeteredCache<K, V> {
+
+    private final Cache<K, V> cache;
+
+    private final boolean enabled;
+
+    private final RecorderService recorderService;
+
+    private final String hitsMetric;
+
+    private final String missesMetric;
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 4;
+
+    public MeteredCache(final long maximumSize,
+                        final RecorderService recorderService,
+                        final String hitsMetric,
+                        final String missesMetric,
+                        final String evictionsMetric) {
+        this(maximumSize, DEFAULT_CONCURRENCY_LEVEL, recorderService, hitsMetric, missesMetric, evictionsMetric);
+    }
+
+    public MeteredCache(final long maximumSize,
+                        final int concurrencyLevel,
+                        final RecorderService recorderService,
+                        final String hitsMetric,
+                        final String missesMetric,
+                        final String evictionsMetric) {
+        this.enabled = maximumSize > 0;
+        this.recorderService = recorderService;
+        this.hitsMetric = hitsMetric;
+        this.missesMetric = missesMetric;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(0, maximumSize))
+                .concurrencyLevel(Math.max(1, concurrencyLevel))
+                .removalListener((RemovalListener<K, V>) notification -> {
+                    if (notification.wasEvicted()) {
+                        recorderService.increment(evictionsMetric);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return cached value for given key, or <code>null</code> if
+     * there is none.
+     */
+    public V getIfPresent(final K key) {
+        final V value = enabled ? cache.getIfPresent(key) : null;
+        recorderService.increment(value == null ? missesMetric : hitsMetric);
+        return value;
+    }
+
+    public void put(final K key, final V value) {
+        if (enabled) {
+            cache.put(key, value);
+        }
+    }
+
+    public long size() {
+        return cache.size();
+    }
+}
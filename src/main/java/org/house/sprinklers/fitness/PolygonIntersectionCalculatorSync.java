@@ -3,6 +3,7 @@ package org.house.sprinklers.fitness;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import de.lighti.clipper.Clipper;
+import de.lighti.clipper.CoverageDepth;
 import de.lighti.clipper.DefaultClipper;
 import de.lighti.clipper.Path;
 import de.lighti.clipper.Paths;
@@ -25,10 +26,10 @@ import java.util.concurrent.TimeoutException;
 @Slf4j
 public class PolygonIntersectionCalculatorSync {
 
-    private static final ThreadLocal<Clipper> CLIPPER = new InheritableThreadLocal<>();
-    static {
-        CLIPPER.set(new DefaultClipper());
-    }
+    private static final double SCALE = 1000.0;
+
+    /* Clipper keeps state between calls, every evaluating thread gets its own. */
+    private static final ThreadLocal<Clipper> CLIPPER = ThreadLocal.withInitial(DefaultClipper::new);
 
     private ExecutorService executorService;
 
@@ -69,6 +70,35 @@ public class PolygonIntersectionCalculatorSync {
         */
     }
 
+    /**
+     * Sweeps all subjects at once against a clip polygon.
+     * @return Areas covered by 1..maxDepth subjects, inside and outside
+     * the clip polygon.
+     */
+    public CoverageDepth coverageDepth(final List<? extends Polygon> subjects, final Polygon clip, final int maxDepth) {
+
+        Clipper clipper = CLIPPER.get();
+
+        // Clear whatever was previously stored.
+        clipper.clear();
+
+        for (Polygon subject : subjects) {
+            clipper.addPath(convertToPath(subject, SCALE), Clipper.PolyType.SUBJECT, true);
+        }
+        clipper.addPath(convertToPath(clip, SCALE), Clipper.PolyType.CLIP, true);
+
+        final CoverageDepth depth = new CoverageDepth(maxDepth);
+        clipper.executeCoverageDepth(depth, Clipper.PolyFillType.NON_ZERO);
+        return depth;
+    }
+
+    /**
+     * Converts an area computed on clipper paths back to polygon units.
+     */
+    public static double toPolygonArea(double pathArea) {
+        return pathArea / (SCALE * SCALE);
+    }
+
     /**
      * Intersects 2 polygons.
      * @return Intersection polygon. If the two polygons don't intersect,
@@ -82,16 +112,14 @@ public class PolygonIntersectionCalculatorSync {
             return Polygon.EMPTY;
         }
 
-        final double scale = 1000.0;
-
         Clipper clipper = CLIPPER.get();
 
         // Clear whatever was previously stored.
         clipper.clear();
 
         // Set the first polygon to clip and the second one as subject
-        clipper.addPath(convertToPath(a, scale), Clipper.PolyType.CLIP, true);
-        clipper.addPath(convertToPath(b, scale), Clipper.PolyType.SUBJECT, true);
+        clipper.addPath(convertToPath(a, SCALE), Clipper.PolyType.CLIP, true);
+        clipper.addPath(convertToPath(b, SCALE), Clipper.PolyType.SUBJECT, true);
 
         Paths solution = new Paths();
         clipper.execute(clipType, solution);
@@ -112,7 +140,7 @@ public class PolygonIntersectionCalculatorSync {
                     return -Double.valueOf(o1.area()).compareTo(o2.area());
                 }
             });
-            return convertToPolygon(solution.get(0), scale);
+            return convertToPolygon(solution.get(0), SCALE);
         }
     }
 
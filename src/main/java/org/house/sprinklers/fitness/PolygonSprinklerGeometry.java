@@ -0,0 +1,35 @@
+package org.house.sprinklers.fitness;
+
+import org.house.sprinklers.math.Polygon;
+import org.house.sprinklers.math.PolygonIntersect;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+/**
+ * Clips the polygonized sprinklers with Clipper.
+ */
+public class PolygonSprinklerGeometry implements SprinklerGeometry {
+
+    private PolygonIntersectionCalculatorSync polygonIntersectionCalculator;
+
+    public PolygonSprinklerGeometry(final PolygonIntersectionCalculatorSync polygonIntersectionCalculator) {
+        this.polygonIntersectionCalculator = polygonIntersectionCalculator;
+    }
+
+    @Override
+    public ClippedSprinkler clip(final Sprinkler sprinkler, final Terrain terrain) throws InterruptedException {
+        final Polygon polygon = polygonIntersectionCalculator.intersection(sprinkler, terrain);
+        return new ClippedSprinkler(terrain, polygon, intersectionArea(polygon), intersectionArea(sprinkler));
+    }
+
+    @Override
+    public double overlapArea(final Sprinkler a, final ClippedSprinkler clippedA,
+                              final Sprinkler b, final ClippedSprinkler clippedB,
+                              final Terrain terrain) throws InterruptedException {
+        return intersectionArea(polygonIntersectionCalculator.intersection(clippedA.getPolygon(), clippedB.getPolygon()));
+    }
+
+    private double intersectionArea(Polygon a) {
+        return PolygonIntersect.intersectionArea(a, a);
+    }
+}
@@ -0,0 +1,293 @@
+package org.house.sprinklers.fitness;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.random.JDKRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.SobolSequenceGenerator;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Estimates fitness input by sampling the terrain bounding box (padded by
+ * a margin) with a Sobol sequence and counting the sprinklers that cover
+ * every sample point.
+ *
+ * <p/>The same point set is randomly shifted (modulo 1) into several
+ * replicas; the spread of their estimates gives confidence intervals.
+ * Samples are doubled until the fitness interval is narrower than the
+ * tolerance, or the maximum is reached. Shifts are fixed, so a chromosome
+ * always gets the same estimate.
+ *
+ * <p/>Like {@link RasterFitnessInputCalculator}, it estimates the areas of
+ * the union of the sprinklers ({@link CoverageMode#SWEEP}): a sample under
+ * several sprinklers is covered and overlapped once, where
+ * {@link CoverageMode#PAIRWISE} counts every pair.
+ */
+@Slf4j
+public class QuasiMonteCarloFitnessInputCalculator implements FitnessInputCalculator {
+
+    private static final long SHIFT_SEED = 0x5eedL;
+
+    private RecorderService recorderService;
+
+    private FitnessCalculator fitnessCalculator;
+
+    private int minSamples;
+
+    private int maxSamples;
+
+    private int replicas;
+
+    private double confidence;
+
+    /* Student-t quantile for the confidence level and number of replicas. */
+    private double quantile;
+
+    /* Largest fitness half-width accepted before maxSamples is reached. */
+    private double fitnessTolerance;
+
+    private double margin;
+
+    /* Sobol points in the unit square, shared by every replica. */
+    private final double[] unitX, unitY;
+
+    private final double[] shiftX, shiftY;
+
+    /* Sample points of the last terrain seen. */
+    private volatile SamplePoints points;
+
+    public QuasiMonteCarloFitnessInputCalculator(final int minSamples,
+                                                 final int maxSamples,
+                                                 final int replicas,
+                                                 final double confidence,
+                                                 final double fitnessTolerance,
+                                                 final double margin,
+                                                 final FitnessCalculator fitnessCalculator,
+                                                 final RecorderService recorderService) {
+        if (minSamples < 1 || maxSamples < minSamples) {
+            throw new IllegalArgumentException("Invalid sample range " + minSamples + ".." + maxSamples);
+        }
+        if (replicas < 2) {
+            throw new IllegalArgumentException("At least 2 replicas are needed for a confidence interval");
+        }
+        this.minSamples = minSamples;
+        this.maxSamples = maxSamples;
+        this.replicas = replicas;
+        this.confidence = confidence;
+        this.quantile = new TDistribution(replicas - 1).inverseCumulativeProbability(0.5 + confidence / 2);
+        this.fitnessTolerance = fitnessTolerance;
+        this.margin = margin;
+        this.fitnessCalculator = fitnessCalculator;
+        this.recorderService = recorderService;
+
+        final SobolSequenceGenerator sobol = new SobolSequenceGenerator(2);
+        this.unitX = new double[maxSamples];
+        this.unitY = new double[maxSamples];
+        for (int i = 0; i < maxSamples; i++) {
+            final double[] point = sobol.nextVector();
+            unitX[i] = point[0];
+            unitY[i] = point[1];
+        }
+
+        final RandomGenerator random = new JDKRandomGenerator();
+        random.setSeed(SHIFT_SEED);
+        this.shiftX = new double[replicas];
+        this.shiftY = new double[replicas];
+        for (int r = 0; r < replicas; r++) {
+            shiftX[r] = random.nextDouble();
+            shiftY[r] = random.nextDouble();
+        }
+    }
+
+    @Override
+    public FitnessInput computeFitnessInput(final List<Sprinkler> sprinklers,
+                                            final Terrain terrain,
+                                            final GeneContributions reference) {
+        final Instant start = Instant.now();
+
+        final SamplePoints points = points(terrain);
+        final Shape[] shapes = new Shape[sprinklers.size()];
+        for (int i = 0; i < shapes.length; i++) {
+            shapes[i] = new Shape(sprinklers.get(i));
+        }
+
+        final long[] covered = new long[replicas], overlap = new long[replicas], outside = new long[replicas];
+        int samples = 0, target = minSamples;
+        Estimate estimate;
+        while (true) {
+            for (int r = 0; r < replicas; r++) {
+                for (int i = samples; i < target; i++) {
+                    final int index = r * maxSamples + i;
+                    final int depth = depth(shapes, points.x[index], points.y[index]);
+                    if (depth == 0) {
+                        continue;
+                    }
+                    if (points.inside[index]) {
+                        covered[r]++;
+                        overlap[r] += depth > 1 ? 1 : 0;
+                    } else {
+                        outside[r]++;
+                    }
+                }
+            }
+            samples = target;
+            estimate = new Estimate(sprinklers.size(), terrain.getArea(), points.area / samples, covered, overlap, outside);
+            if (halfWidth(estimate.fitness) <= fitnessTolerance || samples == maxSamples) {
+                break;
+            }
+            target = Math.min(maxSamples, 2 * samples);
+        }
+
+        final double fitnessHalfWidth = halfWidth(estimate.fitness);
+        if (fitnessHalfWidth > fitnessTolerance) {
+            recorderService.increment(MetricsConstants.COUNTER_QMC_UNCONVERGED);
+        }
+        recorderService.submit(MetricsConstants.METRIC_QMC, Duration.between(start, Instant.now()).getNano());
+        recorderService.increment(MetricsConstants.COUNTER_QMC_RUNS);
+        recorderService.increment(MetricsConstants.COUNTER_QMC_SAMPLES, (long) samples * replicas);
+
+        log.debug("QMC estimate -- samples={}, covered={}, overlap={}, outside={}, fitness half-width={}",
+                samples, estimate.covered.getMean(), estimate.overlap.getMean(), estimate.outside.getMean(), fitnessHalfWidth);
+
+        return FitnessInput.builder()
+                .numSprinklers(sprinklers.size())
+                .terrainArea(terrain.getArea())
+                .coveredArea(estimate.covered.getMean())
+                .overlapArea(estimate.overlap.getMean())
+                .outsideArea(estimate.outside.getMean())
+                .estimate(new FitnessInputEstimate(samples, confidence,
+                        halfWidth(estimate.covered), halfWidth(estimate.overlap), halfWidth(estimate.outside),
+                        fitnessHalfWidth))
+                .build();
+    }
+
+    private double halfWidth(final SummaryStatistics statistics) {
+        return quantile * statistics.getStandardDeviation() / Math.sqrt(replicas);
+    }
+
+    /**
+     * @return number of sprinklers covering the point, stopping at 2.
+     */
+    private static int depth(final Shape[] shapes, final double x, final double y) {
+        int depth = 0;
+        for (int s = 0; s < shapes.length && depth < 2; s++) {
+            depth += shapes[s].contains(x, y) ? 1 : 0;
+        }
+        return depth;
+    }
+
+    private SamplePoints points(final Terrain terrain) {
+        SamplePoints current = points;
+        if (current == null || current.terrain != terrain) {
+            current = new SamplePoints(terrain);
+            points = current;
+        }
+        return current;
+    }
+
+    /**
+     * Per-replica areas and the fitness they yield.
+     */
+    private final class Estimate {
+        private final SummaryStatistics covered = new SummaryStatistics(),
+                                        overlap = new SummaryStatistics(),
+                                        outside = new SummaryStatistics(),
+                                        fitness = new SummaryStatistics();
+
+        private Estimate(final int numSprinklers, final double terrainArea, final double sampleArea,
+                         final long[] coveredCounts, final long[] overlapCounts, final long[] outsideCounts) {
+            for (int r = 0; r < replicas; r++) {
+                final FitnessInput input = FitnessInput.builder()
+                        .numSprinklers(numSprinklers)
+                        .terrainArea(terrainArea)
+                        .coveredArea(coveredCounts[r] * sampleArea)
+                        .overlapArea(overlapCounts[r] * sampleArea)
+                        .outsideArea(outsideCounts[r] * sampleArea)
+                        .build();
+                covered.addValue(input.getCoveredArea());
+                overlap.addValue(input.getOverlapArea());
+                outside.addValue(input.getOutsideArea());
+                fitness.addValue(fitnessCalculator.computeFitness(input));
+            }
+        }
+    }
+
+    /**
+     * Shifted sample points of every replica in the padded terrain bounding
+     * box, with whether they fall inside the terrain.
+     */
+    private final class SamplePoints {
+        private final Terrain terrain;
+        private final double area;
+        private final double[] x, y;
+        private final boolean[] inside;
+
+        private SamplePoints(final Terrain terrain) {
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            final Path2D.Double path = new Path2D.Double();
+            for (Point2D p : terrain.getPolygonPoints()) {
+                minX = Math.min(minX, p.getX());
+                minY = Math.min(minY, p.getY());
+                maxX = Math.max(maxX, p.getX());
+                maxY = Math.max(maxY, p.getY());
+                if (path.getCurrentPoint() == null) {
+                    path.moveTo(p.getX(), p.getY());
+                } else {
+                    path.lineTo(p.getX(), p.getY());
+                }
+            }
+            path.closePath();
+            minX -= margin;
+            minY -= margin;
+            final double width = maxX + margin - minX, height = maxY + margin - minY;
+
+            this.terrain = terrain;
+            this.area = width * height;
+            this.x = new double[replicas * maxSamples];
+            this.y = new double[replicas * maxSamples];
+            this.inside = new boolean[replicas * maxSamples];
+            for (int r = 0; r < replicas; r++) {
+                for (int i = 0; i < maxSamples; i++) {
+                    final int index = r * maxSamples + i;
+                    x[index] = minX + width * ((unitX[i] + shiftX[r]) % 1.0);
+                    y[index] = minY + height * ((unitY[i] + shiftY[r]) % 1.0);
+                    inside[index] = path.contains(x[index], y[index]);
+                }
+            }
+        }
+    }
+
+    private static final class Shape {
+        private final double x, y, rangeSquared, minX, minY, maxX, maxY;
+        private final SectorWedge wedge;
+
+        private Shape(final Sprinkler sprinkler) {
+            this.x = sprinkler.getPosition().getX();
+            this.y = sprinkler.getPosition().getY();
+            this.rangeSquared = sprinkler.getRange() * sprinkler.getRange();
+            this.minX = x - sprinkler.getRange();
+            this.minY = y - sprinkler.getRange();
+            this.maxX = x + sprinkler.getRange();
+            this.maxY = y + sprinkler.getRange();
+            this.wedge = new SectorWedge(sprinkler.getStartAngle(), sprinkler.getEndAngle());
+        }
+
+        private boolean contains(final double px, final double py) {
+            if (px < minX || px > maxX || py < minY || py > maxY) {
+                return false;
+            }
+            final double dx = px - x, dy = py - y;
+            return dx * dx + dy * dy <= rangeSquared && wedge.contains(dx, dy);
+        }
+    }
+}
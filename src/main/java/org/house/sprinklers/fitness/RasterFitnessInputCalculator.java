@@ -0,0 +1,234 @@
+package org.house.sprinklers.fitness;
+
+import lombok.extern.slf4j.Slf4j;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Approximate fitness input on a regular grid of square cells.
+ *
+ * <p/>The terrain (padded by a margin, so sprinklers reaching outside it
+ * are accounted for) is rasterized once into a bitset. Every sprinkler is
+ * rasterized into a mask of the same grid, kept across generations, and
+ * stamped into two depth bitsets (covered once, covered twice or more).
+ * Covered, overlap and outside areas are then popcounts, scaled by the
+ * cell area; cost is linear in the number of sprinklers.
+ *
+ * <p/>A cell belongs to a shape if its centre does. The reference
+ * contributions are ignored.
+ *
+ * <p/>Areas are those of the union of the sprinklers, as with
+ * {@link CoverageMode#SWEEP}: a cell under three sprinklers is covered once
+ * and overlapped once. {@link CoverageMode#PAIRWISE} counts it for every
+ * pair, so its fitness cannot be compared with this one.
+ */
+@Slf4j
+public class RasterFitnessInputCalculator implements FitnessInputCalculator {
+
+    private RecorderService recorderService;
+
+    private MeteredCache<Sprinkler, SectorMask> maskCache;
+
+    private double cellSize;
+
+    /* Extra space around the terrain, at least the maximum sprinkler range. */
+    private double margin;
+
+    /* Grid of the last terrain seen. */
+    private volatile Grid grid;
+
+    public RasterFitnessInputCalculator(final double cellSize,
+                                        final double margin,
+                                        final MeteredCache<Sprinkler, SectorMask> maskCache,
+                                        final RecorderService recorderService) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        this.margin = margin;
+        this.maskCache = maskCache;
+        this.recorderService = recorderService;
+    }
+
+    @Override
+    public FitnessInput computeFitnessInput(final List<Sprinkler> sprinklers,
+                                            final Terrain terrain,
+                                            final GeneContributions reference) {
+        final Instant start = Instant.now();
+
+        final Grid grid = grid(terrain);
+        final long[] once = new long[grid.inside.length];
+        final long[] twice = new long[grid.inside.length];
+        for (Sprinkler sprinkler : sprinklers) {
+            mask(sprinkler, grid).stamp(grid, once, twice);
+        }
+
+        long covered = 0, overlap = 0, outside = 0;
+        for (int i = 0; i < once.length; i++) {
+            covered += Long.bitCount(once[i] & grid.inside[i]);
+            overlap += Long.bitCount(twice[i] & grid.inside[i]);
+            outside += Long.bitCount(once[i] & ~grid.inside[i]);
+        }
+
+        final double cellArea = cellSize * cellSize;
+        recorderService.submit(MetricsConstants.METRIC_RASTER_COVERAGE,
+                Duration.between(start, Instant.now()).getNano());
+        recorderService.increment(MetricsConstants.COUNTER_RASTER_COVERAGE_RUNS);
+
+        log.debug("Raster coverage -- terrain={}, covered={}, overlap={}, outside={}",
+                terrain.getArea(), covered * cellArea, overlap * cellArea, outside * cellArea);
+
+        return FitnessInput.builder()
+                .numSprinklers(sprinklers.size())
+                .terrainArea(terrain.getArea())
+                .coveredArea(covered * cellArea)
+                .outsideArea(outside * cellArea)
+                .overlapArea(overlap * cellArea)
+                .build();
+    }
+
+    private Grid grid(final Terrain terrain) {
+        Grid current = grid;
+        if (current == null || current.terrain != terrain) {
+            current = new Grid(terrain, cellSize, margin);
+            grid = current;
+        }
+        return current;
+    }
+
+    /**
+     * Sprinkler mask for given grid, reusing a previous one for the same
+     * gene value when available.
+     */
+    private SectorMask mask(final Sprinkler sprinkler, final Grid grid) {
+        SectorMask mask = maskCache.getIfPresent(sprinkler);
+        if (mask == null || mask.grid != grid) {
+            mask = new SectorMask(sprinkler, grid);
+            maskCache.put(sprinkler, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * Cells of the padded terrain bounding box, rows of 64-cell words.
+     */
+    private static final class Grid {
+        private final Terrain terrain;
+        private final double minX, minY, cellSize;
+        private final int columns, rows, words;
+
+        /* Cells whose centre lies inside the terrain. */
+        private final long[] inside;
+
+        private Grid(final Terrain terrain, final double cellSize, final double margin) {
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            final Path2D.Double path = new Path2D.Double();
+            for (Point2D p : terrain.getPolygonPoints()) {
+                minX = Math.min(minX, p.getX());
+                minY = Math.min(minY, p.getY());
+                maxX = Math.max(maxX, p.getX());
+                maxY = Math.max(maxY, p.getY());
+                if (path.getCurrentPoint() == null) {
+                    path.moveTo(p.getX(), p.getY());
+                } else {
+                    path.lineTo(p.getX(), p.getY());
+                }
+            }
+            path.closePath();
+
+            this.terrain = terrain;
+            this.cellSize = cellSize;
+            this.minX = minX - margin;
+            this.minY = minY - margin;
+            this.columns = (int) Math.ceil((maxX + margin - this.minX) / cellSize);
+            this.rows = (int) Math.ceil((maxY + margin - this.minY) / cellSize);
+            this.words = (columns + 63) >>> 6;
+            this.inside = new long[rows * words];
+
+            for (int row = 0; row < rows; row++) {
+                final double y = centerY(row);
+                for (int column = 0; column < columns; column++) {
+                    if (path.contains(centerX(column), y)) {
+                        inside[row * words + (column >>> 6)] |= 1L << column;
+                    }
+                }
+            }
+        }
+
+        private double centerX(final int column) {
+            return minX + (column + 0.5) * cellSize;
+        }
+
+        private double centerY(final int row) {
+            return minY + (row + 0.5) * cellSize;
+        }
+
+        private int column(final double x) {
+            return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - minX) / cellSize)));
+        }
+
+        private int row(final double y) {
+            return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - minY) / cellSize)));
+        }
+    }
+
+    /**
+     * Cells covered by a single sprinkler, restricted to the words spanned
+     * by its bounding box.
+     */
+    public static final class SectorMask {
+        private final Grid grid;
+        private final int firstRow, rowCount, firstWord, wordCount;
+        private final long[] bits;
+
+        private SectorMask(final Sprinkler sprinkler, final Grid grid) {
+            final double cx = sprinkler.getPosition().getX(), cy = sprinkler.getPosition().getY();
+            final double range = sprinkler.getRange();
+            final SectorWedge wedge = new SectorWedge(sprinkler.getStartAngle(), sprinkler.getEndAngle());
+
+            final int firstColumn = grid.column(cx - range), lastColumn = grid.column(cx + range);
+            this.grid = grid;
+            this.firstRow = grid.row(cy - range);
+            this.rowCount = grid.row(cy + range) - firstRow + 1;
+            this.firstWord = firstColumn >>> 6;
+            this.wordCount = (lastColumn >>> 6) - firstWord + 1;
+            this.bits = new long[rowCount * wordCount];
+
+            for (int r = 0; r < rowCount; r++) {
+                final double dy = grid.centerY(firstRow + r) - cy;
+                if (dy * dy > range * range) {
+                    continue;
+                }
+                // Only cells within the circle chord of this row are tested
+                final double chord = Math.sqrt(range * range - dy * dy);
+                final int from = Math.max(firstColumn, grid.column(cx - chord)),
+                          to = Math.min(lastColumn, grid.column(cx + chord));
+                for (int column = from; column <= to; column++) {
+                    final double dx = grid.centerX(column) - cx;
+                    if (dx * dx + dy * dy <= range * range && wedge.contains(dx, dy)) {
+                        bits[r * wordCount + (column >>> 6) - firstWord] |= 1L << column;
+                    }
+                }
+            }
+        }
+
+        private void stamp(final Grid grid, final long[] once, final long[] twice) {
+            for (int r = 0; r < rowCount; r++) {
+                final int offset = (firstRow + r) * grid.words + firstWord;
+                for (int w = 0; w < wordCount; w++) {
+                    final long m = bits[r * wordCount + w];
+                    twice[offset + w] |= once[offset + w] & m;
+                    once[offset + w] |= m;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.house.sprinklers.fitness;
+
+/**
+ * Directions between two angles, tested with cross products instead of
+ * computing the angle of every sample point.
+ */
+final class SectorWedge {
+    private final double startX, startY, endX, endY;
+    private final boolean full, reflex;
+
+    SectorWedge(final double startAngle, final double endAngle) {
+        this.startX = Math.cos(startAngle);
+        this.startY = Math.sin(startAngle);
+        this.endX = Math.cos(endAngle);
+        this.endY = Math.sin(endAngle);
+        this.full = endAngle - startAngle >= 2 * Math.PI;
+        this.reflex = endAngle - startAngle > Math.PI;
+    }
+
+    /**
+     * @param dx Offset from the sector centre.
+     * @param dy Offset from the sector centre.
+     */
+    boolean contains(final double dx, final double dy) {
+        if (full) {
+            return true;
+        }
+        final boolean afterStart = startX * dy - startY * dx >= 0,
+                      beforeEnd = endX * dy - endY * dx <= 0;
+        return reflex ? afterStart || beforeEnd : afterStart && beforeEnd;
+    }
+}
@@ -0,0 +1,123 @@
+package org.house.sprinklers.fitness;
+
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+/**
+ * Cheap, conservative tests that tell whether two sprinklers can
+ * overlap at all, so that obviously disjoint pairs never reach the
+ * polygon clipper.
+ *
+ * <p/>Tests are run from cheapest to most expensive: bounding circles,
+ * axis aligned bounding boxes of the sectors and finally each sector's
+ * cone against the other sprinkler's bounding circle. A pair is only
+ * culled if the sectors are guaranteed disjoint; sprinkler polygons are
+ * inscribed in their sectors, so their intersection is empty as well.
+ */
+public final class SprinklerBroadPhase {
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private SprinklerBroadPhase() {}
+
+    public enum Result {
+        /* Centres are further apart than the sum of ranges. */
+        CULLED_CIRCLE,
+        /* Bounding boxes of the sectors do not intersect. */
+        CULLED_BOX,
+        /* One sector faces away from the other sprinkler. */
+        CULLED_SECTOR,
+        /* Sprinklers may overlap, an exact intersection is needed. */
+        CANDIDATE
+    }
+
+    public static Result test(final Sprinkler a, final Sprinkler b) {
+        final double dx = b.getPosition().getX() - a.getPosition().getX(),
+                     dy = b.getPosition().getY() - a.getPosition().getY(),
+                     r = a.getRange() + b.getRange();
+        if (dx * dx + dy * dy >= r * r) {
+            return Result.CULLED_CIRCLE;
+        }
+
+        final double[] boxA = bounds(a), boxB = bounds(b);
+        if (boxA[0] >= boxB[2] || boxB[0] >= boxA[2] || boxA[1] >= boxB[3] || boxB[1] >= boxA[3]) {
+            return Result.CULLED_BOX;
+        }
+
+        if (distanceToCone(a, b.getPosition().getX(), b.getPosition().getY()) >= b.getRange() ||
+                distanceToCone(b, a.getPosition().getX(), a.getPosition().getY()) >= a.getRange()) {
+            return Result.CULLED_SECTOR;
+        }
+
+        return Result.CANDIDATE;
+    }
+
+    /**
+     * Tight axis aligned bounding box of the sprinkler sector.
+     *
+     * @return {minX, minY, maxX, maxY}
+     */
+    static double[] bounds(final Sprinkler s) {
+        final double cx = s.getPosition().getX(), cy = s.getPosition().getY(), r = s.getRange();
+        final double span = span(s);
+        if (span >= TWO_PI) {
+            return new double[] {cx - r, cy - r, cx + r, cy + r};
+        }
+
+        // The sector's apex and both ends of the arc...
+        final double[] box = {cx, cy, cx, cy};
+        include(box, cx + r * Math.cos(s.getStartAngle()), cy + r * Math.sin(s.getStartAngle()));
+        include(box, cx + r * Math.cos(s.getEndAngle()), cy + r * Math.sin(s.getEndAngle()));
+        // ...plus any axis extreme the arc passes through.
+        for (int k = 0; k < 4; k++) {
+            final double angle = k * Math.PI / 2;
+            if (withinSector(angle, s.getStartAngle(), span)) {
+                include(box, cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+            }
+        }
+        return box;
+    }
+
+    /**
+     * Distance from a point to the (infinite) cone of the sprinkler, i.e.
+     * the wedge from its position between start and end angle.
+     */
+    static double distanceToCone(final Sprinkler s, final double x, final double y) {
+        final double span = span(s);
+        final double vx = x - s.getPosition().getX(), vy = y - s.getPosition().getY();
+        if (span >= TWO_PI || (vx == 0 && vy == 0) ||
+                withinSector(Math.atan2(vy, vx), s.getStartAngle(), span)) {
+            return 0;
+        }
+        return Math.min(
+                distanceToRay(vx, vy, s.getStartAngle()),
+                distanceToRay(vx, vy, s.getEndAngle()));
+    }
+
+    private static double distanceToRay(final double vx, final double vy, final double angle) {
+        final double ux = Math.cos(angle), uy = Math.sin(angle);
+        final double t = vx * ux + vy * uy;
+        if (t <= 0) {
+            return Math.sqrt(vx * vx + vy * vy);
+        }
+        return Math.abs(vx * uy - vy * ux);
+    }
+
+    private static double span(final Sprinkler s) {
+        return s.getEndAngle() - s.getStartAngle();
+    }
+
+    private static boolean withinSector(final double angle, final double start, final double span) {
+        double delta = (angle - start) % TWO_PI;
+        if (delta < 0) {
+            delta += TWO_PI;
+        }
+        return delta <= span;
+    }
+
+    private static void include(final double[] box, final double x, final double y) {
+        box[0] = Math.min(box[0], x);
+        box[1] = Math.min(box[1], y);
+        box[2] = Math.max(box[2], x);
+        box[3] = Math.max(box[3], y);
+    }
+}
@@ -0,0 +1,25 @@
+package org.house.sprinklers.fitness;
+
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+/**
+ * Area computations behind the pairwise coverage of {@link ClipperFitnessInputCalculator}.
+ */
+public interface SprinklerGeometry {
+
+    /**
+     * Clips a single sprinkler against the terrain.
+     */
+    ClippedSprinkler clip(Sprinkler sprinkler, Terrain terrain) throws InterruptedException;
+
+    /**
+     * Area where two sprinklers overlap inside the terrain.
+     *
+     * @param clippedA Result of {@link #clip(Sprinkler, Terrain)} for <code>a</code>.
+     * @param clippedB Result of {@link #clip(Sprinkler, Terrain)} for <code>b</code>.
+     */
+    double overlapArea(Sprinkler a, ClippedSprinkler clippedA,
+                       Sprinkler b, ClippedSprinkler clippedB,
+                       Terrain terrain) throws InterruptedException;
+}
@@ -0,0 +1,16 @@
+package org.house.sprinklers.fitness;
+
+import lombok.Data;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+/**
+ * Overlap area of a {@link SprinklerPair}, restricted to the terrain
+ * both sprinklers were clipped against.
+ */
+@Data
+public class SprinklerOverlap {
+
+    private final Terrain terrain;
+
+    private final double area;
+}
@@ -0,0 +1,53 @@
+package org.house.sprinklers.fitness;
+
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+/**
+ * Unordered pair of sprinklers, used as key for overlap areas:
+ * (a, b) and (b, a) are equal and share the same hash.
+ */
+public final class SprinklerPair {
+
+    private final Sprinkler first;
+
+    private final Sprinkler second;
+
+    private final int hash;
+
+    public SprinklerPair(final Sprinkler a, final Sprinkler b) {
+        final int hashA = a.hashCode(), hashB = b.hashCode();
+        // Canonical order, so that the pair is symmetric.
+        if (hashA <= hashB) {
+            this.first = a;
+            this.second = b;
+        } else {
+            this.first = b;
+            this.second = a;
+        }
+        this.hash = 31 * Math.min(hashA, hashB) + Math.max(hashA, hashB);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SprinklerPair)) {
+            return false;
+        }
+        final SprinklerPair other = (SprinklerPair) o;
+        return hash == other.hash &&
+                ((first.equals(other.first) && second.equals(other.second)) ||
+                 (first.equals(other.second) && second.equals(other.first)));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "SprinklerPair(" + first + ", " + second + ")";
+    }
+}
@@ -0,0 +1,36 @@
+package org.house.sprinklers.genetics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+
+import java.util.List;
+
+/**
+ * Satisfied as soon as any of its conditions is.
+ *
+ * <p/>Every condition is checked on every call, even once another one is
+ * satisfied: stateful conditions (generation counts, stagnation) must see
+ * every generation.
+ */
+@Slf4j
+public class AnyStoppingCondition implements StoppingCondition {
+
+    private final List<StoppingCondition> conditions;
+
+    public AnyStoppingCondition(final List<StoppingCondition> conditions) {
+        this.conditions = conditions;
+    }
+
+    @Override
+    public boolean isSatisfied(final Population population) {
+        boolean satisfied = false;
+        for (StoppingCondition condition : conditions) {
+            if (condition.isSatisfied(population)) {
+                log.info("Stopping condition satisfied: {}", condition.getClass().getSimpleName());
+                satisfied = true;
+            }
+        }
+        return satisfied;
+    }
+}
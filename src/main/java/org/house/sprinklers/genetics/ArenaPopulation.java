@@ -0,0 +1,262 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.Population;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Elitist population of {@link SprinklersChromosome sprinkler chromosomes}
+ * kept in a {@link GeneArena} outside the Java heap, for populations too
+ * large for one object graph per chromosome.
+ *
+ * <p/>Offspring are added as objects and stored in the arena (and scored,
+ * if needed) on the first ordered access, like {@link HeapPopulation} indexes
+ * them. From then on chromosomes are only rebuilt when read: parents by
+ * selection, the fittest one, or a whole generation by listeners.
+ *
+ * <p/>Two arenas take turns: the next generation reuses the arena of the
+ * previous one, so a population must not be read once the generation after
+ * its next one was created. Listeners reading it later get a
+ * {@link #copy(ArenaPopulation) copy}.
+ */
+public class ArenaPopulation implements IndexedPopulation {
+
+    private final int populationLimit;
+
+    private final double elitismRate;
+
+    private final int expectedLength;
+
+    private final GeneArena arena;
+
+    /* Arena of the previous generation, reused by the next one. */
+    private GeneArena spare;
+
+    /* Operators every rebuilt chromosome shares. */
+    private SprinklersChromosome prototype;
+
+    /* Offspring added since the last ordered access. */
+    private final List<SprinklersChromosome> offspring = new ArrayList<>();
+
+    public ArenaPopulation(final List<Chromosome> chromosomes,
+                           final int populationLimit,
+                           final double elitismRate,
+                           final PopulationStorage storage,
+                           final int expectedLength)
+            throws NotPositiveException, NumberIsTooLargeException, OutOfRangeException {
+        this(Math.max(populationLimit, chromosomes.size()), elitismRate, storage, expectedLength);
+        for (Chromosome chromosome : chromosomes) {
+            addChromosome(chromosome);
+        }
+    }
+
+    public ArenaPopulation(final int populationLimit,
+                           final double elitismRate,
+                           final PopulationStorage storage,
+                           final int expectedLength)
+            throws NotPositiveException, OutOfRangeException {
+        this(checkLimit(populationLimit), checkRate(elitismRate), expectedLength,
+                new GeneArena(storage, populationLimit, (long) populationLimit * GeneArena.regionSize(expectedLength)),
+                null, null);
+    }
+
+    private ArenaPopulation(final int populationLimit,
+                            final double elitismRate,
+                            final int expectedLength,
+                            final GeneArena arena,
+                            final GeneArena spare,
+                            final SprinklersChromosome prototype) {
+        this.populationLimit = populationLimit;
+        this.elitismRate = elitismRate;
+        this.expectedLength = expectedLength;
+        this.arena = arena;
+        this.spare = spare;
+        this.prototype = prototype;
+        arena.reset(this);
+    }
+
+    private static int checkLimit(final int populationLimit) {
+        if (populationLimit < 0) {
+            throw new NotPositiveException(LocalizedFormats.POPULATION_LIMIT_NOT_POSITIVE, populationLimit);
+        }
+        return populationLimit;
+    }
+
+    private static double checkRate(final double elitismRate) {
+        if (elitismRate < 0 || elitismRate > 1) {
+            throw new OutOfRangeException(LocalizedFormats.ELITISM_RATE, elitismRate, 0, 1);
+        }
+        return elitismRate;
+    }
+
+    public double getElitismRate() {
+        return elitismRate;
+    }
+
+    public PopulationStorage getStorage() {
+        return arena.getStorage();
+    }
+
+    @Override
+    public int getPopulationSize() {
+        return arena.getHeap().size() + offspring.size();
+    }
+
+    @Override
+    public int getPopulationLimit() {
+        return populationLimit;
+    }
+
+    @Override
+    public void addChromosome(final Chromosome chromosome) throws NumberIsTooLargeException {
+        if (getPopulationSize() >= populationLimit) {
+            throw new NumberIsTooLargeException(LocalizedFormats.LIST_OF_CHROMOSOMES_BIGGER_THAN_POPULATION_SIZE,
+                    getPopulationSize(), populationLimit, false);
+        }
+        if (!(chromosome instanceof SprinklersChromosome)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.SIMPLE_MESSAGE,
+                    "Only sprinkler chromosomes can be stored off-heap, not " + chromosome);
+        }
+        if (prototype == null) {
+            prototype = (SprinklersChromosome) chromosome;
+        }
+        offspring.add((SprinklersChromosome) chromosome);
+    }
+
+    /**
+     * Offspring added since the last ordered access, the only chromosomes
+     * that may still need scoring.
+     */
+    public List<Chromosome> getOffspring() {
+        return Collections.unmodifiableList(offspring);
+    }
+
+    @Override
+    public Chromosome getFittestChromosome() {
+        final IndexedFitnessHeap heap = index();
+        return heap.size() == 0 ? null : arena.read(heap.fittestSlot(), prototype, false);
+    }
+
+    /**
+     * Same elite as {@link HeapPopulation#nextGeneration()}, copied from
+     * arena to arena.
+     */
+    @Override
+    public Population nextGeneration() {
+        final IndexedFitnessHeap heap = index();
+        final GeneArena next = spare != null ? spare :
+                new GeneArena(arena.getStorage(), populationLimit, Math.max(arena.used(), 1));
+        final ArenaPopulation nextGeneration =
+                new ArenaPopulation(populationLimit, elitismRate, expectedLength, next, arena, prototype);
+        final int elite = heap.size() - (int) Math.ceil((1.0 - elitismRate) * heap.size());
+        final int[] slots = heap.fittestSlots(elite);
+        for (int i = slots.length - 1; i >= 0; i--) {
+            next.copy(arena, slots[i]);
+        }
+        spare = null;
+        return nextGeneration;
+    }
+
+    /**
+     * @return Population with the same chromosomes in an arena of its own,
+     * which stays readable whatever happens to this one.
+     */
+    public ArenaPopulation copy() {
+        return copy(null);
+    }
+
+    /**
+     * Same as {@link #copy()}, reusing the arena of given population (a copy
+     * nobody reads any more) when it holds enough chromosomes.
+     */
+    public ArenaPopulation copy(final ArenaPopulation recycled) {
+        final IndexedFitnessHeap heap = index();
+        final int slots = Math.max(populationLimit, heap.size());
+        final GeneArena target = recycled != null && recycled.arena.getStorage() == arena.getStorage()
+                && recycled.arena.slots() >= slots ? recycled.arena :
+                new GeneArena(arena.getStorage(), slots, Math.max(arena.used(), 1));
+        final ArenaPopulation copy = new ArenaPopulation(populationLimit, elitismRate, expectedLength,
+                target, null, prototype);
+        for (int slot = 0; slot < heap.size(); slot++) {
+            copy.arena.copy(arena, slot);
+        }
+        return copy;
+    }
+
+    /**
+     * Statistics read from the arena, no chromosome is rebuilt.
+     */
+    PopulationStatistics.Summary summarize() {
+        final IndexedFitnessHeap heap = index();
+        final PopulationStatistics.Summary summary = new PopulationStatistics.Summary();
+        for (int slot = 0; slot < heap.size(); slot++) {
+            if (!arena.isProvisional(slot)) {
+                summary.add(heap.fitness(slot), arena.coveredArea(slot));
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Stores offspring added since the previous ordered access in the arena;
+     * slots follow the order chromosomes were added in.
+     */
+    @Override
+    public IndexedFitnessHeap index() {
+        checkOwner();
+        for (SprinklersChromosome chromosome : offspring) {
+            arena.add(chromosome);
+        }
+        offspring.clear();
+        return arena.getHeap();
+    }
+
+    @Override
+    public Chromosome getChromosome(final int slot) {
+        checkOwner();
+        return arena.read(slot, prototype, true);
+    }
+
+    /**
+     * Rebuilds stored chromosomes, then returns the offspring not stored yet;
+     * nothing is scored.
+     */
+    @Override
+    public Iterator<Chromosome> iterator() {
+        checkOwner();
+        final int stored = arena.getHeap().size();
+        return new Iterator<Chromosome>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < stored + offspring.size();
+            }
+
+            @Override
+            public Chromosome next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final int at = next++;
+                return at < stored ? arena.read(at, prototype, false) : offspring.get(at - stored);
+            }
+        };
+    }
+
+    private void checkOwner() {
+        if (arena.getOwner() != this) {
+            throw new IllegalStateException("Population arena was recycled by a later generation");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.house.sprinklers.genetics;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.ElitisticListPopulation;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands generations to another {@link PopulationListener} on a dedicated
+ * thread, so metrics and rendering never hold up evolution.
+ *
+ * <p/>Each generation is published as a snapshot (a copy of the population)
+ * to a bounded single-producer single-consumer ring buffer. When the consumer
+ * falls behind and the buffer is full, the {@link ListenerOverflowPolicy}
+ * decides what happens to new generations; per-generation metrics then have
+ * gaps.
+ *
+ * <p/>Snapshots of an {@link ArenaPopulation} reuse the arenas of snapshots
+ * already delivered or discarded, so at most capacity + 3 of them exist at
+ * once. The delegate must not keep a population once it returns.
+ *
+ * <p/>Generations must be published by one thread at a time.
+ */
+@Slf4j
+public class AsyncPopulationListener implements PopulationListener, AutoCloseable {
+
+    private final PopulationListener delegate;
+
+    private final ListenerOverflowPolicy overflowPolicy;
+
+    private final RecorderService recorderService;
+
+    private final Ring ring;
+
+    /* Latest generation coalesced while the ring was full. */
+    private final AtomicReference<Generation> overflow = new AtomicReference<>();
+
+    /* Arena snapshots nobody reads any more, see ArenaPopulation#copy(ArenaPopulation). */
+    private final Queue<ArenaPopulation> recycled = new ConcurrentLinkedQueue<>();
+
+    private final Thread consumer;
+
+    private volatile boolean closed;
+
+    public AsyncPopulationListener(final PopulationListener delegate,
+                                   final int capacity,
+                                   final ListenerOverflowPolicy overflowPolicy,
+                                   final RecorderService recorderService) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.overflowPolicy = overflowPolicy;
+        this.recorderService = recorderService;
+        this.ring = new Ring(capacity);
+        this.consumer = new Thread(this::consume, "population-listener");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public void onPopulation(final Population current, final int generation, final long durationInMillis) {
+        if (closed) {
+            throw new IllegalStateException("Listener is closed");
+        }
+        // Once a generation is coalesced, the next ones follow it until it is delivered, to keep their order
+        final boolean backlogged = overflow.get() != null || ring.isFull();
+        if (backlogged && overflowPolicy == ListenerOverflowPolicy.DROP) {
+            // Dropped before the copy, a full ring costs nothing to the algorithm
+            recorderService.increment(MetricsConstants.COUNTER_LISTENER_DROPPED);
+        } else {
+            final Generation published = new Generation(snapshot(current), generation, durationInMillis);
+            if (backlogged || !ring.offer(published)) {
+                final Generation coalesced = overflow.getAndSet(published);
+                if (coalesced != null) {
+                    recorderService.increment(MetricsConstants.COUNTER_LISTENER_COALESCED);
+                    recycle(coalesced);
+                }
+            }
+        }
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * Delivers the generations already published, then stops the consumer.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume() {
+        while (true) {
+            // Read before polling: once closed, everything published is visible
+            final boolean done = closed;
+            Generation generation = ring.poll();
+            if (generation == null) {
+                generation = overflow.getAndSet(null);
+            }
+            if (generation != null) {
+                deliver(generation);
+                recycle(generation);
+            } else if (done) {
+                return;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    private void deliver(final Generation generation) {
+        try {
+            delegate.onPopulation(generation.getPopulation(), generation.getGeneration(), generation.getDurationInMillis());
+        } catch (RuntimeException e) {
+            log.warn("Population listener failed on generation {}", generation.getGeneration(), e);
+        }
+    }
+
+    private void recycle(final Generation generation) {
+        if (generation.getPopulation() instanceof ArenaPopulation) {
+            recycled.offer((ArenaPopulation) generation.getPopulation());
+        }
+    }
+
+    /**
+     * The algorithm keeps using its population (e.g. to select parents), the
+     * listener reads a copy of it.
+     */
+    private Population snapshot(final Population population) {
+        if (population instanceof ArenaPopulation) {
+            return ((ArenaPopulation) population).copy(recycled.poll());
+        }
+        final List<Chromosome> chromosomes = new ArrayList<>(population.getPopulationSize());
+        for (Chromosome chromosome : population) {
+            chromosomes.add(chromosome);
+        }
+        return new HeapPopulation(
+                chromosomes,
+                Math.max(population.getPopulationLimit(), chromosomes.size()),
+                population instanceof ElitisticListPopulation ?
+                        ((ElitisticListPopulation) population).getElitismRate() : 0);
+    }
+
+    @Value
+    private static class Generation {
+        Population population;
+        int generation;
+        long durationInMillis;
+    }
+
+    /**
+     * Bounded buffer for one producer and one consumer: each index is only
+     * written by one side, and published with an ordered write once the slot
+     * is filled (or emptied).
+     */
+    private static final class Ring {
+
+        private final Generation[] slots;
+
+        /* Next slot to read, written by the consumer. */
+        private final AtomicLong head = new AtomicLong();
+
+        /* Next slot to write, written by the producer. */
+        private final AtomicLong tail = new AtomicLong();
+
+        Ring(final int capacity) {
+            this.slots = new Generation[capacity];
+        }
+
+        /**
+         * Only meaningful to the producer: the consumer can free a slot
+         * right after, never fill one.
+         */
+        boolean isFull() {
+            return tail.get() - head.get() == slots.length;
+        }
+
+        boolean offer(final Generation generation) {
+            final long at = tail.get();
+            if (at - head.get() == slots.length) {
+                return false;
+            }
+            slots[(int) (at % slots.length)] = generation;
+            tail.lazySet(at + 1);
+            return true;
+        }
+
+        Generation poll() {
+            final long at = head.get();
+            if (at == tail.get()) {
+                return null;
+            }
+            final int slot = (int) (at % slots.length);
+            final Generation generation = slots[slot];
+            slots[slot] = null;
+            head.lazySet(at + 1);
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+
+/**
+ * Satisfied once the population has converged: its diversity (see
+ * {@link PopulationStatistics#diversity(Population)}) fell below the given
+ * threshold. At least two exact fitness values are needed to tell, a
+ * population that is mostly screened never converges.
+ */
+public class DiversityCondition implements StoppingCondition {
+
+    private final double minimumDiversity;
+
+    public DiversityCondition(final double minimumDiversity) {
+        this.minimumDiversity = minimumDiversity;
+    }
+
+    @Override
+    public boolean isSatisfied(final Population population) {
+        final PopulationStatistics.Summary summary = PopulationStatistics.summarize(population);
+        return summary.getCount() > 1 && summary.getDiversity() < minimumDiversity;
+    }
+}
@@ -0,0 +1,37 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+import org.house.sprinklers.metrics.RecorderService;
+
+/**
+ * Satisfied once a counter (typically the fitness computations) grew by the
+ * given budget since the first call, so use a new instance per run.
+ */
+public class EvaluationBudgetCondition implements StoppingCondition {
+
+    private final RecorderService recorderService;
+
+    private final String counterName;
+
+    private final long maxEvaluations;
+
+    private long start = -1;
+
+    public EvaluationBudgetCondition(final RecorderService recorderService,
+                                     final String counterName,
+                                     final long maxEvaluations) {
+        this.recorderService = recorderService;
+        this.counterName = counterName;
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    @Override
+    public boolean isSatisfied(final Population population) {
+        final long evaluations = recorderService.getMetricValue(counterName, 0L);
+        if (start < 0) {
+            start = evaluations;
+        }
+        return evaluations - start >= maxEvaluations;
+    }
+}
@@ -0,0 +1,17 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Population;
+
+/**
+ * Scores the chromosomes of a new generation before it is handed to
+ * listeners and selection.
+ */
+public interface EvaluationPolicy {
+
+    /**
+     * Leaves chromosomes to be scored when first compared.
+     */
+    EvaluationPolicy LAZY = population -> {};
+
+    void evaluate(Population population);
+}
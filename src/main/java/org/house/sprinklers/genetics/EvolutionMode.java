@@ -0,0 +1,17 @@
+package org.house.sprinklers.genetics;
+
+/**
+ * How the population evolves from one generation to the next.
+ */
+public enum EvolutionMode {
+    /**
+     * {@link ListeningGeneticAlgorithm}: every generation is bred at once
+     * from the previous one.
+     */
+    GENERATIONAL,
+    /**
+     * {@link SteadyStateGeneticAlgorithm}: offspring replace the least fit
+     * individuals as soon as they are scored.
+     */
+    STEADY_STATE
+}
@@ -0,0 +1,352 @@
+package org.house.sprinklers.genetics;
+
+import org.house.sprinklers.fitness.FitnessInput;
+import org.house.sprinklers.fitness.GeneContributions;
+import org.house.sprinklers.sprinkler_system.PackedSprinklers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Evaluated chromosomes of an {@link ArenaPopulation}, stored as doubles in a
+ * buffer outside the Java heap, one region per slot:
+ * <pre>
+ *     per gene: x, y, range, startAngle, endAngle
+ *     numSprinklers, terrainArea, coveredArea, overlapArea, outsideArea
+ *     if the chromosome has gene contributions:
+ *         clipped area and area per gene, then the pairwise overlaps
+ * </pre>
+ * Fitness values live in the {@link IndexedFitnessHeap} of the arena, slots
+ * match. The buffer grows by doubling, the outgrown one is unmapped (or
+ * freed) right away; clearing keeps it.
+ *
+ * <p/>Reading slots is thread-safe, adding is not.
+ */
+final class GeneArena {
+
+    private static final int HEADER = 5;
+
+    private static final byte PROVISIONAL = 1;
+
+    private static final byte CONTRIBUTIONS = 2;
+
+    /* Largest buffer a ByteBuffer can address. */
+    private static final int MAX_DOUBLES = Integer.MAX_VALUE / Double.BYTES;
+
+    private final PopulationStorage storage;
+
+    private final IndexedFitnessHeap heap;
+
+    private final int[] offsets;
+
+    private final int[] lengths;
+
+    private final byte[] flags;
+
+    /* Buffer as allocated, the one to unmap or free. */
+    private ByteBuffer bytes;
+
+    private DoubleBuffer buffer;
+
+    /* Mapped file the platform could not delete while mapped, if any. */
+    private Path file;
+
+    /* Doubles in use. */
+    private int used;
+
+    /* Population currently stored, see ArenaPopulation. */
+    private Object owner;
+
+    GeneArena(final PopulationStorage storage, final int slots, final long doubles) {
+        this.storage = storage;
+        this.heap = new IndexedFitnessHeap(slots);
+        this.offsets = new int[slots];
+        this.lengths = new int[slots];
+        this.flags = new byte[slots];
+        allocate((int) Math.max(1, Math.min(MAX_DOUBLES, doubles)));
+    }
+
+    /**
+     * Doubles taken by a chromosome of given length with gene contributions.
+     */
+    static int regionSize(final int genes) {
+        return genes * PackedSprinklers.STRIDE + HEADER + 2 * genes + GeneContributions.pairCount(genes);
+    }
+
+    PopulationStorage getStorage() {
+        return storage;
+    }
+
+    IndexedFitnessHeap getHeap() {
+        return heap;
+    }
+
+    /**
+     * Number of chromosomes the arena holds.
+     */
+    int slots() {
+        return offsets.length;
+    }
+
+    /**
+     * Doubles in use.
+     */
+    int used() {
+        return used;
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    /**
+     * Empties the arena and hands it to a new population.
+     */
+    void reset(final Object owner) {
+        this.owner = owner;
+        this.used = 0;
+        heap.clear();
+        Arrays.fill(flags, (byte) 0);
+    }
+
+    /**
+     * Stores given chromosome, scoring it if needed.
+     *
+     * @return Slot of the chromosome.
+     */
+    int add(final SprinklersChromosome chromosome) {
+        final double fitness = chromosome.getFitness();
+        final FitnessInput input = chromosome.getRawFitnessData();
+        final PackedSprinklers genes = chromosome.getRepresentation();
+        final int n = genes.size();
+        final GeneContributions contributions = input.getContributions();
+        final boolean withContributions = contributions != null && contributions.size() == n;
+
+        final int slot = heap.size();
+        final int offset = reserve(withContributions ? regionSize(n) : regionSize(0) + n * PackedSprinklers.STRIDE);
+        int at = offset + genes.write(buffer, offset);
+        buffer.put(at++, input.getNumSprinklers());
+        buffer.put(at++, input.getTerrainArea());
+        buffer.put(at++, input.getCoveredArea());
+        buffer.put(at++, input.getOverlapArea());
+        buffer.put(at++, input.getOutsideArea());
+        if (withContributions) {
+            for (int i = 0; i < n; i++) {
+                buffer.put(at++, contributions.getClippedArea(i));
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.put(at++, contributions.getArea(i));
+            }
+            for (int i = 1; i < n; i++) {
+                for (int j = 0; j < i; j++) {
+                    buffer.put(at++, contributions.getOverlap(i, j));
+                }
+            }
+        }
+        used = at;
+
+        offsets[slot] = offset;
+        lengths[slot] = n;
+        flags[slot] = (byte) ((chromosome.isProvisional() ? PROVISIONAL : 0) | (withContributions ? CONTRIBUTIONS : 0));
+        heap.add(fitness);
+        return slot;
+    }
+
+    /**
+     * Stores a copy of given slot of another arena.
+     *
+     * @return Slot of the copy.
+     */
+    int copy(final GeneArena from, final int fromSlot) {
+        final int start = from.offsets[fromSlot];
+        final int size = (fromSlot + 1 < from.heap.size() ? from.offsets[fromSlot + 1] : from.used) - start;
+        final int slot = heap.size();
+        final int offset = reserve(size);
+        for (int i = 0; i < size; i++) {
+            buffer.put(offset + i, from.buffer.get(start + i));
+        }
+        used = offset + size;
+
+        offsets[slot] = offset;
+        lengths[slot] = from.lengths[fromSlot];
+        flags[slot] = from.flags[fromSlot];
+        heap.add(from.heap.fitness(fromSlot));
+        return slot;
+    }
+
+    /**
+     * Builds the chromosome in given slot, sharing the operators of the
+     * prototype. Gene contributions are only needed by parents, which are
+     * scored incrementally from them.
+     */
+    SprinklersChromosome read(final int slot, final SprinklersChromosome prototype, final boolean withContributions) {
+        final int n = lengths[slot];
+        final PackedSprinklers genes = PackedSprinklers.read(buffer, offsets[slot], n);
+        int at = offsets[slot] + n * PackedSprinklers.STRIDE;
+        final FitnessInput.FitnessInputBuilder input = FitnessInput.builder()
+                .numSprinklers((int) buffer.get(at++))
+                .terrainArea(buffer.get(at++))
+                .coveredArea(buffer.get(at++))
+                .overlapArea(buffer.get(at++))
+                .outsideArea(buffer.get(at++));
+        if (withContributions && (flags[slot] & CONTRIBUTIONS) != 0) {
+            final double[] clippedAreas = new double[n];
+            final double[] areas = new double[n];
+            final double[] overlaps = new double[GeneContributions.pairCount(n)];
+            for (int i = 0; i < n; i++) {
+                clippedAreas[i] = buffer.get(at++);
+            }
+            for (int i = 0; i < n; i++) {
+                areas[i] = buffer.get(at++);
+            }
+            for (int i = 0; i < overlaps.length; i++) {
+                overlaps[i] = buffer.get(at++);
+            }
+            input.contributions(new GeneContributions(prototype.getTerrain(), genes, clippedAreas, areas, overlaps));
+        }
+        return prototype.restore(genes, heap.fitness(slot), (flags[slot] & PROVISIONAL) != 0, input.build());
+    }
+
+    /**
+     * Coverage of the chromosome in given slot, without rebuilding it.
+     */
+    double coveredArea(final int slot) {
+        return buffer.get(offsets[slot] + lengths[slot] * PackedSprinklers.STRIDE + 2);
+    }
+
+    boolean isProvisional(final int slot) {
+        return (flags[slot] & PROVISIONAL) != 0;
+    }
+
+    /**
+     * @return Offset of <code>doubles</code> free doubles, growing the buffer if needed.
+     */
+    private int reserve(final int doubles) {
+        final long needed = (long) used + doubles;
+        if (needed > buffer.capacity()) {
+            if (needed > MAX_DOUBLES) {
+                throw new IllegalStateException("Population arena cannot hold more than " + MAX_DOUBLES + " doubles");
+            }
+            final ByteBuffer outgrownBytes = bytes;
+            final DoubleBuffer outgrown = buffer;
+            final Path outgrownFile = file;
+            allocate((int) Math.min(MAX_DOUBLES, Math.max(needed, 2L * buffer.capacity())));
+            for (int i = 0; i < used; i++) {
+                buffer.put(i, outgrown.get(i));
+            }
+            release(outgrownBytes, outgrownFile);
+        }
+        return used;
+    }
+
+    private void allocate(final int doubles) {
+        final int size = doubles * Double.BYTES;
+        switch (storage) {
+            case DIRECT:
+                bytes = ByteBuffer.allocateDirect(size);
+                file = null;
+                break;
+            case MAPPED:
+                map(size);
+                break;
+            default:
+                throw new IllegalArgumentException("Not an off-heap storage: " + storage);
+        }
+        buffer = bytes.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    /**
+     * Maps a new temporary file; the mapping outlives the file, which is
+     * deleted right away where the platform allows it.
+     */
+    private void map(final int size) {
+        try {
+            final Path mapped = Files.createTempFile("population", ".arena");
+            try (final FileChannel channel = FileChannel.open(mapped, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                bytes = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } finally {
+                file = null;
+                try {
+                    Files.delete(mapped);
+                } catch (IOException e) {
+                    // Some platforms cannot delete a mapped file, try again once unmapped
+                    file = mapped;
+                    mapped.toFile().deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map population arena", e);
+        }
+    }
+
+    /**
+     * Unmaps (or frees) an outgrown buffer instead of leaving it to the
+     * collector, then deletes its file if it is still there. Nothing reads
+     * it any more: chromosomes are rebuilt from copies of the buffer.
+     */
+    private static void release(final ByteBuffer outgrown, final Path outgrownFile) {
+        Cleaner.clean(outgrown);
+        if (outgrownFile != null) {
+            try {
+                Files.deleteIfExists(outgrownFile);
+            } catch (IOException e) {
+                // Still deleted on exit
+            }
+        }
+    }
+
+    /**
+     * Releases direct and mapped buffers through the JDK internals, where
+     * the JVM gives access to them; elsewhere buffers wait for the collector.
+     */
+    private static final class Cleaner {
+
+        /* Java 9 and later: Unsafe.invokeCleaner(ByteBuffer). */
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void clean(final ByteBuffer buffer) {
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                    return;
+                }
+                // Java 8: DirectByteBuffer.cleaner().clean()
+                final Method cleaner = buffer.getClass().getMethod("cleaner");
+                cleaner.setAccessible(true);
+                final Object bufferCleaner = cleaner.invoke(buffer);
+                if (bufferCleaner != null) {
+                    bufferCleaner.getClass().getMethod("clean").invoke(bufferCleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Left to the collector
+            }
+        }
+    }
+}
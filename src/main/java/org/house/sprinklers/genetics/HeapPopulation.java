@@ -0,0 +1,99 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.NullArgumentException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.NumberIsTooSmallException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.ElitisticListPopulation;
+import org.apache.commons.math3.genetics.Population;
+
+import java.util.List;
+
+/**
+ * {@link ElitisticListPopulation} keeping its chromosomes ordered by fitness
+ * in an {@link IndexedFitnessHeap}: the fittest chromosome is found in O(1)
+ * and the elite in O(k log k), instead of a scan and a full sort.
+ *
+ * <p/>Chromosomes are indexed on the first ordered access after they were
+ * added, so adding never scores a chromosome and evaluation policies can
+ * score offspring concurrently. Fitness values must not change once indexed.
+ */
+public class HeapPopulation extends ElitisticListPopulation implements IndexedPopulation {
+
+    private IndexedFitnessHeap heap;
+
+    public HeapPopulation(final List<Chromosome> chromosomes, final int populationLimit, final double elitismRate)
+            throws NullArgumentException, NotPositiveException, NumberIsTooLargeException, OutOfRangeException {
+        super(chromosomes, populationLimit, elitismRate);
+    }
+
+    public HeapPopulation(final int populationLimit, final double elitismRate)
+            throws NotPositiveException, OutOfRangeException {
+        super(populationLimit, elitismRate);
+    }
+
+    @Override
+    public Chromosome getFittestChromosome() {
+        final IndexedFitnessHeap heap = index();
+        return heap.size() == 0 ? null : heap.get(heap.fittestSlot());
+    }
+
+    public Chromosome getLeastFitChromosome() {
+        final IndexedFitnessHeap heap = index();
+        return heap.size() == 0 ? null : heap.get(heap.leastFitSlot());
+    }
+
+    /**
+     * Same elite as {@link ElitisticListPopulation#nextGeneration()}, added in
+     * the same (ascending fitness) order.
+     */
+    @Override
+    public Population nextGeneration() {
+        final HeapPopulation nextGeneration = new HeapPopulation(getPopulationLimit(), getElitismRate());
+        final IndexedFitnessHeap heap = index();
+        final int elite = heap.size() - (int) Math.ceil((1.0 - getElitismRate()) * heap.size());
+        final int[] slots = heap.fittestSlots(elite);
+        for (int i = slots.length - 1; i >= 0; i--) {
+            nextGeneration.addChromosome(heap.get(slots[i]));
+        }
+        return nextGeneration;
+    }
+
+    @Override
+    @Deprecated
+    public void setChromosomes(final List<Chromosome> chromosomes)
+            throws NullArgumentException, NumberIsTooLargeException {
+        super.setChromosomes(chromosomes);
+        heap = null;
+    }
+
+    @Override
+    public void setPopulationLimit(final int populationLimit) throws NotPositiveException, NumberIsTooSmallException {
+        super.setPopulationLimit(populationLimit);
+        heap = null;
+    }
+
+    /**
+     * Indexes chromosomes added since the previous ordered access. Slots match
+     * positions in the chromosome list; once indexed, the heap can be read
+     * from several threads.
+     */
+    @Override
+    public IndexedFitnessHeap index() {
+        final List<Chromosome> chromosomes = getChromosomeList();
+        if (heap == null) {
+            heap = new IndexedFitnessHeap(Math.max(getPopulationLimit(), chromosomes.size()));
+        }
+        for (int slot = heap.size(); slot < chromosomes.size(); slot++) {
+            heap.add(chromosomes.get(slot));
+        }
+        return heap;
+    }
+
+    @Override
+    public Chromosome getChromosome(final int slot) {
+        return index().get(slot);
+    }
+}
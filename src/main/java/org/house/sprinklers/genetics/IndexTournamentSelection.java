@@ -0,0 +1,120 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.genetics.ChromosomePair;
+import org.apache.commons.math3.genetics.GeneticAlgorithm;
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.SelectionPolicy;
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Tournament selection drawing slots of the fitness array cached by an
+ * {@link IndexedPopulation}, instead of copying the chromosome list like
+ * {@link org.apache.commons.math3.genetics.TournamentSelection} does on every
+ * tournament. Nothing is allocated per tournament.
+ *
+ * <p/>Each tournament has <code>arity</code> distinct contestants (all of them
+ * if the population is smaller). The fittest one wins with the given
+ * <code>probability</code>, otherwise the next fittest with the same
+ * probability, and so on: 1 always picks the fittest, lower values lower the
+ * selection pressure.
+ *
+ * <p/>Thread-safe, as long as the population is not modified while selecting.
+ */
+public class IndexTournamentSelection implements SelectionPolicy {
+
+    private final int arity;
+
+    private final double probability;
+
+    /* Contestant slots, reused by every tournament of a thread. */
+    private final ThreadLocal<int[]> contestants;
+
+    public IndexTournamentSelection(final int arity) {
+        this(arity, 1);
+    }
+
+    public IndexTournamentSelection(final int arity, final double probability)
+            throws NotStrictlyPositiveException, OutOfRangeException {
+        if (arity <= 0) {
+            throw new NotStrictlyPositiveException(LocalizedFormats.NUMBER_OF_ELEMENTS_SHOULD_BE_POSITIVE, arity);
+        }
+        if (probability <= 0 || probability > 1) {
+            throw new OutOfRangeException(LocalizedFormats.OUT_OF_RANGE_LEFT, probability, 0, 1);
+        }
+        this.arity = arity;
+        this.probability = probability;
+        this.contestants = ThreadLocal.withInitial(() -> new int[arity]);
+    }
+
+    public int getArity() {
+        return arity;
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * Draws from {@link GeneticAlgorithm#getRandomGenerator()}, like the
+     * commons-math selection policies.
+     *
+     * @param population Must be an {@link IndexedPopulation}.
+     */
+    @Override
+    public ChromosomePair select(final Population population) throws MathIllegalArgumentException {
+        if (!(population instanceof IndexedPopulation)) {
+            throw new MathIllegalArgumentException(LocalizedFormats.SIMPLE_MESSAGE,
+                    "Tournaments need an IndexedPopulation, not " + population.getClass().getSimpleName());
+        }
+        final IndexedPopulation indexed = (IndexedPopulation) population;
+        final IndexedFitnessHeap heap = indexed.index();
+        final RandomGenerator random = GeneticAlgorithm.getRandomGenerator();
+        return new ChromosomePair(
+                indexed.getChromosome(tournament(heap, random)),
+                indexed.getChromosome(tournament(heap, random)));
+    }
+
+    /**
+     * @return Slot of the winner of a tournament among the chromosomes of
+     * given heap.
+     */
+    public int tournament(final IndexedFitnessHeap heap, final RandomGenerator random) {
+        final int size = heap.size();
+        final int count = Math.min(arity, size);
+        final int[] slots = contestants.get();
+
+        // Floyd's sampling: count distinct slots out of size, one draw each
+        for (int i = 0, bound = size - count; i < count; i++, bound++) {
+            final int slot = random.nextInt(bound + 1);
+            slots[i] = contains(slots, i, slot) ? bound : slot;
+        }
+
+        int remaining = count;
+        while (true) {
+            int fittest = 0;
+            for (int i = 1; i < remaining; i++) {
+                if (heap.fitness(slots[i]) > heap.fitness(slots[fittest])) {
+                    fittest = i;
+                }
+            }
+            if (remaining == 1 || probability == 1 || random.nextDouble() < probability) {
+                return slots[fittest];
+            }
+            // Lost its draw, out of the tournament
+            slots[fittest] = slots[--remaining];
+        }
+    }
+
+    private static boolean contains(final int[] slots, final int length, final int slot) {
+        for (int i = 0; i < length; i++) {
+            if (slots[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
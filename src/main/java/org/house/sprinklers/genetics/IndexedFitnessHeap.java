@@ -0,0 +1,258 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-capacity set of chromosomes stored in slots, with the fittest and the
+ * least fit found in O(1), the k fittest or least fit in O(k log k) and a
+ * slot replaced in O(log n).
+ *
+ * <p/>Slots are indexed by a max-heap and a min-heap over the fitness cached
+ * when the chromosome was stored, each heap tracking the position of every
+ * slot so any slot can be re-sifted after a replacement. Equal fitness values
+ * are ordered by slot, like a stable sort of the slots would.
+ *
+ * <p/>Not thread-safe.
+ */
+public class IndexedFitnessHeap {
+
+    private final Chromosome[] chromosomes;
+
+    private final double[] fitness;
+
+    private final int[] maxHeap;
+    private final int[] maxPosition;
+
+    private final int[] minHeap;
+    private final int[] minPosition;
+
+    private int size;
+
+    public IndexedFitnessHeap(final int capacity) {
+        this.chromosomes = new Chromosome[capacity];
+        this.fitness = new double[capacity];
+        this.maxHeap = new int[capacity];
+        this.maxPosition = new int[capacity];
+        this.minHeap = new int[capacity];
+        this.minPosition = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return chromosomes.length;
+    }
+
+    public Chromosome get(final int slot) {
+        return chromosomes[slot];
+    }
+
+    /**
+     * @return Fitness of the chromosome in given slot, as cached when stored.
+     */
+    public double fitness(final int slot) {
+        return fitness[slot];
+    }
+
+    public int fittestSlot() {
+        return maxHeap[0];
+    }
+
+    public int leastFitSlot() {
+        return minHeap[0];
+    }
+
+    /**
+     * Stores given chromosome in a new slot, scoring it if needed.
+     *
+     * @return Slot of the chromosome.
+     */
+    public int add(final Chromosome chromosome) {
+        return add(chromosome, chromosome.getFitness());
+    }
+
+    /**
+     * Stores a new slot with given fitness and no chromosome, for
+     * populations keeping their chromosomes elsewhere.
+     *
+     * @return Slot of the fitness value.
+     */
+    public int add(final double fitness) {
+        return add(null, fitness);
+    }
+
+    /**
+     * Empties the heap, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(chromosomes, 0, size, null);
+        size = 0;
+    }
+
+    private int add(final Chromosome chromosome, final double chromosomeFitness) {
+        if (size == chromosomes.length) {
+            throw new IllegalStateException("Heap is full: " + size);
+        }
+        final int slot = size++;
+        chromosomes[slot] = chromosome;
+        fitness[slot] = chromosomeFitness;
+        maxHeap[slot] = slot;
+        maxPosition[slot] = slot;
+        minHeap[slot] = slot;
+        minPosition[slot] = slot;
+        siftUp(maxHeap, maxPosition, slot, 1);
+        siftUp(minHeap, minPosition, slot, -1);
+        return slot;
+    }
+
+    /**
+     * Stores given chromosome in place of the one in given slot, scoring it
+     * if needed.
+     *
+     * @return Chromosome previously in that slot.
+     */
+    public Chromosome replace(final int slot, final Chromosome chromosome) {
+        final Chromosome previous = chromosomes[slot];
+        chromosomes[slot] = chromosome;
+        fitness[slot] = chromosome.getFitness();
+        resift(maxHeap, maxPosition, slot, 1);
+        resift(minHeap, minPosition, slot, -1);
+        return previous;
+    }
+
+    /**
+     * @return Slots of the <code>k</code> fittest chromosomes, fittest first,
+     * in O(k log k).
+     */
+    public int[] fittestSlots(final int k) {
+        return topSlots(maxHeap, 1, k);
+    }
+
+    /**
+     * @return Slots of the <code>k</code> least fit chromosomes, least fit
+     * first, in O(k log k).
+     */
+    public int[] leastFitSlots(final int k) {
+        return topSlots(minHeap, -1, k);
+    }
+
+    private int[] topSlots(final int[] heap, final int sign, final int k) {
+        final int count = Math.min(k, size);
+        final int[] slots = new int[count];
+        // Frontier of heap positions, itself a heap on fitness
+        final int[] frontier = new int[count + 1];
+        int frontierSize = 0;
+        if (count > 0) {
+            frontier[frontierSize++] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            final int top = frontier[0];
+            slots[i] = heap[top];
+            frontier[0] = frontier[--frontierSize];
+            siftDownFrontier(heap, sign, frontier, frontierSize);
+            for (int child = 2 * top + 1; child <= 2 * top + 2 && child < size; child++) {
+                frontier[frontierSize++] = child;
+                siftUpFrontier(heap, sign, frontier, frontierSize - 1);
+            }
+        }
+        return slots;
+    }
+
+    public List<Chromosome> toList() {
+        return Arrays.asList(Arrays.copyOf(chromosomes, size));
+    }
+
+    private void resift(final int[] heap, final int[] position, final int slot, final int sign) {
+        final int at = position[slot];
+        if (siftUp(heap, position, slot, sign) == at) {
+            siftDown(heap, position, slot, sign);
+        }
+    }
+
+    /**
+     * Heap order: with sign 1 the fittest (then highest slot) is on top, with
+     * -1 the least fit (then lowest slot).
+     */
+    private boolean above(final int slot, final int other, final int sign) {
+        final int compare = Double.compare(fitness[slot], fitness[other]);
+        return sign * (compare != 0 ? compare : Integer.compare(slot, other)) > 0;
+    }
+
+    private int siftUp(final int[] heap, final int[] position, final int slot, final int sign) {
+        int at = position[slot];
+        while (at > 0) {
+            final int parent = (at - 1) >>> 1;
+            if (!above(slot, heap[parent], sign)) {
+                break;
+            }
+            move(heap, position, heap[parent], at);
+            at = parent;
+        }
+        move(heap, position, slot, at);
+        return at;
+    }
+
+    private void siftDown(final int[] heap, final int[] position, final int slot, final int sign) {
+        int at = position[slot];
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && above(heap[child + 1], heap[child], sign)) {
+                child++;
+            }
+            if (!above(heap[child], slot, sign)) {
+                break;
+            }
+            move(heap, position, heap[child], at);
+            at = child;
+        }
+        move(heap, position, slot, at);
+    }
+
+    private void siftDownFrontier(final int[] heap, final int sign, final int[] frontier, final int frontierSize) {
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= frontierSize) {
+                return;
+            }
+            if (child + 1 < frontierSize && above(heap[frontier[child + 1]], heap[frontier[child]], sign)) {
+                child++;
+            }
+            if (!above(heap[frontier[child]], heap[frontier[at]], sign)) {
+                return;
+            }
+            swap(frontier, at, child);
+            at = child;
+        }
+    }
+
+    private void siftUpFrontier(final int[] heap, final int sign, final int[] frontier, int at) {
+        while (at > 0) {
+            final int parent = (at - 1) >>> 1;
+            if (!above(heap[frontier[at]], heap[frontier[parent]], sign)) {
+                return;
+            }
+            swap(frontier, at, parent);
+            at = parent;
+        }
+    }
+
+    private static void swap(final int[] array, final int i, final int j) {
+        final int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    private static void move(final int[] heap, final int[] position, final int slot, final int at) {
+        heap[at] = slot;
+        position[slot] = at;
+    }
+}
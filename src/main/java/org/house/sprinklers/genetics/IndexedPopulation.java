@@ -0,0 +1,22 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.Population;
+
+/**
+ * Population ordering its chromosomes by fitness in an
+ * {@link IndexedFitnessHeap}, see {@link IndexTournamentSelection}.
+ */
+public interface IndexedPopulation extends Population {
+
+    /**
+     * Scores and indexes chromosomes added since the previous call; the
+     * heap can then be read from several threads.
+     */
+    IndexedFitnessHeap index();
+
+    /**
+     * @return Chromosome in given slot of the {@link #index() heap}.
+     */
+    Chromosome getChromosome(int slot);
+}
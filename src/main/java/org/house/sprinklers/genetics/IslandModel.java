@@ -0,0 +1,210 @@
+package org.house.sprinklers.genetics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.GeneticAlgorithm;
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Evolves independent populations ("islands"), each on its own thread.
+ * Every <code>migrationInterval</code> generations an island sends its best
+ * <code>migrants</code> chromosomes through the {@link MigrationChannel}, and
+ * replaces its worst chromosomes with the migrants it received, when they are
+ * fitter. Each island stops once its own stopping condition is satisfied.
+ *
+ * <p/>Islands never wait for each other, so which migrants an island sees
+ * depends on timing: island runs are not reproducible, even with a fixed seed.
+ */
+@Slf4j
+public class IslandModel {
+
+    private List<GeneticAlgorithm> algorithms;
+
+    private IntFunction<HeapPopulation> populations;
+
+    /* A new condition per island, conditions are stateful. */
+    private Supplier<StoppingCondition> stoppingConditions;
+
+    private MigrationChannel channel;
+
+    private int migrationInterval;
+
+    private int migrants;
+
+    private RecorderService recorderService;
+
+    /* Generations evolved by the island of the last evolve() result. */
+    private volatile int generationsEvolved;
+
+    /**
+     * @param algorithms         One algorithm per island, each drawing from its own random streams.
+     * @param populations        Initial population of given island.
+     * @param stoppingConditions Stopping condition of an island, asked once per island.
+     */
+    public IslandModel(final List<GeneticAlgorithm> algorithms,
+                       final IntFunction<HeapPopulation> populations,
+                       final Supplier<StoppingCondition> stoppingConditions,
+                       final MigrationChannel channel,
+                       final int migrationInterval,
+                       final int migrants,
+                       final RecorderService recorderService) {
+        this.algorithms = algorithms;
+        this.populations = populations;
+        this.stoppingConditions = stoppingConditions;
+        this.channel = channel;
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+        this.recorderService = recorderService;
+    }
+
+    /**
+     * @return Final population of the island holding the fittest chromosome.
+     */
+    public Population evolve() {
+        final ExecutorService executor = Executors.newFixedThreadPool(algorithms.size());
+        try {
+            final List<Future<Epochs>> islands = new ArrayList<>(algorithms.size());
+            for (int i = 0; i < algorithms.size(); i++) {
+                final int island = i;
+                islands.add(executor.submit(() -> evolveIsland(island)));
+            }
+
+            Epochs fittest = null;
+            for (Future<Epochs> island : islands) {
+                final Epochs epochs = island.get();
+                if (fittest == null || epochs.population.getFittestChromosome()
+                        .compareTo(fittest.population.getFittestChromosome()) > 0) {
+                    fittest = epochs;
+                }
+            }
+            generationsEvolved = fittest.generations;
+            return fittest.population;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evolving islands", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to evolve islands", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Generations evolved by the island whose population the last
+     * {@link #evolve()} returned.
+     */
+    public int getGenerationsEvolved() {
+        return generationsEvolved;
+    }
+
+    private Epochs evolveIsland(final int island) {
+        final GeneticAlgorithm algorithm = algorithms.get(island);
+        final Epochs epochs = new Epochs(stoppingConditions.get(), migrationInterval, populations.apply(island));
+        while (true) {
+            epochs.population = (HeapPopulation) algorithm.evolve(epochs.population, epochs.next());
+            if (epochs.stopped) {
+                break;
+            }
+            emigrate(island, epochs.population);
+            epochs.population = immigrate(island, epochs.population);
+        }
+        log.debug("Island {} done after {} generations, fittest {}",
+                island, epochs.generations, epochs.population.getFittestChromosome().getFitness());
+        channel.complete(island, epochs.population.getFittestChromosome());
+        return epochs;
+    }
+
+    private void emigrate(final int island, final HeapPopulation population) {
+        final IndexedFitnessHeap heap = population.index();
+        final List<Chromosome> sent = new ArrayList<>(migrants);
+        for (int slot : heap.fittestSlots(migrants)) {
+            sent.add(heap.get(slot));
+        }
+        channel.emigrate(island, sent);
+        recorderService.increment(MetricsConstants.COUNTER_ISLAND_MIGRANTS_SENT, sent.size());
+    }
+
+    private HeapPopulation immigrate(final int island, final HeapPopulation population) {
+        final List<Chromosome> received = channel.immigrate(island);
+        if (received.isEmpty()) {
+            return population;
+        }
+
+        // Fittest migrants take the place of the least fit residents
+        final IndexedFitnessHeap immigrants = new IndexedFitnessHeap(received.size());
+        received.forEach(immigrants::add);
+        final int[] fittestImmigrants = immigrants.fittestSlots(migrants);
+        final IndexedFitnessHeap heap = population.index();
+        final int[] leastFitResidents = heap.leastFitSlots(fittestImmigrants.length);
+        final List<Chromosome> residents = heap.toList();
+        int accepted = 0;
+        for (int i = 0; i < leastFitResidents.length; i++) {
+            final Chromosome immigrant = immigrants.get(fittestImmigrants[i]);
+            if (immigrant.compareTo(residents.get(leastFitResidents[i])) > 0) {
+                residents.set(leastFitResidents[i], immigrant);
+                accepted++;
+            }
+        }
+        recorderService.increment(MetricsConstants.COUNTER_ISLAND_MIGRANTS_ACCEPTED, accepted);
+
+        return accepted == 0 ? population :
+                new HeapPopulation(residents, population.getPopulationLimit(), population.getElitismRate());
+    }
+
+    /**
+     * Run of an island, evolved <code>length</code> generations at a time
+     * until its stopping condition is satisfied. The condition is only asked
+     * before a generation would be bred, never at the end of an epoch, so
+     * stateful conditions see the generations the island actually evolved.
+     */
+    private static final class Epochs implements StoppingCondition {
+
+        private final StoppingCondition stoppingCondition;
+
+        private final int length;
+
+        private HeapPopulation population;
+
+        private int generations;
+
+        private int end;
+
+        private boolean stopped;
+
+        Epochs(final StoppingCondition stoppingCondition, final int length, final HeapPopulation population) {
+            this.stoppingCondition = stoppingCondition;
+            this.length = length;
+            this.population = population;
+        }
+
+        Epochs next() {
+            end = generations + length;
+            return this;
+        }
+
+        @Override
+        public boolean isSatisfied(final Population population) {
+            if (stopped || generations == end) {
+                return true;
+            }
+            if (stoppingCondition.isSatisfied(population)) {
+                stopped = true;
+                return true;
+            }
+            generations++;
+            return false;
+        }
+    }
+}
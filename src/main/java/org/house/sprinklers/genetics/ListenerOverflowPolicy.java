@@ -0,0 +1,17 @@
+package org.house.sprinklers.genetics;
+
+/**
+ * What {@link AsyncPopulationListener} does with a generation published while
+ * its buffer is full.
+ */
+public enum ListenerOverflowPolicy {
+    /**
+     * The generation is never delivered.
+     */
+    DROP,
+    /**
+     * Only the latest generation published while the buffer was full is
+     * delivered, once the buffer has been drained.
+     */
+    COALESCE
+}
@@ -1,52 +1,199 @@
 package org.house.sprinklers.genetics;
 
 import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.ChromosomePair;
 import org.apache.commons.math3.genetics.CrossoverPolicy;
 import org.apache.commons.math3.genetics.GeneticAlgorithm;
 import org.apache.commons.math3.genetics.MutationPolicy;
 import org.apache.commons.math3.genetics.Population;
 import org.apache.commons.math3.genetics.SelectionPolicy;
 import org.apache.commons.math3.genetics.StoppingCondition;
+import org.apache.commons.math3.random.RandomGenerator;
 import org.house.sprinklers.metrics.MetricsConstants;
 import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.random.RandomStreams;
+import org.house.sprinklers.random.TaskRandomGenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Extends {@link org.apache.commons.math3.genetics.GeneticAlgorithm} in order
  * to provide listeners for population evolution and chromosomes.
+ *
+ * <p/>Offspring pairs are bred concurrently. Every pair is a task with its
+ * own random stream, derived from the run seed, the generation and the pair
+ * index; results are placed by index, so a run is reproducible whatever
+ * the number of threads.
+ *
+ * <p/>When {@link MemeticRefinement} is due, the refined fittest chromosomes
+ * of a generation join the next one along with its elite.
  */
-public class ListeningGeneticAlgorithm extends GeneticAlgorithm {
+public class ListeningGeneticAlgorithm extends GeneticAlgorithm implements Resumable {
 
     private PopulationListener populationListener;
 
     private RecorderService recorderService;
 
+    private EvaluationPolicy evaluationPolicy;
+
+    private MemeticRefinement memeticRefinement;
+
+    private TaskRandomGenerator randomGenerator;
+
+    /* Draws of the crossover/mutation rates. */
+    private RandomGenerator rateRandom;
+
+    private RandomStreams randomStreams;
+
+    private ForkJoinPool pool;
+
+    /* Generations bred so far, coordinate of the random streams. */
+    private int generation;
+
     public ListeningGeneticAlgorithm(CrossoverPolicy crossoverPolicy,
                                      double crossoverRate,
                                      MutationPolicy mutationPolicy,
                                      double mutationRate,
                                      SelectionPolicy selectionPolicy,
                                      final RecorderService recorderService,
-                                     PopulationListener populationListener) throws OutOfRangeException {
+                                     PopulationListener populationListener,
+                                     EvaluationPolicy evaluationPolicy,
+                                     MemeticRefinement memeticRefinement,
+                                     TaskRandomGenerator randomGenerator,
+                                     RandomStreams randomStreams,
+                                     ForkJoinPool pool) throws OutOfRangeException {
         super(crossoverPolicy, crossoverRate, mutationPolicy, mutationRate, selectionPolicy);
         this.recorderService = recorderService;
         this.populationListener = populationListener;
+        this.evaluationPolicy = evaluationPolicy;
+        this.memeticRefinement = memeticRefinement;
+        this.randomGenerator = randomGenerator;
+        this.rateRandom = randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_GENETIC_ALGORITHM);
+        this.randomStreams = randomStreams;
+        this.pool = pool;
     }
 
     @Override
     public Population evolve(Population initial, StoppingCondition condition) {
         Population current = initial;
         /* TODO PopulationListener is not called for initial population */
-        /* the number of generations evolved to reach {@link StoppingCondition} in the last run. */
-        int generationsEvolved = 0;
+        evaluationPolicy.evaluate(current);
         while (!condition.isSatisfied(current)) {
             long start = System.currentTimeMillis();
+            final int bred = generation;
             current = nextGeneration(current);
+            evaluationPolicy.evaluate(current);
             long end = System.currentTimeMillis();
-            populationListener.onPopulation(current, generationsEvolved, end - start);
-            generationsEvolved++;
+            // Counters are up to date when the generation is published, checkpoints rely on it
+            randomGenerator.publishDraws();
+            recorderService.increment(MetricsConstants.COUNTER_GA_GENERATIONS);
+            populationListener.onPopulation(current, bred, end - start);
         }
 
-        recorderService.increment(MetricsConstants.COUNTER_GA_GENERATIONS, generationsEvolved);
         return current;
     }
+
+    @Override
+    public void resumeAt(final int generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Same steps as {@link GeneticAlgorithm#nextGeneration(Population)}, with
+     * offspring pairs bred in parallel.
+     */
+    @Override
+    public Population nextGeneration(final Population current) {
+        // Selection only reads fitness values, make sure none is computed concurrently
+        if (current instanceof IndexedPopulation) {
+            ((IndexedPopulation) current).index();
+        } else {
+            for (Chromosome chromosome : current) {
+                chromosome.getFitness();
+            }
+        }
+
+        final Population nextGeneration = current.nextGeneration();
+        final int bred = generation++;
+        if (memeticRefinement.isDue(bred)) {
+            refine(current, nextGeneration, bred);
+        }
+
+        final int missing = nextGeneration.getPopulationLimit() - nextGeneration.getPopulationSize();
+        final ChromosomePair[] pairs = new ChromosomePair[(missing + 1) / 2];
+        inPool(() -> IntStream.range(0, pairs.length).parallel().forEach(i ->
+                pairs[i] = randomGenerator.callWith(randomStreams.stream(bred, i), () -> breed(current))),
+                "breeding generation " + bred);
+
+        for (ChromosomePair pair : pairs) {
+            nextGeneration.addChromosome(pair.getFirst());
+            if (nextGeneration.getPopulationSize() < nextGeneration.getPopulationLimit()) {
+                nextGeneration.addChromosome(pair.getSecond());
+            }
+        }
+        return nextGeneration;
+    }
+
+    /**
+     * Adds the improved fittest chromosomes of the current generation to the next one.
+     */
+    private void refine(final Population current, final Population nextGeneration, final int bred) {
+        final List<Chromosome> fittest = fittest(current, memeticRefinement.getTopK());
+        final Chromosome[] refined = new Chromosome[fittest.size()];
+        inPool(() -> IntStream.range(0, refined.length).parallel().forEach(i ->
+                refined[i] = memeticRefinement.refine(fittest.get(i))),
+                "refining generation " + bred);
+
+        for (int i = 0; i < refined.length; i++) {
+            if (refined[i] != fittest.get(i) && nextGeneration.getPopulationSize() < nextGeneration.getPopulationLimit()) {
+                nextGeneration.addChromosome(refined[i]);
+            }
+        }
+    }
+
+    private static List<Chromosome> fittest(final Population population, final int k) {
+        final List<Chromosome> fittest = new ArrayList<>(k);
+        if (population instanceof IndexedPopulation) {
+            final IndexedPopulation indexed = (IndexedPopulation) population;
+            for (int slot : indexed.index().fittestSlots(k)) {
+                fittest.add(indexed.getChromosome(slot));
+            }
+            return fittest;
+        }
+        for (Chromosome chromosome : population) {
+            fittest.add(chromosome);
+        }
+        Collections.sort(fittest, Collections.reverseOrder());
+        return new ArrayList<>(fittest.subList(0, Math.min(k, fittest.size())));
+    }
+
+    private void inPool(final Runnable task, final String what) {
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while " + what, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed " + what, e.getCause());
+        }
+    }
+
+    private ChromosomePair breed(final Population current) {
+        ChromosomePair pair = getSelectionPolicy().select(current);
+        if (rateRandom.nextDouble() < getCrossoverRate()) {
+            pair = getCrossoverPolicy().crossover(pair.getFirst(), pair.getSecond());
+        }
+        if (rateRandom.nextDouble() < getMutationRate()) {
+            pair = new ChromosomePair(
+                    getMutationPolicy().mutate(pair.getFirst()),
+                    getMutationPolicy().mutate(pair.getSecond()));
+        }
+        return pair;
+    }
 }
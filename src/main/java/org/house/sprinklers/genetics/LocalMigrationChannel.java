@@ -0,0 +1,43 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hands migrants over between islands of the same JVM, through lock-free
+ * inboxes.
+ */
+public class LocalMigrationChannel implements MigrationChannel {
+
+    private List<Queue<Chromosome>> inboxes;
+
+    private MigrationTopology topology;
+
+    public LocalMigrationChannel(final int islands, final MigrationTopology topology) {
+        this.topology = topology;
+        this.inboxes = new ArrayList<>(islands);
+        for (int i = 0; i < islands; i++) {
+            inboxes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public void emigrate(final int island, final List<Chromosome> migrants) {
+        for (int target : topology.targets(island, inboxes.size())) {
+            inboxes.get(target).addAll(migrants);
+        }
+    }
+
+    @Override
+    public List<Chromosome> immigrate(final int island) {
+        final List<Chromosome> received = new ArrayList<>();
+        for (Chromosome chromosome; (chromosome = inboxes.get(island).poll()) != null; ) {
+            received.add(chromosome);
+        }
+        return received;
+    }
+}
@@ -0,0 +1,151 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.exception.TooManyEvaluationsException;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.InvalidRepresentationException;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memetic stage: every <code>interval</code> generations the
+ * <code>topK</code> fittest chromosomes are refined by a Nelder-Mead search
+ * over the continuous parameters of their genes, and the improved ones join
+ * the population.
+ *
+ * <p/>Genes are refined one at a time (position, range and angles), the
+ * others held fixed, so the gene count never changes. Every candidate is a
+ * child of the best chromosome so far: it is scored through the fitness
+ * input cache and incrementally, only the changed gene being computed.
+ * Candidates with an invalid gene are worse than any valid one.
+ *
+ * <p/>The search is deterministic, it draws no random numbers. Thread-safe.
+ */
+public class MemeticRefinement {
+
+    private final int interval;
+
+    private final int topK;
+
+    private final int evaluationsPerGene;
+
+    /* Initial simplex: x, y, range, startAngle, endAngle. */
+    private final double[] steps;
+
+    private final RecorderService recorderService;
+
+    public MemeticRefinement(final int interval,
+                             final int topK,
+                             final int evaluationsPerGene,
+                             final double step,
+                             final double angleStep,
+                             final RecorderService recorderService) {
+        this.interval = interval;
+        this.topK = topK;
+        this.evaluationsPerGene = evaluationsPerGene;
+        this.steps = new double[] {step, step, step, angleStep, angleStep};
+        this.recorderService = recorderService;
+    }
+
+    /**
+     * @return Whether the chromosomes of given generation get refined.
+     */
+    public boolean isDue(final int generation) {
+        return interval > 0 && topK > 0 && (generation + 1) % interval == 0;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * @return A fitter chromosome with the same gene count, or the given one
+     * if none was found.
+     */
+    public Chromosome refine(final Chromosome chromosome) {
+        if (!(chromosome instanceof SprinklersChromosome)) {
+            return chromosome;
+        }
+        final Best best = new Best((SprinklersChromosome) chromosome);
+        for (int gene = 0; gene < best.chromosome.getLength(); gene++) {
+            refineGene(best, gene);
+        }
+
+        if (best.chromosome == chromosome) {
+            return chromosome;
+        }
+        recorderService.increment(MetricsConstants.COUNTER_MEMETIC_IMPROVEMENTS);
+        return best.chromosome;
+    }
+
+    private void refineGene(final Best best, final int gene) {
+        final SprinklersChromosome parent = best.chromosome;
+        final Sprinkler start = parent.getRepresentation().get(gene);
+        final MultivariateFunction objective = point -> {
+            recorderService.increment(MetricsConstants.COUNTER_MEMETIC_EVALUATIONS);
+            final List<Sprinkler> genes = new ArrayList<>(parent.getRepresentation());
+            genes.set(gene, new Sprinkler(new Point2D.Double(point[0], point[1]), point[2], point[3], point[4]));
+            final Chromosome candidate;
+            try {
+                candidate = parent.newFixedLengthChromosome(genes);
+            } catch (InvalidRepresentationException e) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            return best.offer((SprinklersChromosome) candidate);
+        };
+
+        try {
+            new SimplexOptimizer(1e-6, 1e-9).optimize(
+                    new MaxEval(evaluationsPerGene),
+                    new ObjectiveFunction(objective),
+                    GoalType.MAXIMIZE,
+                    new InitialGuess(new double[] {
+                            start.getPosition().getX(),
+                            start.getPosition().getY(),
+                            start.getRange(),
+                            start.getStartAngle(),
+                            start.getEndAngle()}),
+                    new NelderMeadSimplex(steps));
+        } catch (TooManyEvaluationsException e) {
+            // Budget spent, keep the best candidate seen
+        }
+    }
+
+    /**
+     * Fittest chromosome seen during a refinement.
+     */
+    private static final class Best {
+
+        private SprinklersChromosome chromosome;
+
+        private double fitness;
+
+        Best(final SprinklersChromosome chromosome) {
+            chromosome.scoreExactly();
+            this.chromosome = chromosome;
+            this.fitness = chromosome.getFitness();
+        }
+
+        double offer(final SprinklersChromosome candidate) {
+            // Always compare exact values, never pay for a screen estimate first
+            candidate.scoreExactly();
+            final double candidateFitness = candidate.getFitness();
+            if (candidateFitness > fitness) {
+                chromosome = candidate;
+                fitness = candidateFitness;
+            }
+            return candidateFitness;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+
+import java.util.List;
+
+/**
+ * Carries migrants between islands of an {@link IslandModel}.
+ */
+public interface MigrationChannel {
+
+    /**
+     * Sends migrants of given island to its targets. Must not block.
+     */
+    void emigrate(int island, List<Chromosome> migrants);
+
+    /**
+     * @return Migrants received by given island since the previous call.
+     */
+    List<Chromosome> immigrate(int island);
+
+    /**
+     * Called once an island is done evolving.
+     */
+    default void complete(int island, Chromosome fittest) {
+    }
+}
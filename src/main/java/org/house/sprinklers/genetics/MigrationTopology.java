@@ -0,0 +1,43 @@
+package org.house.sprinklers.genetics;
+
+import java.util.stream.IntStream;
+
+/**
+ * Which islands receive the migrants of an island (see {@link IslandModel}).
+ */
+public enum MigrationTopology {
+    /**
+     * Each island sends to the next one, the last one to the first.
+     */
+    RING {
+        @Override
+        public int[] targets(final int island, final int islands) {
+            return islands > 1 ? new int[] { (island + 1) % islands } : new int[0];
+        }
+    },
+    /**
+     * Island 0 is the hub: it sends to every other island, which all send
+     * back to it.
+     */
+    STAR {
+        @Override
+        public int[] targets(final int island, final int islands) {
+            return island == 0 ? others(island, islands) : new int[] { 0 };
+        }
+    },
+    /**
+     * Each island sends to every other island.
+     */
+    FULL {
+        @Override
+        public int[] targets(final int island, final int islands) {
+            return others(island, islands);
+        }
+    };
+
+    public abstract int[] targets(int island, int islands);
+
+    private static int[] others(final int island, final int islands) {
+        return IntStream.range(0, islands).filter(i -> i != island).toArray();
+    }
+}
@@ -0,0 +1,24 @@
+package org.house.sprinklers.genetics;
+
+/**
+ * Chromosome whose fitness may first come from a cheap estimate, and be
+ * replaced by the exact value on demand.
+ */
+public interface MultiFidelityChromosome {
+
+    /**
+     * @return whether the current fitness is an estimate.
+     */
+    boolean isProvisional();
+
+    /**
+     * Replaces a provisional fitness by the exact one; no-op otherwise.
+     */
+    void rescore();
+
+    /**
+     * Scores with the exact fitness, without an estimate first if the
+     * chromosome was not scored yet; no-op if already exact.
+     */
+    void scoreExactly();
+}
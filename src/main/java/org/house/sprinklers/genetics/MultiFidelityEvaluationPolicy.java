@@ -0,0 +1,93 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.ElitisticListPopulation;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Screens every chromosome with its cheap fitness, then re-scores exactly
+ * the top-k of the generation and any chromosome that would make it into
+ * the elitist set (at least the fittest one). Afterwards the fittest
+ * chromosomes of the population, as seen by
+ * {@link Population#getFittestChromosome()} and elitism, are all exact.
+ */
+public class MultiFidelityEvaluationPolicy implements EvaluationPolicy {
+
+    private int rescoreTopK;
+
+    private RecorderService recorderService;
+
+    public MultiFidelityEvaluationPolicy(final int rescoreTopK, final RecorderService recorderService) {
+        this.rescoreTopK = rescoreTopK;
+        this.recorderService = recorderService;
+    }
+
+    @Override
+    public void evaluate(final Population population) {
+        final List<Chromosome> chromosomes = new ArrayList<>(population.getPopulationSize());
+        long screened = 0, rescored = 0;
+        for (Chromosome chromosome : population) {
+            chromosome.getFitness();
+            chromosomes.add(chromosome);
+            screened += isProvisional(chromosome) ? 1 : 0;
+        }
+
+        Collections.sort(chromosomes, Collections.reverseOrder());
+        for (int i = 0; i < Math.min(rescoreTopK, chromosomes.size()); i++) {
+            rescored += rescore(chromosomes.get(i));
+        }
+
+        // Exact values may rank lower than their estimates, so guarded
+        // positions are re-checked until they only hold exact values.
+        final int guarded = Math.min(chromosomes.size(), Math.max(1, eliteCount(population)));
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Collections.sort(chromosomes, Collections.reverseOrder());
+            for (int i = 0; i < guarded; i++) {
+                if (isProvisional(chromosomes.get(i))) {
+                    rescored += rescore(chromosomes.get(i));
+                    changed = true;
+                }
+            }
+        }
+
+        recorderService.increment(MetricsConstants.COUNTER_MULTI_FIDELITY_SCREENED, screened);
+        recorderService.increment(MetricsConstants.COUNTER_MULTI_FIDELITY_RESCORED, rescored);
+    }
+
+    /**
+     * Mirrors {@link ElitisticListPopulation#nextGeneration()}.
+     */
+    private static int eliteCount(final Population population) {
+        final double elitismRate;
+        if (population instanceof ElitisticListPopulation) {
+            elitismRate = ((ElitisticListPopulation) population).getElitismRate();
+        } else if (population instanceof ArenaPopulation) {
+            elitismRate = ((ArenaPopulation) population).getElitismRate();
+        } else {
+            return 0;
+        }
+        final int size = population.getPopulationSize();
+        return size - (int) Math.ceil((1.0 - elitismRate) * size);
+    }
+
+    private static boolean isProvisional(final Chromosome chromosome) {
+        return chromosome instanceof MultiFidelityChromosome &&
+                ((MultiFidelityChromosome) chromosome).isProvisional();
+    }
+
+    private static int rescore(final Chromosome chromosome) {
+        if (!isProvisional(chromosome)) {
+            return 0;
+        }
+        ((MultiFidelityChromosome) chromosome).rescore();
+        return 1;
+    }
+}
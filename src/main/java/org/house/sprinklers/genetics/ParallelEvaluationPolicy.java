@@ -0,0 +1,66 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scores every chromosome of the population on a work-stealing pool, and
+ * waits for all of them before handing the population to the next policy.
+ * Selection and elitism then only read cached fitness values.
+ */
+public class ParallelEvaluationPolicy implements EvaluationPolicy {
+
+    private ForkJoinPool pool;
+
+    private EvaluationPolicy next;
+
+    private RecorderService recorderService;
+
+    public ParallelEvaluationPolicy(final ForkJoinPool pool,
+                                    final EvaluationPolicy next,
+                                    final RecorderService recorderService) {
+        this.pool = pool;
+        this.next = next;
+        this.recorderService = recorderService;
+    }
+
+    @Override
+    public void evaluate(final Population population) {
+        final Instant start = Instant.now();
+
+        // Elitism and selection may put the same instance twice in a population
+        final Set<Chromosome> unique = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Chromosomes stored off-heap are scored already
+        final Iterable<Chromosome> unscored = population instanceof ArenaPopulation ?
+                ((ArenaPopulation) population).getOffspring() : population;
+        for (Chromosome chromosome : unscored) {
+            unique.add(chromosome);
+        }
+        final List<Chromosome> chromosomes = new ArrayList<>(unique);
+
+        try {
+            pool.submit(() -> chromosomes.parallelStream().forEach(Chromosome::getFitness)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating population", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to evaluate population", e.getCause());
+        }
+
+        recorderService.submit(MetricsConstants.METRIC_GA_EVALUATION,
+                Duration.between(start, Instant.now()).toMillis());
+        next.evaluate(population);
+    }
+}
@@ -0,0 +1,101 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.fitness.FitnessInput;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Per-generation statistics, shared by listeners and stopping conditions.
+ * Provisional fitness values (see {@link MultiFidelityChromosome}) are left
+ * out of every statistic.
+ */
+public final class PopulationStatistics {
+
+    private PopulationStatistics() {}
+
+    public static Stream<Chromosome> exactChromosomes(final Population population) {
+        return StreamSupport.stream(population.spliterator(), true)
+                .filter(c -> !isProvisional(c));
+    }
+
+    public static double averageFitness(final Population population) {
+        return summarize(population).getAverageFitness();
+    }
+
+    /**
+     * Standard deviation of the exact fitness values.
+     */
+    public static double diversity(final Population population) {
+        return summarize(population).getDiversity();
+    }
+
+    /**
+     * Gathers every statistic in a single pass; an {@link ArenaPopulation}
+     * is read in place, without rebuilding its chromosomes.
+     */
+    @SuppressWarnings("unchecked")
+    public static Summary summarize(final Population population) {
+        if (population instanceof ArenaPopulation) {
+            return ((ArenaPopulation) population).summarize();
+        }
+        final Summary summary = new Summary();
+        for (Chromosome chromosome : population) {
+            if (!isProvisional(chromosome)) {
+                summary.add(chromosome.getFitness(), chromosome instanceof DataAwareChromosome ?
+                        ((DataAwareChromosome<FitnessInput>) chromosome).getRawFitnessData().getCoveredArea() : 0);
+            }
+        }
+        return summary;
+    }
+
+    private static boolean isProvisional(final Chromosome chromosome) {
+        return chromosome instanceof MultiFidelityChromosome && ((MultiFidelityChromosome) chromosome).isProvisional();
+    }
+
+    /**
+     * Statistics of the exact chromosomes of a population.
+     */
+    public static final class Summary {
+
+        private int count;
+
+        /* Running mean and sum of squared deviations of fitness values (Welford). */
+        private double meanFitness;
+        private double squares;
+
+        private double coveredArea;
+
+        void add(final double fitness, final double coveredArea) {
+            count++;
+            final double delta = fitness - meanFitness;
+            meanFitness += delta / count;
+            squares += delta * (fitness - meanFitness);
+            this.coveredArea += coveredArea;
+        }
+
+        public double getAverageFitness() {
+            return meanFitness;
+        }
+
+        /**
+         * Number of exact chromosomes summarized.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Standard deviation of the exact fitness values.
+         */
+        public double getDiversity() {
+            return count == 0 ? 0 : Math.sqrt(squares / count);
+        }
+
+        public double getAverageCoveredArea() {
+            return count == 0 ? 0 : coveredArea / count;
+        }
+    }
+}
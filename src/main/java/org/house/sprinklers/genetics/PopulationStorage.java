@@ -0,0 +1,21 @@
+package org.house.sprinklers.genetics;
+
+/**
+ * Where the chromosomes of a generational population are kept between
+ * generations.
+ */
+public enum PopulationStorage {
+    /**
+     * {@link HeapPopulation}: chromosome objects on the Java heap.
+     */
+    OBJECTS,
+    /**
+     * {@link ArenaPopulation} in direct memory, outside the Java heap.
+     */
+    DIRECT,
+    /**
+     * {@link ArenaPopulation} in a memory-mapped temporary file, paged out
+     * by the operating system when memory runs short.
+     */
+    MAPPED
+}
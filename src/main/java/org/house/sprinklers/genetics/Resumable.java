@@ -0,0 +1,12 @@
+package org.house.sprinklers.genetics;
+
+/**
+ * Genetic algorithm able to continue a run from a checkpoint.
+ */
+public interface Resumable {
+    /**
+     * @param generation Next generation to breed, drawing from the random
+     *                   streams the original run would have used for it.
+     */
+    void resumeAt(int generation);
+}
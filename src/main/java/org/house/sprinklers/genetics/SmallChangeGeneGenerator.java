@@ -1,7 +1,6 @@
 package org.house.sprinklers.genetics;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.math3.random.JDKRandomGenerator;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.house.sprinklers.metrics.MetricsConstants;
 import org.house.sprinklers.metrics.RecorderService;
@@ -27,24 +26,25 @@ public class SmallChangeGeneGenerator implements Function<Sprinkler, Sprinkler>
 
     private static final int WARNING_COUNTER = 100;
 
-    private static final RandomGenerator randomGenerator = new JDKRandomGenerator();
 
     private static final Double SMALL_ANGLE = Math.PI / 18;
 
-    private static final DoubleSupplier[] functions = {
-            () -> 10 * randomGenerator.nextDouble(),
-            () -> 10 * randomGenerator.nextDouble(),
-            () -> 10 * randomGenerator.nextDouble(),
-            () -> 2 * Math.PI * randomGenerator.nextDouble(),
-            () -> 2 * Math.PI * randomGenerator.nextDouble()
+    private RandomGenerator random;
+
+    private final DoubleSupplier[] functions = {
+            () -> 10 * random.nextDouble(),
+            () -> 10 * random.nextDouble(),
+            () -> 10 * random.nextDouble(),
+            () -> 2 * Math.PI * random.nextDouble(),
+            () -> 2 * Math.PI * random.nextDouble()
     };
 
-    private static final DoubleSupplier[] smallChangeFunctions = {
-            () -> -1 + 2 * randomGenerator.nextDouble(),
-            () -> -1 + 2 * randomGenerator.nextDouble(),
-            () -> -1 + 2 * randomGenerator.nextDouble(),
-            () -> -SMALL_ANGLE + 2 * SMALL_ANGLE * randomGenerator.nextDouble(),
-            () -> -SMALL_ANGLE + 2 * SMALL_ANGLE * randomGenerator.nextDouble()
+    private final DoubleSupplier[] smallChangeFunctions = {
+            () -> -1 + 2 * random.nextDouble(),
+            () -> -1 + 2 * random.nextDouble(),
+            () -> -1 + 2 * random.nextDouble(),
+            () -> -SMALL_ANGLE + 2 * SMALL_ANGLE * random.nextDouble(),
+            () -> -SMALL_ANGLE + 2 * SMALL_ANGLE * random.nextDouble()
     };
 
     private SprinklerValidator sprinklerValidator;
@@ -55,10 +55,12 @@ public class SmallChangeGeneGenerator implements Function<Sprinkler, Sprinkler>
 
     public SmallChangeGeneGenerator(final SprinklerValidator sprinklerValidator,
                                     final GeneGeneratorConfiguration geneGeneratorConfiguration,
-                                    final RecorderService recorderService) {
+                                    final RecorderService recorderService,
+                                    final RandomGenerator random) {
         this.sprinklerValidator = sprinklerValidator;
         this.geneGeneratorConfiguration = geneGeneratorConfiguration;
         this.recorderService = recorderService;
+        this.random = random;
     }
 
     @Override
@@ -77,11 +79,11 @@ public class SmallChangeGeneGenerator implements Function<Sprinkler, Sprinkler>
     private Sprinkler generateMutatedValidSprinkler(Sprinkler original) {
         // All fields can be changed, but individually
         final boolean[] newFields = new boolean[] {
-                randomGenerator.nextDouble() < geneGeneratorConfiguration.getProbabilityChangePosX(),
-                randomGenerator.nextDouble() < geneGeneratorConfiguration.getProbabilityChangePosY(),
-                randomGenerator.nextDouble() < geneGeneratorConfiguration.getProbabilityChangeRadius(),
-                randomGenerator.nextDouble() < geneGeneratorConfiguration.getProbabilityChangeAngleStart(),
-                randomGenerator.nextDouble() < geneGeneratorConfiguration.getProbabilityChangeAngleEnd()
+                random.nextDouble() < geneGeneratorConfiguration.getProbabilityChangePosX(),
+                random.nextDouble() < geneGeneratorConfiguration.getProbabilityChangePosY(),
+                random.nextDouble() < geneGeneratorConfiguration.getProbabilityChangeRadius(),
+                random.nextDouble() < geneGeneratorConfiguration.getProbabilityChangeAngleStart(),
+                random.nextDouble() < geneGeneratorConfiguration.getProbabilityChangeAngleEnd()
         };
 
         final double[] fieldValues = new double[] {
@@ -163,5 +165,4 @@ public class SmallChangeGeneGenerator implements Function<Sprinkler, Sprinkler>
             return false;
         }
     }
-
 }
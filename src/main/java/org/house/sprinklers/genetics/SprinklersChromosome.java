@@ -7,8 +7,13 @@ import org.house.sprinklers.GeneticAlgorithmProperties;
 import org.house.sprinklers.fitness.FitnessCalculator;
 import org.house.sprinklers.fitness.FitnessInput;
 import org.house.sprinklers.fitness.FitnessInputCalculator;
+import org.house.sprinklers.fitness.GeneContributions;
+import org.house.sprinklers.fitness.MeteredCache;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
 import org.house.sprinklers.population.InvalidSprinklerException;
 import org.house.sprinklers.population.SprinklerValidator;
+import org.house.sprinklers.sprinkler_system.PackedSprinklers;
 import org.house.sprinklers.sprinkler_system.Sprinkler;
 import org.house.sprinklers.sprinkler_system.terrain.Terrain;
 
@@ -16,32 +21,87 @@ import java.util.List;
 
 /**
  * Chromosome representation using a list of
- * {@link org.house.sprinklers.sprinkler_system.Sprinkler sprinklers}.
+ * {@link org.house.sprinklers.sprinkler_system.Sprinkler sprinklers}, kept
+ * {@link PackedSprinklers packed}: sprinklers are only built to evaluate
+ * the chromosome, or by whoever reads its representation.
+ *
+ * <p/>Fitness inputs are shared between chromosomes through a cache keyed
+ * by the content of the representation, so a gene list that was already
+ * scored (e.g. parents returned unchanged by crossover) costs a single
+ * lookup.
+ *
+ * <p/>Children created through {@link #newFixedLengthChromosome(List)} remember
+ * the per-gene contributions of this chromosome, so they are scored
+ * incrementally: only genes changed by mutation or crossover are computed.
+ *
+ * <p/>With a screen calculator, new chromosomes are first scored with it and
+ * their fitness is provisional until {@link #rescore()}.
+ *
+ * <p/>Every fitness input actually computed, exact or screened, counts as
+ * one evaluation ({@link MetricsConstants#COUNTER_FITNESS_EVALUATIONS}).
  */
-public class SprinklersChromosome extends AbstractListChromosome<Sprinkler> {
+public class SprinklersChromosome extends AbstractListChromosome<Sprinkler>
+        implements DataAwareChromosome<FitnessInput>, MultiFidelityChromosome {
+
+    private final PackedSprinklers genes;
 
     private SprinklerValidator sprinklerValidator;
     private FitnessCalculator fitnessCalculator;
     private FitnessInputCalculator fitnessInputCalculator;
+    /* Cheap engine for provisional scores, null to always score exactly. */
+    private FitnessInputCalculator screenInputCalculator;
+    private MeteredCache<List<Sprinkler>, FitnessInput> fitnessInputCache;
     private Terrain terrain;
     private GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties;
+    private RecorderService recorderService;
+
+    private FitnessInput fitnessInput;
+    /* Contributions of the chromosome this one was derived from, dropped once evaluated. */
+    private GeneContributions parentContributions;
+    private double currentFitness = Double.NaN;
+    private boolean provisional;
 
     public SprinklersChromosome(final List<Sprinkler> representation,
                                 final SprinklerValidator sprinklerValidator,
                                 final FitnessCalculator fitnessCalculator,
                                 final FitnessInputCalculator fitnessInputCalculator,
+                                final FitnessInputCalculator screenInputCalculator,
+                                final MeteredCache<List<Sprinkler>, FitnessInput> fitnessInputCache,
                                 final Terrain terrain,
-                                GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties)
+                                GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties,
+                                final RecorderService recorderService)
+            throws InvalidRepresentationException {
+        this(PackedSprinklers.of(representation), sprinklerValidator, fitnessCalculator, fitnessInputCalculator,
+                screenInputCalculator, fitnessInputCache, terrain, chromosomeProperties, recorderService, true);
+    }
+
+    private SprinklersChromosome(final PackedSprinklers genes,
+                                 final SprinklerValidator sprinklerValidator,
+                                 final FitnessCalculator fitnessCalculator,
+                                 final FitnessInputCalculator fitnessInputCalculator,
+                                 final FitnessInputCalculator screenInputCalculator,
+                                 final MeteredCache<List<Sprinkler>, FitnessInput> fitnessInputCache,
+                                 final Terrain terrain,
+                                 GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties,
+                                 final RecorderService recorderService,
+                                 final boolean validate)
             throws InvalidRepresentationException {
 
-        super(representation);
+        // Immutable already, no need for a copy
+        super(genes, false);
+        this.genes = genes;
         this.sprinklerValidator = sprinklerValidator;
         this.fitnessCalculator = fitnessCalculator;
         this.fitnessInputCalculator = fitnessInputCalculator;
+        this.screenInputCalculator = screenInputCalculator;
+        this.fitnessInputCache = fitnessInputCache;
         this.terrain = terrain;
         this.chromosomeProperties = chromosomeProperties;
+        this.recorderService = recorderService;
 
-        checkValidity(representation);
+        if (validate) {
+            checkValidity(genes);
+        }
     }
 
     @Override
@@ -65,15 +125,103 @@ public class SprinklersChromosome extends AbstractListChromosome<Sprinkler> {
     public AbstractListChromosome<Sprinkler> newFixedLengthChromosome(
             final List<Sprinkler> chromosomeRepresentation) {
         ensureChromosomeValidSize(chromosomeRepresentation);
-        return new SprinklersChromosome(chromosomeRepresentation, sprinklerValidator, fitnessCalculator, fitnessInputCalculator, terrain, chromosomeProperties);
+        final SprinklersChromosome child = new SprinklersChromosome(chromosomeRepresentation, sprinklerValidator, fitnessCalculator, fitnessInputCalculator, screenInputCalculator, fitnessInputCache, terrain, chromosomeProperties, recorderService);
+        // A provisional parent has no contributions yet, hand down the ones it was derived from
+        if (fitnessInput != null && fitnessInput.getContributions() != null) {
+            child.parentContributions = fitnessInput.getContributions();
+        } else {
+            child.parentContributions = parentContributions;
+        }
+        return child;
+    }
+
+    /**
+     * Chromosome of given genes, evaluated before: it is neither validated
+     * nor scored again. See {@link ArenaPopulation}.
+     */
+    SprinklersChromosome restore(final PackedSprinklers genes,
+                                 final double fitness,
+                                 final boolean provisional,
+                                 final FitnessInput fitnessInput) {
+        final SprinklersChromosome chromosome = new SprinklersChromosome(genes, sprinklerValidator, fitnessCalculator, fitnessInputCalculator, screenInputCalculator, fitnessInputCache, terrain, chromosomeProperties, recorderService, false);
+        chromosome.currentFitness = fitness;
+        chromosome.provisional = provisional;
+        chromosome.fitnessInput = fitnessInput;
+        return chromosome;
+    }
+
+    Terrain getTerrain() {
+        return terrain;
+    }
+
+    @Override
+    public double getFitness() {
+        if (Double.isNaN(currentFitness)) {
+            currentFitness = screenInputCalculator == null ? fitness() : screenedFitness();
+        }
+        return currentFitness;
+    }
+
+    @Override
+    public boolean isProvisional() {
+        return provisional;
+    }
+
+    @Override
+    public void rescore() {
+        if (provisional) {
+            currentFitness = fitness();
+        }
+    }
+
+    @Override
+    public void scoreExactly() {
+        if (Double.isNaN(currentFitness) || provisional) {
+            currentFitness = fitness();
+        }
+    }
+
+    /**
+     * Exact fitness when already known for this representation, screen
+     * estimate otherwise.
+     */
+    private double screenedFitness() {
+        try {
+            ensureChromosomeValidSize(genes);
+
+            FitnessInput input = fitnessInputCache.getIfPresent(genes);
+            if (input != null) {
+                this.fitnessInput = input;
+                this.parentContributions = null;
+                return fitnessCalculator.computeFitness(input);
+            }
+            input = screenInputCalculator.computeFitnessInput(genes.unpack(), terrain);
+            recorderService.increment(MetricsConstants.COUNTER_FITNESS_EVALUATIONS);
+            this.fitnessInput = input;
+            this.provisional = true;
+            return fitnessCalculator.computeFitness(input);
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Unable to compute Chromosome fitness", e);
+        }
     }
 
     @Override
     public double fitness() {
         try {
-            ensureChromosomeValidSize(getRepresentation());
-            final FitnessInput fitnessInput = fitnessInputCalculator.computeFitnessInput(getRepresentation(), terrain);
-            return fitnessCalculator.computeFitness(fitnessInput);
+            ensureChromosomeValidSize(genes);
+
+            // Genes are immutable, it is safe to use them as key.
+            FitnessInput input = fitnessInputCache.getIfPresent(genes);
+            if (input == null) {
+                // Engines get sprinklers built once per evaluation, not on every access
+                input = fitnessInputCalculator.computeFitnessInput(genes.unpack(), terrain, parentContributions);
+                recorderService.increment(MetricsConstants.COUNTER_FITNESS_EVALUATIONS);
+                fitnessInputCache.put(genes, input);
+            }
+            this.fitnessInput = input;
+            this.parentContributions = null;
+            this.provisional = false;
+            return fitnessCalculator.computeFitness(input);
         } catch (InterruptedException e) {
             throw new RuntimeException("Unable to compute Chromosome fitness", e);
         }
@@ -87,7 +235,15 @@ public class SprinklersChromosome extends AbstractListChromosome<Sprinkler> {
     }
 
     @Override
-    public List<Sprinkler> getRepresentation() {
-        return super.getRepresentation();
+    public FitnessInput getRawFitnessData() {
+        if (fitnessInput == null) {
+            getFitness();
+        }
+        return fitnessInput;
+    }
+
+    @Override
+    public PackedSprinklers getRepresentation() {
+        return genes;
     }
 }
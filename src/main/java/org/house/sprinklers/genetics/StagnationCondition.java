@@ -0,0 +1,34 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+
+/**
+ * Satisfied once the best fitness has not improved for the given number of
+ * generations. Like {@link org.apache.commons.math3.genetics.FixedGenerationCount},
+ * every call counts as a generation, so use a new instance per run.
+ */
+public class StagnationCondition implements StoppingCondition {
+
+    private final int generations;
+
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+
+    private int stagnant;
+
+    public StagnationCondition(final int generations) {
+        this.generations = generations;
+    }
+
+    @Override
+    public boolean isSatisfied(final Population population) {
+        final double fitness = population.getFittestChromosome().getFitness();
+        if (fitness > bestFitness) {
+            bestFitness = fitness;
+            stagnant = 0;
+        } else {
+            stagnant++;
+        }
+        return stagnant >= generations;
+    }
+}
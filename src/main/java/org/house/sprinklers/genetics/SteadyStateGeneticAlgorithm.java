@@ -0,0 +1,280 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.exception.OutOfRangeException;
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.ChromosomePair;
+import org.apache.commons.math3.genetics.CrossoverPolicy;
+import org.apache.commons.math3.genetics.ElitisticListPopulation;
+import org.apache.commons.math3.genetics.GeneticAlgorithm;
+import org.apache.commons.math3.genetics.MutationPolicy;
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.random.RandomStreams;
+import org.house.sprinklers.random.TaskRandomGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Steady-state alternative to {@link ListeningGeneticAlgorithm}: every step
+ * breeds one offspring pair from the current population and each child
+ * replaces the least fit individual, if it is fitter.
+ *
+ * <p/>Steps run back to back on every thread of the pool, with no barrier
+ * between generations; the population is only locked to pick parents and to
+ * insert children. Every <i>population limit</i> children count as a
+ * generation: listeners get a snapshot and the stopping condition is checked.
+ *
+ * <p/>Step n draws from its own random stream, so a run is reproducible with
+ * a single thread; with more, the order steps see each other's children
+ * depends on timing.
+ *
+ * <p/>When {@link MemeticRefinement} is due at the end of a generation,
+ * refined chromosomes are offered like children.
+ *
+ * <p/>Children are always scored exactly, never with a screen estimate (see
+ * {@link MultiFidelityChromosome}).
+ */
+public class SteadyStateGeneticAlgorithm extends GeneticAlgorithm implements Resumable {
+
+    private IndexTournamentSelection selectionPolicy;
+
+    private PopulationListener populationListener;
+
+    private RecorderService recorderService;
+
+    private EvaluationPolicy evaluationPolicy;
+
+    private MemeticRefinement memeticRefinement;
+
+    private TaskRandomGenerator randomGenerator;
+
+    /* Draws of the crossover/mutation rates. */
+    private RandomGenerator rateRandom;
+
+    /* Draws of the tournaments. */
+    private RandomGenerator selectionRandom;
+
+    private RandomStreams randomStreams;
+
+    private ForkJoinPool pool;
+
+    /* Steps run so far, coordinate of the random streams. */
+    private final AtomicLong steps = new AtomicLong();
+
+    /* Generations ended so far. */
+    private int generation;
+
+    public SteadyStateGeneticAlgorithm(CrossoverPolicy crossoverPolicy,
+                                       double crossoverRate,
+                                       MutationPolicy mutationPolicy,
+                                       double mutationRate,
+                                       IndexTournamentSelection selectionPolicy,
+                                       final RecorderService recorderService,
+                                       PopulationListener populationListener,
+                                       EvaluationPolicy evaluationPolicy,
+                                       MemeticRefinement memeticRefinement,
+                                       TaskRandomGenerator randomGenerator,
+                                       RandomStreams randomStreams,
+                                       ForkJoinPool pool) throws OutOfRangeException {
+        super(crossoverPolicy, crossoverRate, mutationPolicy, mutationRate, selectionPolicy);
+        this.selectionPolicy = selectionPolicy;
+        this.recorderService = recorderService;
+        this.populationListener = populationListener;
+        this.evaluationPolicy = evaluationPolicy;
+        this.memeticRefinement = memeticRefinement;
+        this.randomGenerator = randomGenerator;
+        this.rateRandom = randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_GENETIC_ALGORITHM);
+        this.selectionRandom = randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_SELECTION);
+        this.randomStreams = randomStreams;
+        this.pool = pool;
+    }
+
+    @Override
+    public Population evolve(final Population initial, final StoppingCondition condition) {
+        evaluationPolicy.evaluate(initial);
+
+        final Run run = new Run(initial, condition);
+        if (run.stopped) {
+            return run.snapshot();
+        }
+
+        final List<Future<?>> workers = new ArrayList<>(pool.getParallelism());
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            workers.add(pool.submit(() -> work(run)));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            run.stopped = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evolving", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to evolve", e.getCause());
+        }
+
+        return run.snapshot();
+    }
+
+    /**
+     * Steps of a generation are not numbered exactly with several threads,
+     * the random streams are resumed from <i>generation * limit / 2</i>.
+     */
+    @Override
+    public void resumeAt(final int generation) {
+        this.generation = generation;
+        this.steps.set(-1);
+    }
+
+    private void work(final Run run) {
+        try {
+            while (!run.stopped) {
+                final long step = steps.getAndIncrement();
+                randomGenerator.callWith(randomStreams.stream(step, 0), () -> step(run));
+                final long bred = run.bred.addAndGet(2);
+                if (bred / run.heap.capacity() != (bred - 2) / run.heap.capacity()) {
+                    run.endGeneration();
+                }
+            }
+        } catch (RuntimeException e) {
+            run.stopped = true;
+            throw e;
+        }
+    }
+
+    private Void step(final Run run) {
+        ChromosomePair pair;
+        synchronized (run.heap) {
+            pair = new ChromosomePair(
+                    run.heap.get(selectionPolicy.tournament(run.heap, selectionRandom)),
+                    run.heap.get(selectionPolicy.tournament(run.heap, selectionRandom)));
+        }
+
+        // Breeding and scoring, the expensive part, run outside the lock
+        if (rateRandom.nextDouble() < getCrossoverRate()) {
+            pair = getCrossoverPolicy().crossover(pair.getFirst(), pair.getSecond());
+        }
+        if (rateRandom.nextDouble() < getMutationRate()) {
+            pair = new ChromosomePair(
+                    getMutationPolicy().mutate(pair.getFirst()),
+                    getMutationPolicy().mutate(pair.getSecond()));
+        }
+        score(pair.getFirst());
+        score(pair.getSecond());
+
+        synchronized (run.heap) {
+            offer(run.heap, pair.getFirst());
+            offer(run.heap, pair.getSecond());
+        }
+        return null;
+    }
+
+    private static void score(final Chromosome chromosome) {
+        if (chromosome instanceof MultiFidelityChromosome) {
+            // No screen estimate, it would be replaced right away
+            ((MultiFidelityChromosome) chromosome).scoreExactly();
+        } else {
+            chromosome.getFitness();
+        }
+    }
+
+    private void offer(final IndexedFitnessHeap heap, final Chromosome child) {
+        if (heap.size() < heap.capacity()) {
+            heap.add(child);
+        } else if (child.getFitness() > heap.fitness(heap.leastFitSlot())) {
+            heap.replace(heap.leastFitSlot(), child);
+            recorderService.increment(MetricsConstants.COUNTER_STEADY_STATE_REPLACEMENTS);
+        } else {
+            recorderService.increment(MetricsConstants.COUNTER_STEADY_STATE_REJECTIONS);
+        }
+    }
+
+    /**
+     * State of a single {@link #evolve(Population, StoppingCondition)} call.
+     */
+    private final class Run {
+
+        private final IndexedFitnessHeap heap;
+
+        private final StoppingCondition condition;
+
+        private final double elitismRate;
+
+        /* Children bred so far. */
+        private final AtomicLong bred = new AtomicLong();
+
+        private volatile boolean stopped;
+
+        private long generationStart = System.currentTimeMillis();
+
+        Run(final Population initial, final StoppingCondition condition) {
+            this.heap = new IndexedFitnessHeap(initial.getPopulationLimit());
+            if (steps.get() < 0) {
+                // Resumed, a generation is population limit children, two per step
+                steps.set(generation * (long) ((heap.capacity() + 1) / 2));
+            }
+            for (Chromosome chromosome : initial) {
+                score(chromosome);
+                heap.add(chromosome);
+            }
+            this.condition = condition;
+            this.elitismRate = initial instanceof ElitisticListPopulation ?
+                    ((ElitisticListPopulation) initial).getElitismRate() : 0;
+            this.stopped = condition.isSatisfied(snapshot());
+        }
+
+        /**
+         * Stopping conditions may be stateful, so generations end one at a time.
+         */
+        synchronized void endGeneration() {
+            if (memeticRefinement.isDue(generation)) {
+                refine();
+            }
+            final Population snapshot = snapshot();
+            final long now = System.currentTimeMillis();
+            // Counters are up to date when the generation is published, checkpoints rely on it
+            randomGenerator.publishDraws();
+            recorderService.increment(MetricsConstants.COUNTER_GA_GENERATIONS);
+            populationListener.onPopulation(snapshot, generation++, now - generationStart);
+            generationStart = now;
+            if (condition.isSatisfied(snapshot)) {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Other steps go on while the fittest chromosomes are refined.
+         */
+        private void refine() {
+            final List<Chromosome> fittest = new ArrayList<>(memeticRefinement.getTopK());
+            synchronized (heap) {
+                for (int slot : heap.fittestSlots(memeticRefinement.getTopK())) {
+                    fittest.add(heap.get(slot));
+                }
+            }
+            for (Chromosome chromosome : fittest) {
+                final Chromosome refined = memeticRefinement.refine(chromosome);
+                if (refined != chromosome) {
+                    synchronized (heap) {
+                        offer(heap, refined);
+                    }
+                }
+            }
+        }
+
+        ElitisticListPopulation snapshot() {
+            synchronized (heap) {
+                return new HeapPopulation(heap.toList(), heap.capacity(), elitismRate);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Population;
+import org.apache.commons.math3.genetics.StoppingCondition;
+
+/**
+ * Satisfied once the fittest chromosome reaches the given fitness.
+ */
+public class TargetFitnessCondition implements StoppingCondition {
+
+    private final double targetFitness;
+
+    public TargetFitnessCondition(final double targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    @Override
+    public boolean isSatisfied(final Population population) {
+        return population.getFittestChromosome().getFitness() >= targetFitness;
+    }
+}
@@ -0,0 +1,54 @@
+package org.house.sprinklers.math;
+
+/**
+ * Circular sector: every point within <code>range</code> of the centre whose
+ * direction lies between <code>startAngle</code> and <code>endAngle</code>
+ * (counter-clockwise, radians).
+ */
+public final class Sector {
+
+    private final double x;
+
+    private final double y;
+
+    private final double range;
+
+    private final double startAngle;
+
+    private final double endAngle;
+
+    public Sector(double x, double y, double range, double startAngle, double endAngle) {
+        this.x = x;
+        this.y = y;
+        this.range = range;
+        this.startAngle = startAngle;
+        this.endAngle = endAngle;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getRange() {
+        return range;
+    }
+
+    public double getStartAngle() {
+        return startAngle;
+    }
+
+    public double getEndAngle() {
+        return endAngle;
+    }
+
+    /**
+     * @return opening of the sector, between 0 and 2&pi;
+     */
+    public double getSpan() {
+        return Math.max(0, Math.min(2 * Math.PI, endAngle - startAngle));
+    }
+}
@@ -0,0 +1,543 @@
+package org.house.sprinklers.math;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Closed form areas of circular sectors, alone or intersected with a convex
+ * polygon and/or another sector, without approximating arcs by polygons.
+ *
+ * <p/>Intersections are built as convex regions whose boundary is made of
+ * segments and circular arcs. A sector (split in halves if wider than &pi;,
+ * so that it is convex) is clipped successively by discs and half-planes;
+ * the area of the result follows from Green's theorem over its boundary.
+ */
+public final class SectorGeometry {
+
+    private static final double EPS = 1e-9;
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private SectorGeometry() {}
+
+    public static double area(final Sector sector) {
+        return 0.5 * sector.getRange() * sector.getRange() * sector.getSpan();
+    }
+
+    /**
+     * @param convexPolygon Vertices of a convex polygon, in either orientation.
+     */
+    public static double intersectionArea(final Sector sector, final List<Point2D> convexPolygon) {
+        final List<Point2D> polygon = counterClockwise(convexPolygon);
+        double area = 0;
+        for (Sector half : convexParts(sector)) {
+            area += clipPolygon(Region.of(half), polygon).area();
+        }
+        return area;
+    }
+
+    public static double intersectionArea(final Sector a, final Sector b) {
+        return intersectionArea(a, b, null);
+    }
+
+    /**
+     * Area of the intersection of two sectors, restricted to a convex polygon.
+     *
+     * @param convexPolygon Vertices of a convex polygon, in either orientation,
+     *                      or <code>null</code> for no restriction.
+     */
+    public static double intersectionArea(final Sector a, final Sector b, final List<Point2D> convexPolygon) {
+        final List<Point2D> polygon = convexPolygon == null ? null : counterClockwise(convexPolygon);
+        double area = 0;
+        for (Sector partA : convexParts(a)) {
+            for (Sector partB : convexParts(b)) {
+                Region region = Region.of(partA)
+                        .clip(new Disc(partB.getX(), partB.getY(), partB.getRange()))
+                        .clip(HalfPlane.leftOfRay(partB.getX(), partB.getY(), partB.getStartAngle()))
+                        .clip(HalfPlane.rightOfRay(partB.getX(), partB.getY(), partB.getStartAngle() + partB.getSpan()));
+                if (polygon != null) {
+                    region = clipPolygon(region, polygon);
+                }
+                area += region.area();
+            }
+        }
+        return area;
+    }
+
+    /**
+     * @return whether given polygon is convex (collinear vertices allowed).
+     */
+    public static boolean isConvex(final List<Point2D> polygon) {
+        final List<Point2D> points = distinctVertices(polygon);
+        final int n = points.size();
+        if (n < 3) {
+            return false;
+        }
+        int sign = 0;
+        for (int i = 0; i < n; i++) {
+            final Point2D a = points.get(i), b = points.get((i + 1) % n), c = points.get((i + 2) % n);
+            final double cross = (b.getX() - a.getX()) * (c.getY() - b.getY()) - (b.getY() - a.getY()) * (c.getX() - b.getX());
+            if (Math.abs(cross) > EPS) {
+                final int s = cross > 0 ? 1 : -1;
+                if (sign != 0 && s != sign) {
+                    return false;
+                }
+                sign = s;
+            }
+        }
+        return sign != 0;
+    }
+
+    private static Region clipPolygon(Region region, final List<Point2D> polygon) {
+        for (int i = 0; i < polygon.size() && !region.isEmpty(); i++) {
+            final Point2D a = polygon.get(i), b = polygon.get((i + 1) % polygon.size());
+            region = region.clip(new HalfPlane(a.getX(), a.getY(), b.getX() - a.getX(), b.getY() - a.getY()));
+        }
+        return region;
+    }
+
+    /**
+     * Sectors wider than &pi; are not convex, split them in two halves.
+     */
+    private static List<Sector> convexParts(final Sector sector) {
+        final double span = sector.getSpan();
+        if (span <= Math.PI) {
+            return Collections.singletonList(sector);
+        }
+        final double middle = sector.getStartAngle() + span / 2;
+        final List<Sector> parts = new ArrayList<>(2);
+        parts.add(new Sector(sector.getX(), sector.getY(), sector.getRange(), sector.getStartAngle(), middle));
+        parts.add(new Sector(sector.getX(), sector.getY(), sector.getRange(), middle, sector.getStartAngle() + span));
+        return parts;
+    }
+
+    private static List<Point2D> distinctVertices(final List<Point2D> polygon) {
+        final List<Point2D> points = new ArrayList<>(polygon.size());
+        for (Point2D p : polygon) {
+            if (points.isEmpty() || p.distance(points.get(points.size() - 1)) > EPS) {
+                points.add(p);
+            }
+        }
+        while (points.size() > 1 && points.get(0).distance(points.get(points.size() - 1)) <= EPS) {
+            points.remove(points.size() - 1);
+        }
+        return points;
+    }
+
+    private static List<Point2D> counterClockwise(final List<Point2D> polygon) {
+        final List<Point2D> points = distinctVertices(polygon);
+        double signedArea = 0;
+        for (int i = 0; i < points.size(); i++) {
+            final Point2D a = points.get(i), b = points.get((i + 1) % points.size());
+            signedArea += a.getX() * b.getY() - b.getX() * a.getY();
+        }
+        if (signedArea < 0) {
+            Collections.reverse(points);
+        }
+        return points;
+    }
+
+    private static double normalizeAngle(final double angle, final double from) {
+        double delta = (angle - from) % TWO_PI;
+        if (delta < 0) {
+            delta += TWO_PI;
+        }
+        return from + delta;
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Convex region, bounded counter-clockwise by segments and arcs.
+     */
+    private static final class Region {
+        private static final Region EMPTY = new Region(Collections.<Piece>emptyList(), Collections.<Constraint>emptyList());
+
+        private final List<Piece> boundary;
+
+        /* Sets this region was intersected from, used for containment tests. */
+        private final List<Constraint> constraints;
+
+        private Region(final List<Piece> boundary, final List<Constraint> constraints) {
+            this.boundary = boundary;
+            this.constraints = constraints;
+        }
+
+        /**
+         * @param sector Sector no wider than &pi;
+         */
+        static Region of(final Sector sector) {
+            final double span = sector.getSpan();
+            if (span <= EPS || sector.getRange() <= EPS) {
+                return EMPTY;
+            }
+            final double cx = sector.getX(), cy = sector.getY(), r = sector.getRange();
+            final double start = sector.getStartAngle(), end = start + span;
+            final List<Piece> boundary = new ArrayList<>(3);
+            boundary.add(new Segment(cx, cy, cx + r * Math.cos(start), cy + r * Math.sin(start)));
+            boundary.add(new Arc(cx, cy, r, start, end));
+            boundary.add(new Segment(cx + r * Math.cos(end), cy + r * Math.sin(end), cx, cy));
+            final List<Constraint> constraints = new ArrayList<>(3);
+            constraints.add(new Disc(cx, cy, r));
+            constraints.add(HalfPlane.leftOfRay(cx, cy, start));
+            constraints.add(HalfPlane.rightOfRay(cx, cy, end));
+            return new Region(boundary, constraints);
+        }
+
+        boolean isEmpty() {
+            return boundary.isEmpty();
+        }
+
+        double area() {
+            double area = 0;
+            for (Piece piece : boundary) {
+                area += piece.area();
+            }
+            return Math.max(0, area);
+        }
+
+        boolean contains(final double x, final double y) {
+            for (Constraint constraint : constraints) {
+                if (!constraint.contains(x, y)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Region clip(final Constraint constraint) {
+            if (isEmpty()) {
+                return this;
+            }
+
+            final List<Piece> parts = new ArrayList<>();
+            for (Piece piece : boundary) {
+                parts.addAll(piece.split(constraint.crossings(piece)));
+            }
+            final int n = parts.size();
+            final boolean[] inside = new boolean[n];
+            int insideCount = 0, start = -1;
+            for (int i = 0; i < n; i++) {
+                final Piece part = parts.get(i);
+                inside[i] = constraint.contains(part.midX(), part.midY());
+                insideCount += inside[i] ? 1 : 0;
+            }
+
+            final List<Constraint> constraints = new ArrayList<>(this.constraints);
+            constraints.add(constraint);
+
+            if (insideCount == n) {
+                return new Region(boundary, constraints);
+            }
+            if (insideCount == 0) {
+                // Either disjoint, or the constraint lies entirely within this region.
+                final Piece whole = constraint.boundary();
+                if (whole != null && contains(whole.midX(), whole.midY()) && contains(constraint.centerX(), constraint.centerY())) {
+                    return new Region(Collections.singletonList(whole), constraints);
+                }
+                return EMPTY;
+            }
+
+            for (int i = 0; i < n && start < 0; i++) {
+                if (inside[i] && !inside[(i + n - 1) % n]) {
+                    start = i;
+                }
+            }
+
+            final List<Piece> result = new ArrayList<>();
+            Piece exit = null;
+            for (int k = 0; k < n; k++) {
+                final int i = (start + k) % n;
+                if (inside[i]) {
+                    if (exit != null) {
+                        addConnector(result, constraint, exit, parts.get(i));
+                        exit = null;
+                    }
+                    result.add(parts.get(i));
+                } else if (exit == null) {
+                    exit = parts.get((i + n - 1) % n);
+                }
+            }
+            if (exit != null) {
+                addConnector(result, constraint, exit, result.get(0));
+            }
+            return new Region(result, constraints);
+        }
+
+        private static void addConnector(final List<Piece> result, final Constraint constraint,
+                                         final Piece exit, final Piece entry) {
+            if (Math.hypot(entry.startX() - exit.endX(), entry.startY() - exit.endY()) > EPS) {
+                result.add(constraint.connect(exit.endX(), exit.endY(), entry.startX(), entry.startY()));
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private interface Piece {
+        double startX();
+
+        double startY();
+
+        double endX();
+
+        double endY();
+
+        double midX();
+
+        double midY();
+
+        /* Contribution to the enclosed area, 1/2 of the integral of (x dy - y dx). */
+        double area();
+
+        /* Splits this piece at given (sorted) parameter values. */
+        List<Piece> split(double[] params);
+    }
+
+    private static final class Segment implements Piece {
+        final double x0, y0, x1, y1;
+
+        Segment(double x0, double y0, double x1, double y1) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+        }
+
+        public double startX() { return x0; }
+
+        public double startY() { return y0; }
+
+        public double endX() { return x1; }
+
+        public double endY() { return y1; }
+
+        public double midX() { return (x0 + x1) / 2; }
+
+        public double midY() { return (y0 + y1) / 2; }
+
+        public double area() {
+            return 0.5 * (x0 * y1 - x1 * y0);
+        }
+
+        public List<Piece> split(final double[] params) {
+            final List<Piece> parts = new ArrayList<>(params.length + 1);
+            double px = x0, py = y0;
+            for (double t : params) {
+                final double x = x0 + t * (x1 - x0), y = y0 + t * (y1 - y0);
+                parts.add(new Segment(px, py, x, y));
+                px = x;
+                py = y;
+            }
+            parts.add(new Segment(px, py, x1, y1));
+            return parts;
+        }
+    }
+
+    private static final class Arc implements Piece {
+        final double cx, cy, r, t0, t1;
+
+        Arc(double cx, double cy, double r, double t0, double t1) {
+            this.cx = cx;
+            this.cy = cy;
+            this.r = r;
+            this.t0 = t0;
+            this.t1 = t1;
+        }
+
+        public double startX() { return cx + r * Math.cos(t0); }
+
+        public double startY() { return cy + r * Math.sin(t0); }
+
+        public double endX() { return cx + r * Math.cos(t1); }
+
+        public double endY() { return cy + r * Math.sin(t1); }
+
+        public double midX() { return cx + r * Math.cos((t0 + t1) / 2); }
+
+        public double midY() { return cy + r * Math.sin((t0 + t1) / 2); }
+
+        public double area() {
+            return 0.5 * (r * r * (t1 - t0) +
+                    r * (cx * (Math.sin(t1) - Math.sin(t0)) - cy * (Math.cos(t1) - Math.cos(t0))));
+        }
+
+        public List<Piece> split(final double[] params) {
+            final List<Piece> parts = new ArrayList<>(params.length + 1);
+            double from = t0;
+            for (double t : params) {
+                parts.add(new Arc(cx, cy, r, from, t));
+                from = t;
+            }
+            parts.add(new Arc(cx, cy, r, from, t1));
+            return parts;
+        }
+
+        /* Angles on this arc's circle, kept if strictly within the arc. */
+        double[] within(final double... angles) {
+            final List<Double> result = new ArrayList<>(angles.length);
+            for (double angle : angles) {
+                final double t = normalizeAngle(angle, t0);
+                if (t > t0 + EPS && t < t1 - EPS) {
+                    result.add(t);
+                }
+            }
+            return sorted(result);
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private interface Constraint {
+        boolean contains(double x, double y);
+
+        /* Sorted parameters where given piece crosses the constraint's boundary. */
+        double[] crossings(Piece piece);
+
+        /* Boundary piece joining an exit point to the next entry point. */
+        Piece connect(double fromX, double fromY, double toX, double toY);
+
+        /* Whole boundary if it is closed, null otherwise. */
+        Piece boundary();
+
+        double centerX();
+
+        double centerY();
+    }
+
+    /**
+     * Points left of (or on) the line through (x, y) with direction (dx, dy).
+     */
+    private static final class HalfPlane implements Constraint {
+        final double x, y, dx, dy;
+
+        HalfPlane(double x, double y, double dx, double dy) {
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        static HalfPlane leftOfRay(double x, double y, double angle) {
+            return new HalfPlane(x, y, Math.cos(angle), Math.sin(angle));
+        }
+
+        static HalfPlane rightOfRay(double x, double y, double angle) {
+            return new HalfPlane(x, y, -Math.cos(angle), -Math.sin(angle));
+        }
+
+        double value(double px, double py) {
+            return dx * (py - y) - dy * (px - x);
+        }
+
+        public boolean contains(double px, double py) {
+            return value(px, py) >= -EPS;
+        }
+
+        public double[] crossings(final Piece piece) {
+            if (piece instanceof Segment) {
+                final Segment s = (Segment) piece;
+                final double f0 = value(s.x0, s.y0), f1 = value(s.x1, s.y1);
+                if ((f0 > EPS && f1 < -EPS) || (f0 < -EPS && f1 > EPS)) {
+                    return new double[] {f0 / (f0 - f1)};
+                }
+                return new double[0];
+            }
+            // value(centre + r (cos t, sin t)) = value(centre) + r L sin(t - phi)
+            final Arc a = (Arc) piece;
+            final double length = Math.hypot(dx, dy), phi = Math.atan2(dy, dx);
+            final double q = -value(a.cx, a.cy) / (a.r * length);
+            if (Math.abs(q) >= 1) {
+                return new double[0];
+            }
+            final double alpha = Math.asin(q);
+            return a.within(phi + alpha, phi + Math.PI - alpha);
+        }
+
+        public Piece connect(double fromX, double fromY, double toX, double toY) {
+            return new Segment(fromX, fromY, toX, toY);
+        }
+
+        public Piece boundary() {
+            return null;
+        }
+
+        public double centerX() {
+            return x;
+        }
+
+        public double centerY() {
+            return y;
+        }
+    }
+
+    private static final class Disc implements Constraint {
+        final double cx, cy, r;
+
+        Disc(double cx, double cy, double r) {
+            this.cx = cx;
+            this.cy = cy;
+            this.r = r;
+        }
+
+        public boolean contains(double x, double y) {
+            return Math.hypot(x - cx, y - cy) <= r + EPS;
+        }
+
+        public double[] crossings(final Piece piece) {
+            if (piece instanceof Segment) {
+                final Segment s = (Segment) piece;
+                final double ex = s.x1 - s.x0, ey = s.y1 - s.y0, fx = s.x0 - cx, fy = s.y0 - cy;
+                final double a = ex * ex + ey * ey, b = 2 * (fx * ex + fy * ey), c = fx * fx + fy * fy - r * r;
+                final double discriminant = b * b - 4 * a * c;
+                if (a <= 0 || discriminant <= 0) {
+                    return new double[0];
+                }
+                final double root = Math.sqrt(discriminant);
+                final List<Double> result = new ArrayList<>(2);
+                for (double t : new double[] {(-b - root) / (2 * a), (-b + root) / (2 * a)}) {
+                    if (t > EPS && t < 1 - EPS) {
+                        result.add(t);
+                    }
+                }
+                return sorted(result);
+            }
+            final Arc arc = (Arc) piece;
+            final double d = Math.hypot(cx - arc.cx, cy - arc.cy);
+            if (d <= EPS || d >= arc.r + r || d <= Math.abs(arc.r - r)) {
+                return new double[0];
+            }
+            final double theta = Math.atan2(cy - arc.cy, cx - arc.cx);
+            final double alpha = Math.acos((arc.r * arc.r + d * d - r * r) / (2 * arc.r * d));
+            return arc.within(theta - alpha, theta + alpha);
+        }
+
+        public Piece connect(double fromX, double fromY, double toX, double toY) {
+            final double from = Math.atan2(fromY - cy, fromX - cx);
+            return new Arc(cx, cy, r, from, normalizeAngle(Math.atan2(toY - cy, toX - cx), from));
+        }
+
+        public Piece boundary() {
+            return new Arc(cx, cy, r, 0, TWO_PI);
+        }
+
+        public double centerX() {
+            return cx;
+        }
+
+        public double centerY() {
+            return cy;
+        }
+    }
+
+    private static double[] sorted(final List<Double> values) {
+        Collections.sort(values);
+        final double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+}
@@ -2,6 +2,7 @@ package org.house.sprinklers.metrics;
 
 import com.google.common.collect.Lists;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,13 +23,11 @@ public class InMemoryRecorderService implements RecorderService {
     public <T> void submit(String metricName, T data) {
         ensureMultipleValuesMetric(metricName);
 
-        if (!dataMap.containsKey(metricName)) {
-            dataMap.put(metricName, Lists.newArrayList(data));
-            dataTypeMap.put(metricName, DataType.MultipleValues);
-        } else {
-            final List<T> dataList = (List<T>) dataMap.get(metricName);
-            dataList.add(data);
-        }
+        // Metrics are submitted from evaluation threads too
+        final List<T> dataList = (List<T>) dataMap.computeIfAbsent(metricName,
+                k -> Collections.synchronizedList(Lists.newArrayList()));
+        dataTypeMap.putIfAbsent(metricName, DataType.MultipleValues);
+        dataList.add(data);
     }
 
     private void ensureMultipleValuesMetric(String metricName) {
@@ -68,6 +67,7 @@ public class InMemoryRecorderService implements RecorderService {
     public <T extends Number> Set<Metric<T>> filterMetrics(String metricPrefix) {
         return dataMap.keySet().stream()
                 .filter(k -> k.startsWith(metricPrefix))
+                .filter(k -> dataTypeMap.get(k) != DataType.MultipleValues)
                 .map(k -> new Metric<T>(k, (T) dataMap.get(k)))
                 .collect(Collectors.toSet());
     }
@@ -80,11 +80,7 @@ public class InMemoryRecorderService implements RecorderService {
     @Override
     public void increment(String metricName, long count) {
         ensureNumericMetric(metricName);
-        if (dataMap.containsKey(metricName)) {
-            dataMap.put(metricName, (Long) dataMap.get(metricName) + count);
-        } else {
-            dataMap.put(metricName, count);
-        }
+        dataMap.merge(metricName, count, (a, b) -> (Long) a + (Long) b);
     }
 
     @Override
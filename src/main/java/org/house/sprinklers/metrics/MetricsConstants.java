@@ -11,6 +11,39 @@ public final class MetricsConstants {
     public static final String COUNTER_SPRINKLER_TERRAIN_ERRORS_MULTIPLEAREAS = "errors.terrain-sprinkler.intersection.multiple-intersection-areas";
     public static final String COUNTER_SPRINKLER_TERRAIN_NO_INTERSECTION      = "counter.terrain-sprinkler.no-intersection";
 
+    public static final String COUNTER_COVERAGE_SWEEPS                        = "counter.coverage-sweep.runs";
+    public static final String METRIC_COVERAGE_SWEEP                          = "histogram.coverage-sweep";
+    public static final String COUNTER_RASTER_COVERAGE_RUNS                   = "counter.raster-coverage.runs";
+    public static final String METRIC_RASTER_COVERAGE                         = "histogram.raster-coverage";
+    public static final String COUNTER_QMC_RUNS                               = "counter.qmc.runs";
+    public static final String COUNTER_QMC_SAMPLES                            = "counter.qmc.samples";
+    public static final String COUNTER_QMC_UNCONVERGED                        = "counter.qmc.unconverged";
+    public static final String METRIC_QMC                                     = "histogram.qmc";
+
+    public static final String COUNTER_BROAD_PHASE_PAIRS                      = "counter.broad-phase.pairs";
+    public static final String COUNTER_BROAD_PHASE_CULLED_CIRCLE              = "counter.broad-phase.culled-circle";
+    public static final String COUNTER_BROAD_PHASE_CULLED_BOX                 = "counter.broad-phase.culled-box";
+    public static final String COUNTER_BROAD_PHASE_CULLED_SECTOR              = "counter.broad-phase.culled-sector";
+    public static final String COUNTER_ANALYTIC_GEOMETRY_FALLBACKS            = "counter.analytic-geometry.fallbacks";
+
+    public static final String COUNTER_CLIP_CACHE_HITS                        = "counter.clip-cache.hits";
+    public static final String COUNTER_CLIP_CACHE_MISSES                      = "counter.clip-cache.misses";
+    public static final String COUNTER_CLIP_CACHE_EVICTIONS                   = "counter.clip-cache.evictions";
+    public static final String COUNTER_RASTER_MASK_CACHE_HITS                 = "counter.raster-mask-cache.hits";
+    public static final String COUNTER_RASTER_MASK_CACHE_MISSES               = "counter.raster-mask-cache.misses";
+    public static final String COUNTER_RASTER_MASK_CACHE_EVICTIONS            = "counter.raster-mask-cache.evictions";
+    public static final String COUNTER_OVERLAP_CACHE_HITS                     = "counter.overlap-cache.hits";
+    public static final String COUNTER_OVERLAP_CACHE_MISSES                   = "counter.overlap-cache.misses";
+    public static final String COUNTER_OVERLAP_CACHE_EVICTIONS                = "counter.overlap-cache.evictions";
+    public static final String COUNTER_FITNESS_INPUT_CACHE_HITS               = "counter.fitness-input-cache.hits";
+    public static final String COUNTER_FITNESS_INPUT_CACHE_MISSES             = "counter.fitness-input-cache.misses";
+    public static final String COUNTER_FITNESS_INPUT_CACHE_EVICTIONS          = "counter.fitness-input-cache.evictions";
+    public static final String COUNTER_FITNESS_EVALUATIONS                    = "counter.fitness.evaluations";
+    public static final String COUNTER_FITNESS_DELTA_REUSED_GENES             = "counter.fitness-delta.reused-genes";
+    public static final String COUNTER_FITNESS_DELTA_REUSED_PAIRS             = "counter.fitness-delta.reused-pairs";
+    public static final String COUNTER_MULTI_FIDELITY_SCREENED                = "counter.multi-fidelity.screened";
+    public static final String COUNTER_MULTI_FIDELITY_RESCORED                = "counter.multi-fidelity.rescored";
+
     public static final String COUNTER_GA_GENERATIONS                         = "counter.genetic-algorithm.generations";
     public static final String COUNTER_GA_INDIVIDUALS                         = "counter.genetic-algorithm.individuals";
     public static final String COUNTER_GA_CROSSOVERS                          = "counter.genetic-algorithm.crossovers";
@@ -19,7 +52,29 @@ public final class MetricsConstants {
     public static final String COUNTER_GA_MUTATIONS_CHANGE                    = "counter.genetic-algorithm.mutations-change";
     public static final String COUNTER_GA_MUTATIONS_DELETE                    = "counter.genetic-algorithm.mutations-delete";
     public static final String COUNTER_GA_MUTATIONS_CHANGE_ERRORS_IMPOSSIBLE  = "errors.genetic-algorithm.mutations-change.no-solution";
+    public static final String COUNTER_STEADY_STATE_REPLACEMENTS              = "counter.steady-state.replacements";
+    public static final String COUNTER_STEADY_STATE_REJECTIONS                = "counter.steady-state.rejections";
+    public static final String COUNTER_ISLAND_MIGRANTS_SENT                   = "counter.islands.migrants-sent";
+    public static final String COUNTER_ISLAND_MIGRANTS_RECEIVED               = "counter.islands.migrants-received";
+    public static final String COUNTER_ISLAND_MIGRANTS_ACCEPTED               = "counter.islands.migrants-accepted";
+    public static final String COUNTER_ISLAND_MIGRANTS_REJECTED               = "errors.islands.migrants-rejected";
+    public static final String COUNTER_ISLAND_MIGRANTS_DROPPED                = "counter.islands.migrants-dropped";
+    public static final String COUNTER_MEMETIC_EVALUATIONS                    = "counter.memetic.evaluations";
+    public static final String COUNTER_MEMETIC_IMPROVEMENTS                   = "counter.memetic.improvements";
+    public static final String COUNTER_LISTENER_DROPPED                       = "counter.population-listener.dropped";
+    public static final String COUNTER_LISTENER_COALESCED                     = "counter.population-listener.coalesced";
+    public static final String COUNTER_CHECKPOINT_WRITES                      = "counter.checkpoint.writes";
+    public static final String COUNTER_CHECKPOINT_ERRORS                      = "errors.checkpoint.writes";
+    public static final String METRIC_CHECKPOINT_WRITE                        = "histogram.checkpoint.write";
     public static final String METRIC_GA_GENERATION_FITNESS                   = "histogram.genetic-algorithm.fitness";
     public static final String METRIC_GA_GENERATION_DIVERSITY                 = "histogram.genetic-algorithm.diversity";
     public static final String METRIC_GA_GENERATION_COVERED_AREA              = "histogram.genetic-algorithm.covered-area";
+    public static final String METRIC_GA_EVALUATION                           = "histogram.genetic-algorithm.evaluation";
+
+    public static final String COUNTER_RANDOM_DRAWS_GENETIC_ALGORITHM         = "counter.random-draws.genetic-algorithm";
+    public static final String COUNTER_RANDOM_DRAWS_SELECTION                 = "counter.random-draws.selection";
+    public static final String COUNTER_RANDOM_DRAWS_CROSSOVER                 = "counter.random-draws.crossover";
+    public static final String COUNTER_RANDOM_DRAWS_MUTATION                  = "counter.random-draws.mutation";
+    public static final String COUNTER_RANDOM_DRAWS_GENE_GENERATOR            = "counter.random-draws.gene-generator";
+    public static final String COUNTER_RANDOM_DRAWS_INITIAL_POPULATION        = "counter.random-draws.initial-population";
 }
@@ -0,0 +1,117 @@
+package org.house.sprinklers.population;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.house.sprinklers.GeneticAlgorithmProperties;
+import org.house.sprinklers.random.RandomStreams;
+import org.house.sprinklers.random.TaskRandomGenerator;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Builds initial populations on a pool, one task per chromosome.
+ *
+ * <p/>The first <code>seededFraction</code> of the chromosomes are structured
+ * layouts (see {@link SprinklerSeeds}), cycling through square lattices,
+ * hexagonal lattices and corner/edge placements; the others are random genes.
+ * Layouts with fewer sprinklers than the minimum chromosome length are
+ * completed with random genes.
+ *
+ * <p/>Chromosome i draws from its own random stream, so a population does
+ * not depend on the number of threads.
+ */
+public class InitialPopulationBuilder {
+
+    private final Function<List<Sprinkler>, Chromosome> chromosomes;
+
+    private final Function<Sprinkler, Sprinkler> geneGenerator;
+
+    private final SprinklerSeeds seeds;
+
+    private final GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties;
+
+    private final double seededFraction;
+
+    private final TaskRandomGenerator randomGenerator;
+
+    /* Draws of the chromosome lengths. */
+    private final RandomGenerator lengthRandom;
+
+    private final ForkJoinPool pool;
+
+    public InitialPopulationBuilder(final Function<List<Sprinkler>, Chromosome> chromosomes,
+                                    final Function<Sprinkler, Sprinkler> geneGenerator,
+                                    final SprinklerSeeds seeds,
+                                    final GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties,
+                                    final double seededFraction,
+                                    final TaskRandomGenerator randomGenerator,
+                                    final RandomGenerator lengthRandom,
+                                    final ForkJoinPool pool) {
+        this.chromosomes = chromosomes;
+        this.geneGenerator = geneGenerator;
+        this.seeds = seeds;
+        this.chromosomeProperties = chromosomeProperties;
+        this.seededFraction = seededFraction;
+        this.randomGenerator = randomGenerator;
+        this.lengthRandom = lengthRandom;
+        this.pool = pool;
+    }
+
+    public List<Chromosome> build(final RandomStreams randomStreams, final int size) {
+        final int seeded = (int) Math.round(seededFraction * size);
+        try {
+            return pool.submit(() -> IntStream.range(0, size).parallel()
+                    .mapToObj(i -> randomGenerator.callWith(
+                            randomStreams.stream(RandomStreams.INITIAL_POPULATION, i),
+                            () -> chromosomes.apply(i < seeded ? seededSprinklers(i) : randomSprinklers())))
+                    .collect(Collectors.toList()))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building initial population", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to build initial population", e.getCause());
+        }
+    }
+
+    private List<Sprinkler> seededSprinklers(final int index) {
+        final IntFunction<List<Sprinkler>> layout;
+        switch (index % 3) {
+            case 0:
+                layout = seeds::squareLattice;
+                break;
+            case 1:
+                layout = seeds::hexLattice;
+                break;
+            default:
+                layout = seeds::cornersAndEdges;
+        }
+        final List<Sprinkler> sprinklers = new ArrayList<>(layout.apply(randomLength()));
+        while (sprinklers.size() < chromosomeProperties.getMinLength()) {
+            sprinklers.add(geneGenerator.apply(null));
+        }
+        return sprinklers;
+    }
+
+    private List<Sprinkler> randomSprinklers() {
+        final int length = randomLength();
+        final List<Sprinkler> sprinklers = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            sprinklers.add(geneGenerator.apply(null));
+        }
+        return sprinklers;
+    }
+
+    private int randomLength() {
+        return chromosomeProperties.getMinLength() +
+                lengthRandom.nextInt(chromosomeProperties.getMaxLength() - chromosomeProperties.getMinLength());
+    }
+}
@@ -0,0 +1,187 @@
+package org.house.sprinklers.population;
+
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structured sprinkler layouts, fitted to the terrain, to seed the initial
+ * population with near-covering solutions.
+ *
+ * <p/>Every layout holds at most the requested count of sprinklers; the ones
+ * rejected by the validator (e.g. outside the terrain, range too large) are
+ * left out.
+ */
+public class SprinklerSeeds {
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    /* Sprinklers on the terrain boundary are moved this fraction of their range inside. */
+    private static final double INSET = 0.01;
+
+    private final List<Point2D> vertices;
+
+    private final Path2D.Double outline;
+
+    private final Rectangle2D bounds;
+
+    private final SprinklerValidator sprinklerValidator;
+
+    public SprinklerSeeds(final Terrain terrain, final SprinklerValidator sprinklerValidator) {
+        this.vertices = terrain.getPolygonPoints();
+        this.outline = new Path2D.Double();
+        for (int i = 0; i < vertices.size(); i++) {
+            final Point2D p = vertices.get(i);
+            if (i == 0) {
+                outline.moveTo(p.getX(), p.getY());
+            } else {
+                outline.lineTo(p.getX(), p.getY());
+            }
+        }
+        outline.closePath();
+        this.bounds = outline.getBounds2D();
+        this.sprinklerValidator = sprinklerValidator;
+    }
+
+    /**
+     * Full circles at the centres of a grid of the bounding box, each one
+     * covering its cell.
+     */
+    public List<Sprinkler> squareLattice(final int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        // Grid with cells closest to squares
+        int cols = 1;
+        double best = Double.POSITIVE_INFINITY;
+        for (int c = 1; c <= count; c++) {
+            final double skew = Math.abs(Math.log((bounds.getWidth() / c) / (bounds.getHeight() / (count / c))));
+            if (skew < best) {
+                best = skew;
+                cols = c;
+            }
+        }
+        final int rows = count / cols;
+        final double dx = bounds.getWidth() / cols, dy = bounds.getHeight() / rows;
+        final double range = Math.hypot(dx, dy) / 2;
+
+        final List<Sprinkler> sprinklers = new ArrayList<>(count);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                add(sprinklers, bounds.getMinX() + (j + 0.5) * dx, bounds.getMinY() + (i + 0.5) * dy, range, 0, TWO_PI);
+            }
+        }
+        return sprinklers;
+    }
+
+    /**
+     * Full circles on a hexagonal lattice over the bounding box, every other
+     * row shifted by half a column. The range covers the triangles between
+     * neighbouring centres.
+     */
+    public List<Sprinkler> hexLattice(final int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        // Grid with rows closest to sqrt(3)/2 columns apart, as in a regular lattice
+        int cols = 1;
+        double best = Double.POSITIVE_INFINITY;
+        for (int c = 1; c <= count; c++) {
+            final double skew = Math.abs(Math.log((bounds.getHeight() / (count / c)) / (bounds.getWidth() / c * Math.sqrt(3) / 2)));
+            if (skew < best) {
+                best = skew;
+                cols = c;
+            }
+        }
+        final int rows = count / cols;
+        final double dx = bounds.getWidth() / cols, dy = bounds.getHeight() / rows;
+        // Circumradius of the triangle between (0, 0), (dx, 0) and (dx / 2, dy)
+        final double centre = (dy * dy - dx * dx / 4) / (2 * dy);
+        final double range = Math.hypot(dx / 2, centre);
+
+        final List<Sprinkler> sprinklers = new ArrayList<>(count);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                final double shift = i % 2 == 0 ? 0.5 : 1.0;
+                add(sprinklers,
+                        bounds.getMinX() + ((j + shift) * dx) % bounds.getWidth(),
+                        bounds.getMinY() + (i + 0.5) * dy,
+                        range, 0, TWO_PI);
+            }
+        }
+        return sprinklers;
+    }
+
+    /**
+     * Sprinklers at the terrain corners, watering the corner angle, then at
+     * the middle of its edges, watering the half plane inside. Ranges are
+     * half the (shortest) adjacent edge.
+     */
+    public List<Sprinkler> cornersAndEdges(final int count) {
+        final List<Sprinkler> sprinklers = new ArrayList<>(count);
+        final int n = vertices.size();
+        for (int i = 0; i < n && sprinklers.size() < count; i++) {
+            final Point2D vertex = vertices.get(i), previous = vertices.get((i + n - 1) % n), next = vertices.get((i + 1) % n);
+            final double range = Math.min(vertex.distance(previous), vertex.distance(next)) / 2;
+            final double toPrevious = angle(vertex, previous), toNext = angle(vertex, next);
+            addInside(sprinklers, vertex, range, toNext, normalize(toPrevious - toNext));
+        }
+        for (int i = 0; i < n && sprinklers.size() < count; i++) {
+            final Point2D from = vertices.get(i), to = vertices.get((i + 1) % n);
+            final Point2D middle = new Point2D.Double((from.getX() + to.getX()) / 2, (from.getY() + to.getY()) / 2);
+            addInside(sprinklers, middle, from.distance(to) / 2, angle(middle, to), Math.PI);
+        }
+        return sprinklers;
+    }
+
+    /**
+     * Adds the sector from <code>start</code> spanning <code>span</code>, or
+     * its complement, whichever points inside the terrain.
+     */
+    private void addInside(final List<Sprinkler> sprinklers, final Point2D at, final double range,
+                           final double start, final double span) {
+        double from = start, width = span;
+        if (!outline.contains(
+                at.getX() + INSET * range * Math.cos(from + width / 2),
+                at.getY() + INSET * range * Math.sin(from + width / 2))) {
+            from = start + span;
+            width = TWO_PI - span;
+        }
+        final double middle = from + width / 2;
+        add(sprinklers,
+                at.getX() + INSET * range * Math.cos(middle),
+                at.getY() + INSET * range * Math.sin(middle),
+                range, from, width);
+    }
+
+    private void add(final List<Sprinkler> sprinklers, final double x, final double y, final double range,
+                     final double start, final double span) {
+        // Angles within [0, 2 * PI] as far as possible, a sector across 0 starts below it
+        double from = normalize(start);
+        if (from + span > TWO_PI) {
+            from -= TWO_PI;
+        }
+        final Sprinkler sprinkler = new Sprinkler(new Point2D.Double(x, y), range, from, from + span);
+        try {
+            sprinklerValidator.validate(sprinkler);
+            sprinklers.add(sprinkler);
+        } catch (InvalidSprinklerException e) {
+            // Left out of the layout
+        }
+    }
+
+    private static double angle(final Point2D from, final Point2D to) {
+        return Math.atan2(to.getY() - from.getY(), to.getX() - from.getX());
+    }
+
+    private static double normalize(final double angle) {
+        final double normalized = angle % TWO_PI;
+        return normalized < 0 ? normalized + TWO_PI : normalized;
+    }
+}
@@ -0,0 +1,92 @@
+package org.house.sprinklers.random;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * View of a {@link RandomGenerator} that counts the draws made through it.
+ *
+ * <p/>Counting goes to a {@link LongAdder}, so operators drawing from many
+ * threads do not contend on the counter.
+ */
+public class CountingRandomGenerator implements RandomGenerator {
+
+    private final RandomGenerator delegate;
+
+    private final LongAdder draws = new LongAdder();
+
+    public CountingRandomGenerator(final RandomGenerator delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return Draws made since the previous call.
+     */
+    public long drainDraws() {
+        return draws.sumThenReset();
+    }
+
+    @Override
+    public void setSeed(final int seed) {
+        delegate.setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(final int[] seed) {
+        delegate.setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        delegate.setSeed(seed);
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        draws.increment();
+        delegate.nextBytes(bytes);
+    }
+
+    @Override
+    public int nextInt() {
+        draws.increment();
+        return delegate.nextInt();
+    }
+
+    @Override
+    public int nextInt(final int n) {
+        draws.increment();
+        return delegate.nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        draws.increment();
+        return delegate.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        draws.increment();
+        return delegate.nextBoolean();
+    }
+
+    @Override
+    public float nextFloat() {
+        draws.increment();
+        return delegate.nextFloat();
+    }
+
+    @Override
+    public double nextDouble() {
+        draws.increment();
+        return delegate.nextDouble();
+    }
+
+    @Override
+    public double nextGaussian() {
+        draws.increment();
+        return delegate.nextGaussian();
+    }
+}
@@ -0,0 +1,52 @@
+package org.house.sprinklers.random;
+
+/**
+ * Independent random streams derived from a single run seed.
+ *
+ * <p/>The seed of a stream only depends on the run seed and the stream
+ * coordinates, never on the order streams are created in, so work split
+ * in tasks draws the same numbers whatever the number of threads.
+ */
+public class RandomStreams {
+
+    /* Generation coordinate of draws made outside of any task. */
+    public static final long UNSCHEDULED = -1;
+
+    /* Generation coordinate of the initial population, one task per chromosome. */
+    public static final long INITIAL_POPULATION = -2;
+
+    private final long seed;
+
+    public RandomStreams(final long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param generation Generation the task belongs to.
+     * @param task       Index of the task within its generation.
+     */
+    public SplittableRandomGenerator stream(final long generation, final long task) {
+        return new SplittableRandomGenerator(mix(mix(mix(seed) + generation) + task));
+    }
+
+    /**
+     * Streams of an independent run, e.g. an island.
+     */
+    public RandomStreams derive(final long run) {
+        return new RandomStreams(mix(seed ^ mix(run)));
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,53 @@
+package org.house.sprinklers.random;
+
+import org.apache.commons.math3.random.AbstractRandomGenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * {@link org.apache.commons.math3.random.RandomGenerator} backed by a
+ * {@link SplittableRandom}. Not thread-safe: meant to be owned by a single
+ * task.
+ */
+public class SplittableRandomGenerator extends AbstractRandomGenerator {
+
+    private SplittableRandom random;
+
+    public SplittableRandomGenerator(final long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        this.random = new SplittableRandom(seed);
+        clear();
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(final int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Bound must be positive: " + n);
+        }
+        return random.nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextInt() < 0;
+    }
+}
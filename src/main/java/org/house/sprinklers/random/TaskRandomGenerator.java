@@ -0,0 +1,134 @@
+package org.house.sprinklers.random;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.house.sprinklers.metrics.RecorderService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Delegates to the random stream bound to the current task, or to a stream
+ * owned by the current thread outside of any task. Nothing is shared
+ * between threads, so draws never contend.
+ *
+ * <p/>Operators get a counting view through {@link #forOperator(String)};
+ * draws are published to the recorder by {@link #publishDraws()}.
+ */
+public class TaskRandomGenerator implements RandomGenerator {
+
+    private final ThreadLocal<RandomGenerator> current = new ThreadLocal<>();
+
+    private final ThreadLocal<RandomGenerator> fallback;
+
+    private final Map<String, CountingRandomGenerator> operators = new ConcurrentHashMap<>();
+
+    private final RecorderService recorderService;
+
+    /**
+     * @param streams Source of the streams used outside of tasks; the first
+     *                thread drawing (usually the main one) gets stream 0.
+     */
+    public TaskRandomGenerator(final RandomStreams streams, final RecorderService recorderService) {
+        final AtomicLong threads = new AtomicLong();
+        this.fallback = ThreadLocal.withInitial(() -> streams.stream(RandomStreams.UNSCHEDULED, threads.getAndIncrement()));
+        this.recorderService = recorderService;
+    }
+
+    /**
+     * @param metricName Counter the draws of this operator are published to.
+     */
+    public RandomGenerator forOperator(final String metricName) {
+        return operators.computeIfAbsent(metricName, k -> new CountingRandomGenerator(this));
+    }
+
+    /**
+     * Publishes draws made since the previous call, one counter per operator.
+     */
+    public void publishDraws() {
+        operators.forEach((metricName, generator) -> {
+            final long draws = generator.drainDraws();
+            if (draws > 0) {
+                recorderService.increment(metricName, draws);
+            }
+        });
+    }
+
+    /**
+     * Runs given task with all draws of this thread going to given stream.
+     */
+    public <T> T callWith(final RandomGenerator stream, final Supplier<T> task) {
+        final RandomGenerator previous = current.get();
+        current.set(stream);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    private RandomGenerator delegate() {
+        final RandomGenerator stream = current.get();
+        return stream != null ? stream : fallback.get();
+    }
+
+    @Override
+    public void setSeed(final int seed) {
+        delegate().setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(final int[] seed) {
+        delegate().setSeed(seed);
+    }
+
+    @Override
+    public void setSeed(final long seed) {
+        delegate().setSeed(seed);
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        delegate().nextBytes(bytes);
+    }
+
+    @Override
+    public int nextInt() {
+        return delegate().nextInt();
+    }
+
+    @Override
+    public int nextInt(final int n) {
+        return delegate().nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return delegate().nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return delegate().nextBoolean();
+    }
+
+    @Override
+    public float nextFloat() {
+        return delegate().nextFloat();
+    }
+
+    @Override
+    public double nextDouble() {
+        return delegate().nextDouble();
+    }
+
+    @Override
+    public double nextGaussian() {
+        return delegate().nextGaussian();
+    }
+}
@@ -0,0 +1,236 @@
+package org.house.sprinklers.sprinkler_system;
+
+import java.awt.geom.Point2D;
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of sprinklers packed in a single <code>double[]</code>,
+ * as (x, y, range, startAngle, endAngle) per sprinkler.
+ *
+ * <p/>Sprinklers are only built by {@link #get(int)}, a new one on every
+ * call; equality, hashing and lookups work on the doubles. Chromosomes keep
+ * their genes this way, so an individual costs one array instead of a
+ * sprinkler, a point and possibly a polygon per gene.
+ */
+public final class PackedSprinklers extends AbstractList<Sprinkler> implements RandomAccess {
+
+    public static final int STRIDE = 5;
+
+    private static final PackedSprinklers EMPTY = new PackedSprinklers(new double[0]);
+
+    private final double[] values;
+
+    /* Computed on first use, like String. */
+    private int hash;
+
+    private PackedSprinklers(final double[] values) {
+        this.values = values;
+    }
+
+    public static PackedSprinklers of(final List<Sprinkler> sprinklers) {
+        if (sprinklers instanceof PackedSprinklers) {
+            return (PackedSprinklers) sprinklers;
+        }
+        if (sprinklers instanceof Unpacked) {
+            return ((Unpacked) sprinklers).packed;
+        }
+        final double[] values = new double[sprinklers.size() * STRIDE];
+        int offset = 0;
+        for (Sprinkler sprinkler : sprinklers) {
+            values[offset] = sprinkler.getPosition().getX();
+            values[offset + 1] = sprinkler.getPosition().getY();
+            values[offset + 2] = sprinkler.getRange();
+            values[offset + 3] = sprinkler.getStartAngle();
+            values[offset + 4] = sprinkler.getEndAngle();
+            offset += STRIDE;
+        }
+        return new PackedSprinklers(values);
+    }
+
+    /**
+     * @return The <code>count</code> sprinklers stored from given index of the buffer.
+     */
+    public static PackedSprinklers read(final DoubleBuffer buffer, final int index, final int count) {
+        final double[] values = new double[count * STRIDE];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.get(index + i);
+        }
+        return new PackedSprinklers(values);
+    }
+
+    /**
+     * Stores these sprinklers from given index of the buffer, see {@link #read(DoubleBuffer, int, int)}.
+     *
+     * @return Number of doubles written.
+     */
+    public int write(final DoubleBuffer buffer, final int index) {
+        for (int i = 0; i < values.length; i++) {
+            buffer.put(index + i, values[i]);
+        }
+        return values.length;
+    }
+
+    /**
+     * Sprinklers <code>[0, firstIndex)</code> of first, followed by
+     * <code>[secondIndex, size)</code> of second.
+     */
+    public static PackedSprinklers splice(final PackedSprinklers first, final int firstIndex,
+                                          final PackedSprinklers second, final int secondIndex) {
+        final int head = firstIndex * STRIDE, tailStart = secondIndex * STRIDE;
+        final double[] values = Arrays.copyOf(first.values, head + second.values.length - tailStart);
+        System.arraycopy(second.values, tailStart, values, head, second.values.length - tailStart);
+        return new PackedSprinklers(values);
+    }
+
+    /**
+     * @return All sprinklers, built once. Packing them again returns this list.
+     */
+    public List<Sprinkler> unpack() {
+        final Sprinkler[] sprinklers = new Sprinkler[size()];
+        for (int i = 0; i < sprinklers.length; i++) {
+            sprinklers[i] = get(i);
+        }
+        return new Unpacked(this, sprinklers);
+    }
+
+    @Override
+    public int size() {
+        return values.length / STRIDE;
+    }
+
+    @Override
+    public Sprinkler get(final int index) {
+        final int offset = offset(index);
+        return new Sprinkler(
+                new Point2D.Double(values[offset], values[offset + 1]),
+                values[offset + 2],
+                values[offset + 3],
+                values[offset + 4]);
+    }
+
+    public double getX(final int index) {
+        return values[offset(index)];
+    }
+
+    public double getY(final int index) {
+        return values[offset(index) + 1];
+    }
+
+    public double getRange(final int index) {
+        return values[offset(index) + 2];
+    }
+
+    public double getStartAngle(final int index) {
+        return values[offset(index) + 3];
+    }
+
+    public double getEndAngle(final int index) {
+        return values[offset(index) + 4];
+    }
+
+    @Override
+    public PackedSprinklers subList(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex + ", toIndex = " + toIndex);
+        }
+        if (fromIndex == toIndex) {
+            return EMPTY;
+        }
+        // Immutable, a copy is as good as a view
+        return new PackedSprinklers(Arrays.copyOfRange(values, fromIndex * STRIDE, toIndex * STRIDE));
+    }
+
+    @Override
+    public int indexOf(final Object o) {
+        if (o instanceof Sprinkler) {
+            final Sprinkler sprinkler = (Sprinkler) o;
+            for (int offset = 0; offset < values.length; offset += STRIDE) {
+                if (equalsAt(sprinkler, offset)) {
+                    return offset / STRIDE;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(final Object o) {
+        if (o instanceof Sprinkler) {
+            final Sprinkler sprinkler = (Sprinkler) o;
+            for (int offset = values.length - STRIDE; offset >= 0; offset -= STRIDE) {
+                if (equalsAt(sprinkler, offset)) {
+                    return offset / STRIDE;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o instanceof PackedSprinklers) {
+            return Arrays.equals(values, ((PackedSprinklers) o).values);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * Same as {@link List#hashCode()} over the sprinklers, without building them.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (int offset = 0; offset < values.length; offset += STRIDE) {
+                h = 31 * h + Sprinkler.hashCode(values[offset], values[offset + 1],
+                        values[offset + 2], values[offset + 3], values[offset + 4]);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    private boolean equalsAt(final Sprinkler sprinkler, final int offset) {
+        return sprinkler.equals(values[offset], values[offset + 1],
+                values[offset + 2], values[offset + 3], values[offset + 4]);
+    }
+
+    private int offset(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return index * STRIDE;
+    }
+
+    private static final class Unpacked extends AbstractList<Sprinkler> implements RandomAccess {
+
+        private final PackedSprinklers packed;
+
+        private final Sprinkler[] sprinklers;
+
+        private Unpacked(final PackedSprinklers packed, final Sprinkler[] sprinklers) {
+            this.packed = packed;
+            this.sprinklers = sprinklers;
+        }
+
+        @Override
+        public Sprinkler get(final int index) {
+            return sprinklers[index];
+        }
+
+        @Override
+        public int size() {
+            return sprinklers.length;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package org.house.sprinklers.sprinkler_system;
 
 import com.google.common.collect.Lists;
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -13,7 +12,6 @@ import java.util.List;
 
 @Getter
 @Setter
-@EqualsAndHashCode(exclude = "areaPolygons")
 @ToString(exclude = "areaPolygons")
 public class Sprinkler implements Polygon {
 
@@ -27,7 +25,8 @@ public class Sprinkler implements Polygon {
 
     private double endAngle;
 
-    private List<Point2D> areaPolygons = null;
+    /* Built lazily, possibly by several evaluation threads at once. */
+    private volatile List<Point2D> areaPolygons = null;
 
     public Sprinkler(Point2D position, double range, double startAngle, double endAngle) {
         this.position = position;
@@ -36,6 +35,46 @@ public class Sprinkler implements Polygon {
         this.endAngle = endAngle;
     }
 
+    /**
+     * Same as {@link #equals(Object)}, against a sprinkler stored as doubles
+     * (see {@link PackedSprinklers}).
+     */
+    public boolean equals(double x, double y, double range, double startAngle, double endAngle) {
+        return Double.compare(position.getX(), x) == 0 &&
+                Double.compare(position.getY(), y) == 0 &&
+                Double.compare(this.range, range) == 0 &&
+                Double.compare(this.startAngle, startAngle) == 0 &&
+                Double.compare(this.endAngle, endAngle) == 0;
+    }
+
+    /**
+     * Hash code of a sprinkler stored as doubles, see {@link PackedSprinklers}.
+     */
+    public static int hashCode(double x, double y, double range, double startAngle, double endAngle) {
+        int result = Double.hashCode(x);
+        result = 31 * result + Double.hashCode(y);
+        result = 31 * result + Double.hashCode(range);
+        result = 31 * result + Double.hashCode(startAngle);
+        return 31 * result + Double.hashCode(endAngle);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Sprinkler)) {
+            return false;
+        }
+        final Sprinkler other = (Sprinkler) o;
+        return equals(other.position.getX(), other.position.getY(), other.range, other.startAngle, other.endAngle);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode(position.getX(), position.getY(), range, startAngle, endAngle);
+    }
+
     @Override
     public List<Point2D> getPolygonPoints() {
         if (areaPolygons == null) {
@@ -0,0 +1,242 @@
+package org.house.sprinklers;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.GeneticAlgorithm;
+import org.apache.commons.math3.genetics.OnePointVariableLengthCrossover;
+import org.apache.commons.math3.genetics.RandomGeneMutation;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.house.sprinklers.fitness.ClipperFitnessInputCalculator;
+import org.house.sprinklers.fitness.CoverageMode;
+import org.house.sprinklers.fitness.FitnessInput;
+import org.house.sprinklers.fitness.FitnessInputCalculator;
+import org.house.sprinklers.fitness.MeteredCache;
+import org.house.sprinklers.fitness.PolygonIntersectionCalculatorSync;
+import org.house.sprinklers.fitness.PolygonSprinklerGeometry;
+import org.house.sprinklers.fitness.RasterFitnessInputCalculator;
+import org.house.sprinklers.fitness.SimpleFitnessCalculator;
+import org.house.sprinklers.genetics.EvaluationPolicy;
+import org.house.sprinklers.genetics.GeneGeneratorConfiguration;
+import org.house.sprinklers.genetics.IndexTournamentSelection;
+import org.house.sprinklers.genetics.ListeningGeneticAlgorithm;
+import org.house.sprinklers.genetics.MemeticRefinement;
+import org.house.sprinklers.genetics.MultiFidelityEvaluationPolicy;
+import org.house.sprinklers.genetics.PopulationListener;
+import org.house.sprinklers.genetics.SmallChangeGeneGenerator;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.genetics.SteadyStateGeneticAlgorithm;
+import org.house.sprinklers.metrics.InMemoryRecorderService;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.population.CommonSenseSprinklerValidator;
+import org.house.sprinklers.population.CompositeSprinklerValidator;
+import org.house.sprinklers.population.InitialPopulationBuilder;
+import org.house.sprinklers.population.SprinklerSeeds;
+import org.house.sprinklers.population.SprinklerValidator;
+import org.house.sprinklers.population.TerrainSprinklerValidator;
+import org.house.sprinklers.random.RandomStreams;
+import org.house.sprinklers.random.TaskRandomGenerator;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.house.sprinklers.sprinkler_system.terrain.Terrain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Collaborators of a run on the 10x10 test terrain (terrain-10x10.in),
+ * wired like {@link SprinklerConfiguration} with its default properties:
+ * CLIPPER engine, polygon geometry, pairwise coverage, chromosomes of 1 to 6
+ * sprinklers. Runs of a given seed are reproducible; generational runs and
+ * initial populations do not depend on the number of threads either.
+ *
+ * <p/>With multi-fidelity, chromosomes are screened on a raster (default
+ * fitness.raster.* properties) and the top 3 of every generation are scored
+ * exactly; the exact engine sweeps coverage, so both measure the same areas.
+ *
+ * <p/>A fixture sets the selection random generator of {@link GeneticAlgorithm},
+ * which is global; closing it restores the previous one and shuts the pool
+ * down.
+ */
+public class TerrainFixture implements AutoCloseable {
+
+    public static final int MAX_LENGTH = 6;
+
+    /* Seeds of the tests comparing several runs. */
+    public static final long[] SEEDS = {1, 7, 42, 99, 1234};
+
+    private final RecorderService recorderService = new InMemoryRecorderService();
+
+    private final Terrain terrain;
+
+    private final RandomStreams randomStreams;
+
+    private final TaskRandomGenerator randomGenerator;
+
+    private final SprinklerValidator sprinklerValidator;
+
+    private final GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties =
+            new GeneticAlgorithmProperties.ChromosomeProperties();
+
+    private final GeneGeneratorConfiguration mutation = mutation();
+
+    private final Function<Sprinkler, Sprinkler> geneGenerator;
+
+    private final FitnessInputCalculator fitnessInputCalculator;
+
+    /* Null without multi-fidelity. */
+    private final FitnessInputCalculator screenInputCalculator;
+
+    private final EvaluationPolicy evaluationPolicy;
+
+    private final MeteredCache<List<Sprinkler>, FitnessInput> fitnessInputCache;
+
+    private final ForkJoinPool pool;
+
+    private final RandomGenerator previousSelectionRandom = GeneticAlgorithm.getRandomGenerator();
+
+    public TerrainFixture(final long seed) {
+        this(seed, 1);
+    }
+
+    public TerrainFixture(final long seed, final int threads) {
+        this(seed, threads, false);
+    }
+
+    public TerrainFixture(final long seed, final int threads, final boolean multiFidelity) {
+        pool = new ForkJoinPool(threads);
+        try (final InputStream terrainFile = TerrainFixture.class.getResourceAsStream("/terrain-10x10.in")) {
+            terrain = new Terrain.TerrainLoader().load(terrainFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        randomStreams = new RandomStreams(seed);
+        randomGenerator = new TaskRandomGenerator(randomStreams, recorderService);
+        GeneticAlgorithm.setRandomGenerator(randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_SELECTION));
+
+        sprinklerValidator = new CompositeSprinklerValidator(new HashSet<>(Arrays.asList(
+                new CommonSenseSprinklerValidator(), new TerrainSprinklerValidator(terrain))));
+        chromosomeProperties.setMinLength(1);
+        chromosomeProperties.setMaxLength(MAX_LENGTH);
+        geneGenerator = new SmallChangeGeneGenerator(sprinklerValidator, mutation, recorderService,
+                randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_GENE_GENERATOR));
+
+        final PolygonIntersectionCalculatorSync intersectionCalculator =
+                new PolygonIntersectionCalculatorSync(null, recorderService);
+        fitnessInputCalculator = new ClipperFitnessInputCalculator(
+                intersectionCalculator,
+                new PolygonSprinklerGeometry(intersectionCalculator),
+                new MeteredCache<>(50000, recorderService, MetricsConstants.COUNTER_CLIP_CACHE_HITS,
+                        MetricsConstants.COUNTER_CLIP_CACHE_MISSES, MetricsConstants.COUNTER_CLIP_CACHE_EVICTIONS),
+                new MeteredCache<>(50000, recorderService, MetricsConstants.COUNTER_OVERLAP_CACHE_HITS,
+                        MetricsConstants.COUNTER_OVERLAP_CACHE_MISSES, MetricsConstants.COUNTER_OVERLAP_CACHE_EVICTIONS),
+                multiFidelity ? CoverageMode.SWEEP : CoverageMode.PAIRWISE,
+                recorderService);
+        screenInputCalculator = multiFidelity ? new RasterFitnessInputCalculator(0.05, 8.0,
+                new MeteredCache<>(50000, recorderService, MetricsConstants.COUNTER_RASTER_MASK_CACHE_HITS,
+                        MetricsConstants.COUNTER_RASTER_MASK_CACHE_MISSES,
+                        MetricsConstants.COUNTER_RASTER_MASK_CACHE_EVICTIONS),
+                recorderService) : null;
+        evaluationPolicy = multiFidelity ?
+                new MultiFidelityEvaluationPolicy(3, recorderService) : EvaluationPolicy.LAZY;
+        fitnessInputCache = new MeteredCache<>(10000, recorderService, MetricsConstants.COUNTER_FITNESS_INPUT_CACHE_HITS,
+                MetricsConstants.COUNTER_FITNESS_INPUT_CACHE_MISSES, MetricsConstants.COUNTER_FITNESS_INPUT_CACHE_EVICTIONS);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        GeneticAlgorithm.setRandomGenerator(previousSelectionRandom);
+    }
+
+    public RecorderService getRecorderService() {
+        return recorderService;
+    }
+
+    public RandomStreams getRandomStreams() {
+        return randomStreams;
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    public FitnessInputCalculator getFitnessInputCalculator() {
+        return fitnessInputCalculator;
+    }
+
+    public FitnessInputCalculator getScreenInputCalculator() {
+        return screenInputCalculator;
+    }
+
+    public Chromosome chromosome(final List<Sprinkler> sprinklers) {
+        return new SprinklersChromosome(sprinklers, sprinklerValidator, new SimpleFitnessCalculator(),
+                fitnessInputCalculator, screenInputCalculator, fitnessInputCache, terrain, chromosomeProperties,
+                recorderService);
+    }
+
+    /**
+     * @param seededFraction Fraction of structured layouts, see {@link SprinklerSeeds}.
+     */
+    public List<Chromosome> initialPopulation(final int size, final double seededFraction) {
+        return new InitialPopulationBuilder(
+                this::chromosome,
+                geneGenerator,
+                new SprinklerSeeds(terrain, sprinklerValidator),
+                chromosomeProperties,
+                seededFraction,
+                randomGenerator,
+                randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_INITIAL_POPULATION),
+                pool)
+            .build(randomStreams, size);
+    }
+
+    public MemeticRefinement memeticRefinement(final int interval, final int topK, final int evaluationsPerGene) {
+        return new MemeticRefinement(interval, topK, evaluationsPerGene, 0.5, 0.17, recorderService);
+    }
+
+    public GeneticAlgorithm geneticAlgorithm(final boolean steadyState,
+                                             final PopulationListener populationListener,
+                                             final MemeticRefinement memeticRefinement) {
+        final OnePointVariableLengthCrossover<Sprinkler> crossover = new OnePointVariableLengthCrossover<>(
+                new GeneticAlgorithmProperties.CrossoverProperties(), chromosomeProperties, recorderService,
+                randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_CROSSOVER));
+        final RandomGeneMutation<Sprinkler> mutationPolicy = new RandomGeneMutation<>(
+                geneGenerator, mutation, chromosomeProperties, recorderService,
+                randomGenerator.forOperator(MetricsConstants.COUNTER_RANDOM_DRAWS_MUTATION));
+        if (steadyState) {
+            return new SteadyStateGeneticAlgorithm(crossover, 0.9, mutationPolicy, 0.2, new IndexTournamentSelection(4),
+                    recorderService, populationListener, evaluationPolicy, memeticRefinement,
+                    randomGenerator, randomStreams, pool);
+        }
+        return new ListeningGeneticAlgorithm(crossover, 0.9, mutationPolicy, 0.2, new IndexTournamentSelection(4),
+                recorderService, populationListener, evaluationPolicy, memeticRefinement,
+                randomGenerator, randomStreams, pool);
+    }
+
+    /**
+     * Mutation settings of ga.properties.
+     */
+    private static GeneGeneratorConfiguration mutation() {
+        final GeneGeneratorConfiguration mutation = new GeneGeneratorConfiguration();
+        mutation.setProbabilityInsertGenes(0.1);
+        mutation.setMinGenesToInsert(1);
+        mutation.setMaxGenesToInsert(2);
+        mutation.setProbabilityChangeGenes(0.8);
+        mutation.setMinGenesToChange(2);
+        mutation.setMaxGenesToChange(5);
+        mutation.setProbabilityChangePosX(0.8);
+        mutation.setProbabilityChangePosY(0.8);
+        mutation.setProbabilityChangeRadius(0.5);
+        mutation.setProbabilityChangeAngleStart(0.5);
+        mutation.setProbabilityChangeAngleEnd(0.5);
+        mutation.setProbabilityRemoveGene(0.1);
+        mutation.setMinGenesToRemove(0);
+        mutation.setMaxGenesToRemove(1);
+        return mutation;
+    }
+}
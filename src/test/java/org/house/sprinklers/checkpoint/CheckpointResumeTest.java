@@ -0,0 +1,128 @@
+package org.house.sprinklers.checkpoint;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.FixedGenerationCount;
+import org.apache.commons.math3.genetics.GeneticAlgorithm;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.TerrainFixture;
+import org.house.sprinklers.genetics.HeapPopulation;
+import org.house.sprinklers.genetics.PopulationListener;
+import org.house.sprinklers.genetics.Resumable;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs 30 generations on the 10x10 test terrain, then the same run
+ * checkpointed at generation 11 and resumed from the checkpoint: both end
+ * with the same population and counters.
+ */
+public class CheckpointResumeTest {
+
+    private static final long SEED = 42;
+
+    private static final int GENERATIONS = 30;
+
+    private static final int CHECKPOINTED_GENERATION = 11;
+
+    private static final List<String> COUNTERS = Arrays.asList(
+            MetricsConstants.COUNTER_GA_GENERATIONS,
+            MetricsConstants.COUNTER_RANDOM_DRAWS_SELECTION,
+            MetricsConstants.COUNTER_RANDOM_DRAWS_CROSSOVER,
+            MetricsConstants.COUNTER_RANDOM_DRAWS_MUTATION,
+            MetricsConstants.COUNTER_RANDOM_DRAWS_GENE_GENERATOR);
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("checkpoint", ".bin");
+        Files.delete(file);
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void resumedGenerationalRunMatchesUninterruptedRun() throws IOException {
+        assertEquals(uninterruptedRun(false), resumedRun(false));
+    }
+
+    @Test
+    public void resumedSteadyStateRunMatchesUninterruptedRun() throws IOException {
+        assertEquals(uninterruptedRun(true), resumedRun(true));
+    }
+
+    private List<String> uninterruptedRun(final boolean steadyState) {
+        try (final TerrainFixture fixture = new TerrainFixture(SEED)) {
+            final GeneticAlgorithm geneticAlgorithm =
+                    fixture.geneticAlgorithm(steadyState, (population, generation, durationInMillis) -> { },
+                            fixture.memeticRefinement(0, 0, 0));
+            return state(geneticAlgorithm.evolve(
+                    new HeapPopulation(fixture.initialPopulation(20, 0.3), 30, 0.1),
+                    new FixedGenerationCount(GENERATIONS)), fixture.getRecorderService());
+        }
+    }
+
+    private List<String> resumedRun(final boolean steadyState) throws IOException {
+        final CheckpointStore store = new CheckpointStore(file);
+
+        try (final TerrainFixture interrupted = new TerrainFixture(SEED)) {
+            final CheckpointWriter writer = new CheckpointWriter(store, SEED, 0,
+                    Collections.emptyList(), Collections.emptyList(), interrupted.getRecorderService());
+            final PopulationListener capture = writer.capture();
+            interrupted.geneticAlgorithm(steadyState,
+                    (population, generation, durationInMillis) -> {
+                        capture.onPopulation(population, generation, durationInMillis);
+                        writer.onPopulation(population, generation, durationInMillis);
+                    },
+                    interrupted.memeticRefinement(0, 0, 0))
+                .evolve(new HeapPopulation(interrupted.initialPopulation(20, 0.3), 30, 0.1),
+                        new FixedGenerationCount(CHECKPOINTED_GENERATION + 1));
+        }
+
+        final Checkpoint checkpoint = store.read().get();
+        assertEquals(CHECKPOINTED_GENERATION, checkpoint.getGeneration());
+
+        try (final TerrainFixture resumed = new TerrainFixture(checkpoint.getSeed())) {
+            final List<Chromosome> chromosomes = checkpoint.restoreChromosomes(resumed::chromosome);
+            checkpoint.restoreMetrics(resumed.getRecorderService());
+            final GeneticAlgorithm geneticAlgorithm = resumed.geneticAlgorithm(steadyState,
+                    (population, generation, durationInMillis) -> { }, resumed.memeticRefinement(0, 0, 0));
+            ((Resumable) geneticAlgorithm).resumeAt(checkpoint.getGeneration() + 1);
+            return state(geneticAlgorithm.evolve(
+                    new HeapPopulation(chromosomes, checkpoint.getPopulationLimit(), checkpoint.getElitismRate()),
+                    new FixedGenerationCount(GENERATIONS - CHECKPOINTED_GENERATION - 1)), resumed.getRecorderService());
+        }
+    }
+
+    /**
+     * Chromosomes of the final population, then the counters of the
+     * algorithm; cache counters depend on what was computed before.
+     */
+    private static List<String> state(final Population population, final RecorderService recorderService) {
+        final List<String> state = new ArrayList<>();
+        for (Chromosome chromosome : population) {
+            state.add(((SprinklersChromosome) chromosome).getRepresentation() + " " + chromosome.getFitness());
+        }
+        for (String counter : COUNTERS) {
+            state.add(counter + " = " + recorderService.getMetricValue(counter, 0L));
+        }
+        return state;
+    }
+}
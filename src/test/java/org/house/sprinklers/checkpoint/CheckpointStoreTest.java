@@ -0,0 +1,85 @@
+package org.house.sprinklers.checkpoint;
+
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.PopulationAndValue;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes checkpoints to a temporary file and reads them back.
+ */
+public class CheckpointStoreTest {
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("checkpoint", ".bin");
+        Files.delete(file);
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void checkpointIsReadBackUnchanged() throws IOException {
+        final List<List<Sprinkler>> chromosomes = Arrays.asList(
+                Arrays.asList(new Sprinkler(new Point2D.Double(1, 2), 3, 0, Math.PI)),
+                Collections.emptyList(),
+                Arrays.asList(
+                        new Sprinkler(new Point2D.Double(4, 5), 2.5, 0.5, 2),
+                        new Sprinkler(new Point2D.Double(9, 0.25), 1, 1, 2 * Math.PI)));
+        final BitSet provisional = new BitSet();
+        provisional.set(0);
+        provisional.set(2);
+        final Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put(MetricsConstants.COUNTER_GA_GENERATIONS, 12L);
+        counters.put(MetricsConstants.COUNTER_GA_INDIVIDUALS, 240L);
+        final Map<String, List<PopulationAndValue>> histograms = Collections.singletonMap(
+                MetricsConstants.METRIC_GA_GENERATION_FITNESS,
+                Arrays.asList(new PopulationAndValue(0, 0.25), new PopulationAndValue(1, 0.5)));
+        final Checkpoint checkpoint = new Checkpoint(42, 11, 30, 0.1, chromosomes, provisional, counters, histograms);
+
+        final CheckpointStore store = new CheckpointStore(file);
+        store.write(checkpoint);
+
+        assertEquals(Optional.of(checkpoint), store.read());
+    }
+
+    @Test
+    public void missingFileHasNoCheckpoint() throws IOException {
+        assertFalse(new CheckpointStore(file).read().isPresent());
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptedCheckpointIsRejected() throws IOException {
+        final CheckpointStore store = new CheckpointStore(file);
+        store.write(new Checkpoint(42, 0, 1, 0,
+                Collections.singletonList(Collections.singletonList(new Sprinkler(new Point2D.Double(1, 1), 1, 0, 1))),
+                new BitSet(), Collections.emptyMap(), Collections.emptyMap()));
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertTrue(store.read().isPresent());
+    }
+}
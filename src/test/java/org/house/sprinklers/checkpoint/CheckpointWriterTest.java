@@ -0,0 +1,150 @@
+package org.house.sprinklers.checkpoint;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.house.sprinklers.GeneticAlgorithmProperties;
+import org.house.sprinklers.fitness.FitnessInput;
+import org.house.sprinklers.fitness.FitnessInputCalculator;
+import org.house.sprinklers.fitness.MeteredCache;
+import org.house.sprinklers.fitness.SimpleFitnessCalculator;
+import org.house.sprinklers.genetics.HeapPopulation;
+import org.house.sprinklers.genetics.PopulationListener;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.metrics.InMemoryRecorderService;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.PopulationAndValue;
+import org.house.sprinklers.metrics.RecorderService;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a checkpoint holds the population and counters of the
+ * generation it was captured at, whatever happened before it was written.
+ */
+public class CheckpointWriterTest {
+
+    private final RecorderService recorderService = new InMemoryRecorderService();
+
+    private Path file;
+
+    private CheckpointStore store;
+
+    private CheckpointWriter writer;
+
+    private PopulationListener capture;
+
+    @Before
+    public void createWriter() throws IOException {
+        file = Files.createTempFile("checkpoint", ".bin");
+        Files.delete(file);
+        store = new CheckpointStore(file);
+        writer = new CheckpointWriter(store, 42, 0,
+                Collections.singletonList(MetricsConstants.METRIC_GA_GENERATION_FITNESS),
+                Collections.singletonList(MetricsConstants.COUNTER_GA_INDIVIDUALS),
+                recorderService);
+        capture = writer.capture();
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void checkpointMatchesCapturedGeneration() throws IOException {
+        final HeapPopulation population = population();
+        recorderService.increment(MetricsConstants.COUNTER_GA_GENERATIONS, 6);
+        capture.onPopulation(population, 5, 0);
+
+        // Evolution goes on while the listeners catch up with generation 5
+        recorderService.increment(MetricsConstants.COUNTER_GA_GENERATIONS);
+        recorderService.increment(MetricsConstants.COUNTER_GA_INDIVIDUALS, 12);
+        recorderService.submit(MetricsConstants.METRIC_GA_GENERATION_FITNESS, new PopulationAndValue(5, 0.5));
+        writer.onPopulation(population, 5, 0);
+
+        final Checkpoint checkpoint = store.read().get();
+        assertEquals(5, checkpoint.getGeneration());
+        assertEquals(2, checkpoint.getChromosomes().size());
+        assertTrue(checkpoint.getProvisional().get(0));
+        assertFalse(checkpoint.getProvisional().get(1));
+        assertEquals(Long.valueOf(6), checkpoint.getCounters().get(MetricsConstants.COUNTER_GA_GENERATIONS));
+        assertEquals(Long.valueOf(12), checkpoint.getCounters().get(MetricsConstants.COUNTER_GA_INDIVIDUALS));
+        assertEquals(Collections.singletonList(new PopulationAndValue(5, 0.5)),
+                checkpoint.getHistograms().get(MetricsConstants.METRIC_GA_GENERATION_FITNESS));
+    }
+
+    @Test
+    public void droppedGenerationIsNotWritten() throws IOException {
+        final HeapPopulation population = population();
+        capture.onPopulation(population, 1, 0);
+        capture.onPopulation(population, 2, 0);
+
+        // Generation 1 was dropped by the asynchronous listener
+        writer.onPopulation(population, 2, 0);
+        assertEquals(2, store.read().get().getGeneration());
+        assertEquals(1L, (long) recorderService.getMetricValue(MetricsConstants.COUNTER_CHECKPOINT_WRITES, 0L));
+
+        writer.onPopulation(population, 3, 0);
+        assertEquals(1L, (long) recorderService.getMetricValue(MetricsConstants.COUNTER_CHECKPOINT_WRITES, 0L));
+    }
+
+    @Test
+    public void restoredChromosomesKeepTheirFidelity() throws IOException {
+        final HeapPopulation population = population();
+        capture.onPopulation(population, 0, 0);
+        writer.onPopulation(population, 0, 0);
+
+        final List<Chromosome> restored = store.read().get()
+                .restoreChromosomes(sprinklers -> chromosome(sprinklers.get(0)));
+        assertEquals(2, restored.size());
+        for (int i = 0; i < restored.size(); i++) {
+            final SprinklersChromosome original = (SprinklersChromosome) population.getChromosome(i);
+            final SprinklersChromosome chromosome = (SprinklersChromosome) restored.get(i);
+            assertEquals(original.getRepresentation(), chromosome.getRepresentation());
+            assertEquals(original.getFitness(), chromosome.getFitness(), 0);
+            assertEquals(original.isProvisional(), chromosome.isProvisional());
+        }
+    }
+
+    /**
+     * A chromosome with a screen estimate, then one scored exactly.
+     */
+    private HeapPopulation population() {
+        final SprinklersChromosome screened = chromosome(new Sprinkler(new Point2D.Double(2, 2), 1, 0, Math.PI));
+        screened.getFitness();
+        final SprinklersChromosome exact = chromosome(new Sprinkler(new Point2D.Double(5, 5), 2, 0, Math.PI));
+        exact.getFitness();
+        exact.rescore();
+        return new HeapPopulation(Arrays.<Chromosome>asList(screened, exact), 4, 0.5);
+    }
+
+    private SprinklersChromosome chromosome(final Sprinkler sprinkler) {
+        final GeneticAlgorithmProperties.ChromosomeProperties chromosomeProperties =
+                new GeneticAlgorithmProperties.ChromosomeProperties();
+        chromosomeProperties.setMaxLength(1);
+        return new SprinklersChromosome(Collections.singletonList(sprinkler), null, new SimpleFitnessCalculator(),
+                area(2), area(1), new MeteredCache<List<Sprinkler>, FitnessInput>(0, recorderService, "h", "m", "e"),
+                null, chromosomeProperties, recorderService);
+    }
+
+    private static FitnessInputCalculator area(final double coveredArea) {
+        return (sprinklers, terrain, reference) -> FitnessInput.builder()
+                .numSprinklers(sprinklers.size())
+                .terrainArea(10)
+                .coveredArea(coveredArea)
+                .build();
+    }
+}
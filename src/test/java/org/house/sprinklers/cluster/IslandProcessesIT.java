@@ -0,0 +1,107 @@
+package org.house.sprinklers.cluster;
+
+import org.house.sprinklers.IslandWorkerRunner;
+import org.house.sprinklers.genetics.MigrationTopology;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a {@link MigrationCoordinator} and one {@link IslandWorkerRunner}
+ * process per island on localhost, and checks that every worker receives
+ * migrants from the others. Forks JVMs, so it only runs with the
+ * integration tests (<code>mvn verify</code>).
+ */
+public class IslandProcessesIT {
+
+    private static final int ISLANDS = 3;
+
+    private static final long TIMEOUT_SECONDS = 240;
+
+    private static final Pattern RECEIVED = Pattern.compile("received = (\\d+)");
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+
+    private final List<Process> workers = new ArrayList<>();
+
+    @After
+    public void stop() {
+        workers.forEach(Process::destroy);
+        coordinator.shutdownNow();
+    }
+
+    @Test
+    public void migrantsReachEveryWorker() throws Exception {
+        final int port = freePort();
+        final Future<Migrant> best = coordinator.submit(
+                () -> new MigrationCoordinator(port, ISLANDS, MigrationTopology.RING).run());
+
+        final List<Path> logs = new ArrayList<>(ISLANDS);
+        for (int island = 0; island < ISLANDS; island++) {
+            final Path log = Files.createTempFile("island-" + island, ".log");
+            log.toFile().deleteOnExit();
+            logs.add(log);
+            workers.add(worker(port, island, log));
+        }
+
+        for (int island = 0; island < ISLANDS; island++) {
+            final Process worker = workers.get(island);
+            assertTrue("Island " + island + " did not finish", worker.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals("Island " + island + " failed:\n" + read(logs.get(island)), 0, worker.exitValue());
+        }
+        assertNotNull(best.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        for (int island = 0; island < ISLANDS; island++) {
+            final String log = read(logs.get(island));
+            final Matcher received = RECEIVED.matcher(log);
+            assertTrue("Island " + island + " reported no migrants:\n" + log, received.find());
+            assertTrue("Island " + island + " received no migrants", Integer.parseInt(received.group(1)) > 0);
+        }
+    }
+
+    private static Process worker(final int port, final int island, final Path log) throws IOException {
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(
+                java,
+                "-cp", System.getProperty("java.class.path"),
+                "-DgeneticAlgorithm.generations=40",
+                "-DgeneticAlgorithm.islands.migrationInterval=10",
+                "-DgeneticAlgorithm.islands.remote.coordinatorHost=localhost",
+                "-DgeneticAlgorithm.islands.remote.coordinatorPort=" + port,
+                "-DgeneticAlgorithm.islands.remote.island=" + island,
+                IslandWorkerRunner.class.getName())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .directory(new File(System.getProperty("java.io.tmpdir")))
+                .start();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+
+    private static String read(final Path log) throws IOException {
+        return new String(Files.readAllBytes(log), StandardCharsets.UTF_8);
+    }
+}
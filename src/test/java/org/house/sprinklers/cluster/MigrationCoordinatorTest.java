@@ -0,0 +1,131 @@
+package org.house.sprinklers.cluster;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.house.sprinklers.TerrainFixture;
+import org.house.sprinklers.genetics.MigrationTopology;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.sprinkler_system.PackedSprinklers;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A {@link MigrationCoordinator} and two {@link SocketMigrationChannel}
+ * islands in this process, on the 10x10 test terrain.
+ */
+public class MigrationCoordinatorTest {
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private static final List<Sprinkler> GOOD = Arrays.asList(
+            new Sprinkler(new Point2D.Double(2.5, 2.5), 3, 0, 2 * Math.PI),
+            new Sprinkler(new Point2D.Double(7.5, 7.5), 3, 0, 2 * Math.PI));
+
+    private static final List<Sprinkler> POOR = Collections.singletonList(
+            new Sprinkler(new Point2D.Double(5, 5), 1, 0, Math.PI));
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+
+    private TerrainFixture fixture;
+
+    @Before
+    public void createFixture() {
+        fixture = new TerrainFixture(42);
+    }
+
+    @After
+    public void stop() {
+        coordinator.shutdownNow();
+        fixture.close();
+    }
+
+    @Test
+    public void framesSurviveEncoding() throws IOException {
+        final List<Migrant> migrants = Arrays.asList(new Migrant(0.75, GOOD), new Migrant(-1, POOR));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MigrantCodec.write(new DataOutputStream(bytes), MigrantCodec.MIGRANTS, 3, migrants);
+
+        final MigrantCodec.Frame frame = MigrantCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(MigrantCodec.MIGRANTS, frame.getType());
+        assertEquals(3, frame.getIsland());
+        assertEquals(migrants.size(), frame.getMigrants().size());
+        for (int i = 0; i < migrants.size(); i++) {
+            assertEquals(migrants.get(i).getFitness(), frame.getMigrants().get(i).getFitness(), 0);
+            assertEquals(PackedSprinklers.of(migrants.get(i).getGenes()),
+                    PackedSprinklers.of(frame.getMigrants().get(i).getGenes()));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownFramesAreRejected() throws IOException {
+        MigrantCodec.read(new DataInputStream(new ByteArrayInputStream(new byte[] {42, 0, 0, 0, 0, 0, 0, 0, 0})));
+    }
+
+    /**
+     * Island 0 sends a fit migrant to island 1, then both are done with poor
+     * chromosomes: the migrant is relayed but is not the best chromosome.
+     */
+    @Test
+    public void migrantsAreRelayedAndOnlyDoneChromosomesRank() throws Exception {
+        assertTrue(fixture.chromosome(GOOD).getFitness() > fixture.chromosome(POOR).getFitness());
+        final int port = freePort();
+        final Future<Migrant> best = coordinator.submit(
+                () -> new MigrationCoordinator(port, 2, MigrationTopology.RING).run());
+
+        try (final SocketMigrationChannel island0 = channel(port, 0);
+             final SocketMigrationChannel island1 = channel(port, 1)) {
+            island0.emigrate(0, Collections.singletonList(fixture.chromosome(GOOD)));
+
+            final List<Chromosome> received = receive(island1);
+            assertEquals(1, received.size());
+            assertEquals(PackedSprinklers.of(GOOD), ((SprinklersChromosome) received.get(0)).getRepresentation());
+            assertTrue(island0.immigrate(0).isEmpty());
+
+            island0.complete(0, fixture.chromosome(POOR));
+            island1.complete(1, fixture.chromosome(POOR));
+        }
+
+        final Migrant fittest = best.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(PackedSprinklers.of(POOR), PackedSprinklers.of(fittest.getGenes()));
+        assertEquals(fixture.chromosome(POOR).getFitness(), fittest.getFitness(), 0);
+    }
+
+    private SocketMigrationChannel channel(final int port, final int island) {
+        return new SocketMigrationChannel("localhost", port, island, fixture::chromosome, fixture.getRecorderService());
+    }
+
+    private static List<Chromosome> receive(final SocketMigrationChannel channel) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        List<Chromosome> received = channel.immigrate(0);
+        while (received.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            received = channel.immigrate(0);
+        }
+        return received;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.house.sprinklers.fitness;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.house.sprinklers.TerrainFixture;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.sprinkler_system.Sprinkler;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Screen (raster) against exact fitness of the same chromosomes, on the
+ * 10x10 test terrain.
+ */
+public class ScreenFitnessTest {
+
+    private static final FitnessCalculator FITNESS = new SimpleFitnessCalculator();
+
+    @Test
+    public void onlyUnionEnginesScreenEachOther() {
+        assertEquals(CoverageMode.SWEEP, FitnessEngine.RASTER.coverageMode(CoverageMode.PAIRWISE));
+        assertEquals(CoverageMode.SWEEP, FitnessEngine.QMC.coverageMode(CoverageMode.PAIRWISE));
+        assertEquals(CoverageMode.PAIRWISE, FitnessEngine.CLIPPER.coverageMode(CoverageMode.PAIRWISE));
+        assertEquals(CoverageMode.SWEEP, FitnessEngine.CLIPPER.coverageMode(CoverageMode.SWEEP));
+    }
+
+    @Test
+    public void screenMatchesSweptFitness() throws InterruptedException {
+        double error = 0;
+        int count = 0;
+        for (long seed : TerrainFixture.SEEDS) {
+            try (final TerrainFixture fixture = new TerrainFixture(seed, 1, true)) {
+                for (Chromosome chromosome : fixture.initialPopulation(30, 0.3)) {
+                    final List<Sprinkler> sprinklers = ((SprinklersChromosome) chromosome).getRepresentation().unpack();
+                    final double screen = fitness(fixture.getScreenInputCalculator(), sprinklers, fixture);
+                    final double exact = fitness(fixture.getFitnessInputCalculator(), sprinklers, fixture);
+                    assertEquals("Seed " + seed + ": " + sprinklers, exact, screen, 0.08);
+                    error += Math.abs(screen - exact);
+                    count++;
+                }
+            }
+        }
+        assertTrue("Mean error " + error / count, error / count < 0.01);
+    }
+
+    /**
+     * Three sprinklers on top of each other: pairwise coverage counts every
+     * pairwise overlap and the area of each extra sprinkler as outside.
+     */
+    @Test
+    public void screenDoesNotMeasurePairwiseAreas() throws InterruptedException {
+        final Sprinkler sprinkler = new Sprinkler(new Point2D.Double(2, 2), 3, 0, Math.PI / 2);
+        final List<Sprinkler> stacked = Arrays.asList(sprinkler, sprinkler, sprinkler);
+        try (final TerrainFixture screened = new TerrainFixture(42, 1, true);
+             final TerrainFixture pairwise = new TerrainFixture(42)) {
+            final FitnessInput screen = screened.getScreenInputCalculator().computeFitnessInput(stacked, screened.getTerrain());
+            final FitnessInput sweep = screened.getFitnessInputCalculator().computeFitnessInput(stacked, screened.getTerrain());
+            final FitnessInput pair = pairwise.getFitnessInputCalculator().computeFitnessInput(stacked, pairwise.getTerrain());
+
+            assertEquals(sweep.getCoveredArea(), screen.getCoveredArea(), 0.05 * sweep.getCoveredArea());
+            assertEquals(sweep.getOverlapArea(), screen.getOverlapArea(), 0.05 * sweep.getOverlapArea());
+            assertEquals(sweep.getOutsideArea(), screen.getOutsideArea(), 0.01);
+            assertEquals(3 * sweep.getOverlapArea(), pair.getOverlapArea(), 0.01);
+            assertEquals(2 * sweep.getCoveredArea(), pair.getOutsideArea(), 0.01);
+        }
+    }
+
+    /**
+     * Screening and rescoring compute an input each, a known representation
+     * none.
+     */
+    @Test
+    public void onlyComputedInputsCountAsEvaluations() {
+        final List<Sprinkler> sprinklers = Arrays.asList(
+                new Sprinkler(new Point2D.Double(2, 2), 3, 0, Math.PI / 2),
+                new Sprinkler(new Point2D.Double(7, 7), 2, 0, Math.PI));
+        try (final TerrainFixture fixture = new TerrainFixture(42, 1, true)) {
+            final SprinklersChromosome chromosome = (SprinklersChromosome) fixture.chromosome(sprinklers);
+            chromosome.getFitness();
+            assertEquals(1L, evaluations(fixture));
+            chromosome.rescore();
+            assertEquals(2L, evaluations(fixture));
+            fixture.chromosome(sprinklers).getFitness();
+            chromosome.rescore();
+            assertEquals(2L, evaluations(fixture));
+        }
+    }
+
+    private static long evaluations(final TerrainFixture fixture) {
+        return fixture.getRecorderService().getMetricValue(MetricsConstants.COUNTER_FITNESS_EVALUATIONS, 0L);
+    }
+
+    private static double fitness(final FitnessInputCalculator calculator,
+                                  final List<Sprinkler> sprinklers,
+                                  final TerrainFixture fixture) throws InterruptedException {
+        return FITNESS.computeFitness(calculator.computeFitnessInput(sprinklers, fixture.getTerrain()));
+    }
+}
@@ -0,0 +1,98 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+import org.apache.commons.math3.util.CombinatoricsUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tournaments over a heap whose slot <code>i</code> has fitness
+ * <code>i</code>: with probability 1 the winner is the fittest of
+ * <code>arity</code> distinct contestants drawn uniformly.
+ */
+public class IndexTournamentSelectionTest {
+
+    private static final int SIZE = 10;
+
+    private static final int TOURNAMENTS = 50000;
+
+    @Test
+    public void fullTournamentsAlwaysPickTheFittest() {
+        final RandomGenerator random = new Well19937c(42);
+        final IndexedFitnessHeap heap = heap();
+        for (int arity = SIZE; arity <= SIZE + 2; arity++) {
+            final IndexTournamentSelection selection = new IndexTournamentSelection(arity);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(SIZE - 1, selection.tournament(heap, random));
+            }
+        }
+    }
+
+    /**
+     * Slot r wins when it is drawn with <code>arity - 1</code> slots below
+     * it: C(r, arity - 1) of the C(SIZE, arity) contestant sets. Repeated
+     * contestants would let the lowest slots win too.
+     */
+    @Test
+    public void contestantsAreDistinctAndUniform() {
+        final RandomGenerator random = new Well19937c(42);
+        final IndexedFitnessHeap heap = heap();
+        for (int arity = 1; arity < SIZE; arity++) {
+            final IndexTournamentSelection selection = new IndexTournamentSelection(arity);
+            final int[] wins = new int[SIZE];
+            for (int i = 0; i < TOURNAMENTS; i++) {
+                wins[selection.tournament(heap, random)]++;
+            }
+            final double sets = CombinatoricsUtils.binomialCoefficientDouble(SIZE, arity);
+            for (int slot = 0; slot < SIZE; slot++) {
+                final double expected = slot < arity - 1 ? 0 :
+                        CombinatoricsUtils.binomialCoefficientDouble(slot, arity - 1) / sets;
+                assertEquals("Arity " + arity + ", slot " + slot, expected, wins[slot] / (double) TOURNAMENTS, 0.01);
+                if (expected == 0) {
+                    assertEquals("Arity " + arity + ", slot " + slot, 0, wins[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Each contestant wins with the given probability, fittest first, the
+     * last one left always does.
+     */
+    @Test
+    public void lowerProbabilitiesLetWeakerContestantsWin() {
+        final RandomGenerator random = new Well19937c(42);
+        final IndexedFitnessHeap heap = heap();
+        final IndexTournamentSelection selection = new IndexTournamentSelection(SIZE, 0.5);
+        final int[] wins = new int[SIZE];
+        for (int i = 0; i < TOURNAMENTS; i++) {
+            wins[selection.tournament(heap, random)]++;
+        }
+        for (int slot = 1; slot < SIZE; slot++) {
+            final double expected = Math.pow(0.5, SIZE - slot);
+            assertEquals("Slot " + slot, expected, wins[slot] / (double) TOURNAMENTS, 0.01);
+        }
+        assertTrue(wins[0] > 0);
+    }
+
+    private static IndexedFitnessHeap heap() {
+        final IndexedFitnessHeap heap = new IndexedFitnessHeap(SIZE);
+        for (int slot = 0; slot < SIZE; slot++) {
+            heap.add(chromosome(slot));
+        }
+        return heap;
+    }
+
+    private static Chromosome chromosome(final double fitness) {
+        return new Chromosome() {
+            @Override
+            public double fitness() {
+                return fitness;
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Random adds and replacements, checked after each one against the slots
+ * sorted by fitness (then slot, as the heap breaks ties).
+ */
+public class IndexedFitnessHeapTest {
+
+    private static final int CAPACITY = 64;
+
+    @Test
+    public void heapMatchesSortedSlots() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            final IndexedFitnessHeap heap = new IndexedFitnessHeap(CAPACITY);
+            final List<Double> fitness = new ArrayList<>();
+            for (int operation = 0; operation < 500; operation++) {
+                // Few distinct values, so ties are frequent
+                final double value = random.nextInt(8) / 4.0;
+                if (fitness.size() < CAPACITY && (fitness.isEmpty() || random.nextBoolean())) {
+                    assertEquals(fitness.size(), heap.add(chromosome(value)));
+                    fitness.add(value);
+                } else {
+                    final int slot = random.nextInt(fitness.size());
+                    final Chromosome previous = heap.get(slot);
+                    assertSame(previous, heap.replace(slot, chromosome(value)));
+                    fitness.set(slot, value);
+                }
+                check(heap, fitness, random.nextInt(fitness.size() + 2));
+            }
+        }
+    }
+
+    @Test
+    public void clearKeepsCapacity() {
+        final IndexedFitnessHeap heap = new IndexedFitnessHeap(3);
+        heap.add(chromosome(1));
+        heap.add(chromosome(2));
+        heap.clear();
+        assertEquals(0, heap.size());
+        assertEquals(0, heap.fittestSlots(2).length);
+        heap.add(chromosome(3));
+        heap.add(chromosome(0));
+        heap.add(chromosome(5));
+        assertEquals(2, heap.fittestSlot());
+        assertEquals(1, heap.leastFitSlot());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fullHeapRejectsAdds() {
+        final IndexedFitnessHeap heap = new IndexedFitnessHeap(1);
+        heap.add(chromosome(1));
+        heap.add(chromosome(2));
+    }
+
+    private static void check(final IndexedFitnessHeap heap, final List<Double> fitness, final int k) {
+        assertEquals(fitness.size(), heap.size());
+        final List<Integer> ascending = new ArrayList<>();
+        for (int slot = 0; slot < fitness.size(); slot++) {
+            ascending.add(slot);
+            assertEquals(fitness.get(slot), heap.fitness(slot), 0);
+            assertEquals(fitness.get(slot), heap.get(slot).getFitness(), 0);
+        }
+        ascending.sort(Comparator.<Integer>comparingDouble(fitness::get).thenComparing(Comparator.naturalOrder()));
+
+        final int count = Math.min(k, fitness.size());
+        final int[] fittest = new int[count];
+        final int[] leastFit = new int[count];
+        for (int i = 0; i < count; i++) {
+            fittest[i] = ascending.get(ascending.size() - 1 - i);
+            leastFit[i] = ascending.get(i);
+        }
+        assertEquals((int) ascending.get(ascending.size() - 1), heap.fittestSlot());
+        assertEquals((int) ascending.get(0), heap.leastFitSlot());
+        assertArrayEquals(fittest, heap.fittestSlots(k));
+        assertArrayEquals(leastFit, heap.leastFitSlots(k));
+    }
+
+    private static Chromosome chromosome(final double fitness) {
+        return new Chromosome() {
+            @Override
+            public double fitness() {
+                return fitness;
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.FixedGenerationCount;
+import org.apache.commons.math3.genetics.GeneticAlgorithm;
+import org.apache.commons.math3.genetics.StoppingCondition;
+import org.house.sprinklers.TerrainFixture;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Three islands of 20 chromosomes on the 10x10 test terrain, migrating
+ * every 10 generations.
+ */
+public class IslandModelTest {
+
+    private static final int ISLANDS = 3;
+
+    @Test
+    public void islandsEvolveTheGenerationsOfTheirStoppingCondition() {
+        try (final TerrainFixture fixture = new TerrainFixture(42)) {
+            final IslandModel islandModel = islandModel(fixture, () -> new FixedGenerationCount(25));
+            islandModel.evolve();
+
+            assertEquals(25, islandModel.getGenerationsEvolved());
+            assertEquals(ISLANDS * 25L, counter(fixture, MetricsConstants.COUNTER_GA_GENERATIONS));
+            // After generations 10 and 20, not after the last one
+            assertEquals(ISLANDS * 2 * 2L, counter(fixture, MetricsConstants.COUNTER_ISLAND_MIGRANTS_SENT));
+        }
+    }
+
+    @Test
+    public void islandsStopEarly() {
+        try (final TerrainFixture fixture = new TerrainFixture(42)) {
+            final IslandModel islandModel = islandModel(fixture, () -> new AnyStoppingCondition(Arrays.asList(
+                    new StagnationCondition(5), new FixedGenerationCount(1000))));
+            islandModel.evolve();
+
+            assertTrue(islandModel.getGenerationsEvolved() < 1000);
+        }
+    }
+
+    private static IslandModel islandModel(final TerrainFixture fixture,
+                                           final Supplier<StoppingCondition> stoppingConditions) {
+        final List<GeneticAlgorithm> algorithms = new ArrayList<>(ISLANDS);
+        for (int island = 0; island < ISLANDS; island++) {
+            algorithms.add(fixture.geneticAlgorithm(false, (population, generation, durationInMillis) -> { },
+                    fixture.memeticRefinement(0, 0, 0)));
+        }
+        return new IslandModel(
+                algorithms,
+                island -> new HeapPopulation(fixture.initialPopulation(20, 0.3), 20, 0.1),
+                stoppingConditions,
+                new LocalMigrationChannel(ISLANDS, MigrationTopology.RING),
+                10,
+                2,
+                fixture.getRecorderService());
+    }
+
+    private static long counter(final TerrainFixture fixture, final String name) {
+        return fixture.getRecorderService().getMetricValue(name, 0L);
+    }
+}
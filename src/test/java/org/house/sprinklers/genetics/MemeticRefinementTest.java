@@ -0,0 +1,103 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.FixedGenerationCount;
+import org.house.sprinklers.TerrainFixture;
+import org.house.sprinklers.metrics.MetricsConstants;
+import org.house.sprinklers.metrics.RecorderService;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Memetic refinement on the 10x10 test terrain.
+ */
+public class MemeticRefinementTest {
+
+    private static final long EVALUATIONS = 2000;
+
+    @Test
+    public void refinementNeverLowersFitnessNorChangesGeneCount() {
+        for (long seed : TerrainFixture.SEEDS) {
+            try (final TerrainFixture fixture = new TerrainFixture(seed)) {
+                final MemeticRefinement refinement = fixture.memeticRefinement(1, 2, 40);
+                int improved = 0;
+                for (Chromosome chromosome : fixture.initialPopulation(30, 0.3)) {
+                    final Chromosome refined = refinement.refine(chromosome);
+                    assertTrue(refined.getFitness() >= chromosome.getFitness());
+                    assertEquals(((SprinklersChromosome) chromosome).getLength(),
+                            ((SprinklersChromosome) refined).getLength());
+                    if (refined != chromosome) {
+                        improved++;
+                    }
+                }
+                assertTrue("Seed " + seed + ": no chromosome improved", improved > 0);
+            }
+        }
+    }
+
+    /**
+     * With multi-fidelity, candidates are scored exactly right away: one
+     * fitness input per candidate at most, none for those already known.
+     */
+    @Test
+    public void candidatesAreScoredOnce() {
+        try (final TerrainFixture fixture = new TerrainFixture(42, 1, true)) {
+            final RecorderService recorderService = fixture.getRecorderService();
+            final MemeticRefinement refinement = fixture.memeticRefinement(1, 2, 40);
+            for (Chromosome chromosome : fixture.initialPopulation(30, 0.3)) {
+                ((MultiFidelityChromosome) chromosome).scoreExactly();
+                final long evaluations = counter(recorderService, MetricsConstants.COUNTER_FITNESS_EVALUATIONS);
+                final long candidates = counter(recorderService, MetricsConstants.COUNTER_MEMETIC_EVALUATIONS);
+                final Chromosome refined = refinement.refine(chromosome);
+                assertTrue(counter(recorderService, MetricsConstants.COUNTER_FITNESS_EVALUATIONS) - evaluations
+                        <= counter(recorderService, MetricsConstants.COUNTER_MEMETIC_EVALUATIONS) - candidates);
+                assertTrue(!((MultiFidelityChromosome) refined).isProvisional());
+            }
+        }
+    }
+
+    /**
+     * Refinement spends evaluations the algorithm could have spent on more
+     * generations, so runs are compared at the same evaluation budget.
+     */
+    @Test
+    public void refinedRunsEndFitterAtEqualBudget() {
+        double withRefinement = 0;
+        double withoutRefinement = 0;
+        for (long seed : TerrainFixture.SEEDS) {
+            withRefinement += bestFitness(seed, 5);
+            withoutRefinement += bestFitness(seed, 0);
+        }
+        assertTrue("Mean best fitness " + withRefinement / TerrainFixture.SEEDS.length + " with refinement, "
+                        + withoutRefinement / TerrainFixture.SEEDS.length + " without",
+                withRefinement > withoutRefinement);
+    }
+
+    /**
+     * Best fitness of 30 chromosomes evolved for EVALUATIONS fitness
+     * computations, the 2 fittest being refined every
+     * <code>interval</code> generations.
+     */
+    private static double bestFitness(final long seed, final int interval) {
+        try (final TerrainFixture fixture = new TerrainFixture(seed)) {
+            final RecorderService recorderService = fixture.getRecorderService();
+            return fixture.geneticAlgorithm(false, (population, generation, durationInMillis) -> { },
+                        fixture.memeticRefinement(interval, 2, 40))
+                    .evolve(new HeapPopulation(fixture.initialPopulation(30, 0.3), 30, 0.1),
+                            new AnyStoppingCondition(Arrays.asList(
+                                    new EvaluationBudgetCondition(recorderService,
+                                            MetricsConstants.COUNTER_FITNESS_EVALUATIONS, EVALUATIONS),
+                                    new FixedGenerationCount(1000))))
+                    .getFittestChromosome()
+                    .getFitness();
+        }
+    }
+
+    private static long counter(final RecorderService recorderService, final String name) {
+        return recorderService.getMetricValue(name, 0L);
+    }
+}
@@ -0,0 +1,40 @@
+package org.house.sprinklers.genetics;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.apache.commons.math3.genetics.FixedGenerationCount;
+import org.apache.commons.math3.genetics.Population;
+import org.house.sprinklers.TerrainFixture;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Steady-state runs on the 10x10 test terrain.
+ */
+public class SteadyStateGeneticAlgorithmTest {
+
+    @Test
+    public void multiFidelityChildrenAreScoredExactly() {
+        final List<Population> generations = new ArrayList<>();
+        final Population last;
+        try (final TerrainFixture fixture = new TerrainFixture(42, 1, true)) {
+            last = fixture.geneticAlgorithm(true,
+                        (population, generation, durationInMillis) -> generations.add(population),
+                        fixture.memeticRefinement(0, 0, 0))
+                    .evolve(new HeapPopulation(fixture.initialPopulation(20, 0.3), 30, 0.1),
+                            new FixedGenerationCount(10));
+        }
+
+        assertEquals(10, generations.size());
+        generations.add(last);
+        for (Population population : generations) {
+            for (Chromosome chromosome : population) {
+                assertFalse(((MultiFidelityChromosome) chromosome).isProvisional());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.house.sprinklers.population;
+
+import org.apache.commons.math3.genetics.Chromosome;
+import org.house.sprinklers.TerrainFixture;
+import org.house.sprinklers.genetics.SprinklersChromosome;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Initial populations on the 10x10 test terrain.
+ */
+public class InitialPopulationBuilderTest {
+
+    private static final int SIZE = 30;
+
+    @Test
+    public void seededChromosomesStartFitterThanRandomOnes() {
+        for (long seed : TerrainFixture.SEEDS) {
+            final double seeded = meanFitness(initialPopulation(seed, 1, 1));
+            final double random = meanFitness(initialPopulation(seed, 1, 0));
+            assertTrue("Seed " + seed + ": seeded " + seeded + ", random " + random, seeded > 2 * random);
+        }
+    }
+
+    @Test
+    public void populationDoesNotDependOnThreads() {
+        assertEquals(representations(initialPopulation(42, 1, 0.3)), representations(initialPopulation(42, 4, 0.3)));
+    }
+
+    private static List<Chromosome> initialPopulation(final long seed, final int threads, final double seededFraction) {
+        try (final TerrainFixture fixture = new TerrainFixture(seed, threads)) {
+            return fixture.initialPopulation(SIZE, seededFraction);
+        }
+    }
+
+    private static double meanFitness(final List<Chromosome> chromosomes) {
+        return chromosomes.stream().mapToDouble(Chromosome::getFitness).average().getAsDouble();
+    }
+
+    private static List<String> representations(final List<Chromosome> chromosomes) {
+        return chromosomes.stream()
+                .map(chromosome -> ((SprinklersChromosome) chromosome).getRepresentation().toString())
+                .collect(Collectors.toList());
+    }
+}